@@ -0,0 +1,68 @@
+package smarteditor;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+// Deterministic input for the benchmarks, so runs can be compared
+final class BenchmarkData {
+    private static final String[] SYLLABLES = {
+        "get", "set", "is", "has", "to", "from", "on", "with", "add", "remove",
+        "text", "line", "word", "file", "edit", "node", "tree", "state", "list", "map",
+        "count", "index", "offset", "length", "size", "buffer", "value", "key", "item", "event",
+        "handler", "builder", "reader", "writer", "loader", "saver", "cache", "pool", "queue", "task"
+    };
+
+    private BenchmarkData() {
+    }
+
+    // Distinct identifiers built from camel-cased syllables, like the ones
+    // the dictionary learns from source files
+    static String[] words(int count, long seed) {
+        Random random = new Random(seed);
+        Set<String> words = new LinkedHashSet<>();
+        StringBuilder word = new StringBuilder();
+        while (words.size() < count) {
+            word.setLength(0);
+            int parts = 1 + random.nextInt(4);
+            for (int i = 0; i < parts; i++) {
+                String syllable = SYLLABLES[random.nextInt(SYLLABLES.length)];
+                if (i == 0) {
+                    word.append(syllable);
+                } else {
+                    word.append(Character.toUpperCase(syllable.charAt(0))).append(syllable, 1, syllable.length());
+                }
+            }
+            if (random.nextInt(4) == 0) {
+                word.append(random.nextInt(100));
+            }
+            words.add(word.toString());
+        }
+        return words.toArray(new String[0]);
+    }
+
+    // Source-like text of exactly the given length, in lines of up to 100 chars
+    static String text(int length, long seed) {
+        Random random = new Random(seed);
+        String[] vocabulary = words(2000, seed);
+        StringBuilder text = new StringBuilder(length + 120);
+        while (text.length() < length) {
+            int lineEnd = text.length() + 20 + random.nextInt(80);
+            text.append("    ");
+            while (text.length() < lineEnd) {
+                text.append(vocabulary[random.nextInt(vocabulary.length)]);
+                text.append(random.nextInt(6) == 0 ? "(); " : " ");
+            }
+            text.append('\n');
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+
+    // Document loaded the same way the editor opens a file
+    static PieceTableDocument document(String text) {
+        PieceTableDocument document = new PieceTableDocument();
+        document.load(text.toCharArray(), text.length());
+        return document;
+    }
+}
@@ -0,0 +1,96 @@
+package smarteditor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.swing.text.BadLocationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Open and save throughput across file sizes, through the same reader and
+// writer the editor uses. Saves include the fsync, as they do in the editor.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FileBenchmark {
+    @Param({"1000000", "16000000"})
+    int fileSize;
+
+    private Path directory;
+    private File source;
+    private File target;
+    private PieceTable.Snapshot savedText;
+    private PieceTable.Snapshot editedText;
+    private DirtyRegions dirty;
+
+    @Setup
+    public void setUp() throws IOException, BadLocationException {
+        directory = Files.createTempDirectory("smarteditor-benchmark");
+        source = directory.resolve("source.txt").toFile();
+        target = directory.resolve("target.txt").toFile();
+        Files.write(source.toPath(), BenchmarkData.text(fileSize, 42).getBytes(StandardCharsets.UTF_8));
+        Files.copy(source.toPath(), target.toPath());
+
+        // One character changed in the middle, which can be saved in place
+        PieceTableDocument document = open();
+        savedText = document.getPieceTable().snapshot();
+        int offset = document.getLength() / 2;
+        new TextEdit(offset, document.getText(offset, 1), "#").apply(document);
+        editedText = document.getPieceTable().snapshot();
+        dirty = new DirtyRegions();
+        dirty.record(offset, 1, 1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private PieceTableDocument open() throws IOException {
+        return new TextFileReader(source, true).read(percent -> { }, () -> false);
+    }
+
+    @Benchmark
+    public PieceTableDocument openFile() throws IOException {
+        return open();
+    }
+
+    // Streams the whole text to a temporary file and renames it over the target
+    @Benchmark
+    public long saveFile() throws IOException {
+        return new TextFileWriter(target, editedText).write();
+    }
+
+    // Writes only the changed bytes into the file
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long saveFileInPlace() throws IOException {
+        TextFileWriter writer = new TextFileWriter(target, editedText);
+        writer.rewriteDirtyRegions(savedText, dirty, target.length(), target.lastModified());
+        return writer.write();
+    }
+}
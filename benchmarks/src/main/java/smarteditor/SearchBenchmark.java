@@ -0,0 +1,87 @@
+package smarteditor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.swing.text.BadLocationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Searching for a string that does not occur, so the whole text is read:
+// the find bar's literal and regex searches over a document, and the
+// parallel search over the same text as a memory-mapped file
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SearchBenchmark {
+    private static final String QUERY = "notInTheText";
+
+    @Param({"1000000", "64000000"})
+    int textSize;
+
+    private Path file;
+    private MappedTextFile mappedFile;
+    private PieceTableDocument document;
+    private TextSearch literalSearch;
+    private TextSearch regexSearch;
+    private Pattern pattern;
+
+    @Setup
+    public void setUp() throws IOException {
+        String text = BenchmarkData.text(textSize, 42);
+        document = new PieceTableDocument();
+        document.load(text.toCharArray(), text.length());
+        literalSearch = new TextSearch();
+        literalSearch.setQuery(QUERY, false, true);
+        regexSearch = new TextSearch();
+        regexSearch.setQuery(QUERY, true, true);
+        pattern = TextSearch.compile(QUERY, true, true);
+
+        file = Files.createTempFile("smarteditor-benchmark", ".txt");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        mappedFile = MappedTextFile.open(file.toFile());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mappedFile.close();
+        Files.delete(file);
+    }
+
+    // Boyer-Moore-Horspool over chunks of the document
+    @Benchmark
+    public boolean findLiteral() throws BadLocationException {
+        return literalSearch.find(document, 0, true);
+    }
+
+    // java.util.regex reading the document a piece at a time
+    @Benchmark
+    public boolean findRegex() throws BadLocationException {
+        return regexSearch.find(document, 0, true);
+    }
+
+    // Line-aligned chunks of the mapped file on every core
+    @Benchmark
+    public long findInFileParallel() throws InterruptedException {
+        return new ParallelFileSearch(mappedFile, pattern)
+            .search(matches -> { }, bytes -> { }, () -> false);
+    }
+}
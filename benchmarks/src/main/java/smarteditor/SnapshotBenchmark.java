@@ -0,0 +1,68 @@
+package smarteditor;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.BadLocationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// What each keystroke costs across document sizes: the edit, the delta the
+// undo tree keeps for it and a snapshot of the text. The full copy is what
+// every keystroke used to cost, kept as a baseline.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SnapshotBenchmark {
+    private static final int POSITIONS = 1024; // Power of two, for masking
+
+    @Param({"100000", "1000000", "10000000"})
+    int documentSize;
+
+    private PieceTableDocument document;
+    private final int[] positions = new int[POSITIONS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        document = BenchmarkData.document(BenchmarkData.text(documentSize, 42));
+        Random random = new Random(7);
+        for (int i = 0; i < POSITIONS; i++) {
+            positions[i] = random.nextInt(documentSize);
+        }
+    }
+
+    // A keystroke and its undo, so the document keeps its size
+    @Benchmark
+    public PieceTable.Snapshot typeAndUndo() throws BadLocationException {
+        int offset = positions[next++ & (POSITIONS - 1)];
+        TextEdit edit = new TextEdit(offset, "", "x");
+        edit.apply(document);
+        edit.revert(document);
+        return document.getPieceTable().snapshot();
+    }
+
+    @Benchmark
+    public PieceTable.Snapshot snapshot() {
+        return document.getPieceTable().snapshot();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String fullTextCopy() throws BadLocationException {
+        return document.getText(0, document.getLength());
+    }
+}
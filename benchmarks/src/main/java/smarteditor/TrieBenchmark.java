@@ -0,0 +1,101 @@
+package smarteditor;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Dictionary cost across vocabulary sizes. Words are ranked by a skewed
+// frequency, like identifiers counted from real source files.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrieBenchmark {
+    private static final int LOOKUPS = 1024; // Power of two, for masking
+
+    @Param({"1000", "10000", "100000"})
+    int vocabularySize;
+
+    private String[] words;
+    private Trie trie;
+    private final String[] prefixes = new String[LOOKUPS];
+    private final String[] typos = new String[LOOKUPS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        words = BenchmarkData.words(vocabularySize, 42);
+        trie = build();
+
+        Random random = new Random(7);
+        for (int i = 0; i < LOOKUPS; i++) {
+            String word = words[random.nextInt(words.length)];
+            prefixes[i] = word.substring(0, Math.min(word.length(), 1 + random.nextInt(3)));
+
+            // Swap two neighbouring letters, the most common typo
+            char[] typo = word.toCharArray();
+            int at = random.nextInt(typo.length - 1);
+            char swapped = typo[at];
+            typo[at] = typo[at + 1];
+            typo[at + 1] = swapped;
+            typos[i] = new String(typo);
+        }
+    }
+
+    private Trie build() {
+        Trie built = new Trie();
+        for (int i = 0; i < words.length; i++) {
+            built.addCount(words[i], 1 + words.length / (i + 1));
+        }
+        return built;
+    }
+
+    // Reported beside the time of buildDictionary: the heap the trie holds
+    // per word, counting the room its arrays have grown into
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public double bytesPerWord;
+    }
+
+    // Whole vocabulary, as when a word list is loaded
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Trie buildDictionary(Footprint footprint) {
+        Trie built = build();
+        footprint.bytesPerWord = built.memorySize() / (double) words.length;
+        return built;
+    }
+
+    // One more occurrence of a known word, as when the document is edited
+    @Benchmark
+    public Trie insert() {
+        trie.insert(words[next++ % words.length]);
+        return trie;
+    }
+
+    @Benchmark
+    public List<String> getSuggestions() {
+        return trie.getSuggestions(prefixes[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public List<String> getFuzzySuggestions() {
+        return trie.getFuzzySuggestions(typos[next++ & (LOOKUPS - 1)], 1);
+    }
+}
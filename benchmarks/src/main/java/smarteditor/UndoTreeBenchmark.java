@@ -0,0 +1,94 @@
+package smarteditor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Undo tree cost across history lengths. The history is typing in bursts,
+// with every tenth burst undone and retyped so that the tree has branches.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UndoTreeBenchmark {
+    private static final int BURST = 8;
+
+    @Param({"1000", "10000", "100000"})
+    int historyLength;
+
+    private UndoTree tree;
+    private UndoTree fullTree;
+    private int fullOffset;
+
+    @Setup
+    public void setUp() {
+        tree = record(historyLength);
+        fullTree = record(historyLength);
+        fullTree.setMemoryLimit(fullTree.getMemoryUsage());
+        fullOffset = historyLength * BURST;
+    }
+
+    private static UndoTree record(int states) {
+        UndoTree tree = new UndoTree();
+        tree.setMemoryLimit(Long.MAX_VALUE);
+        int offset = 0;
+        for (int state = 0; state < states; state++) {
+            for (int i = 0; i < BURST; i++) {
+                tree.record(new TextEdit(offset++, "", "x"));
+            }
+            tree.closeGroup();
+            if (state % 10 == 9) {
+                tree.undo();
+                offset -= BURST;
+            }
+        }
+        return tree;
+    }
+
+    // Recording the whole history, keystroke by keystroke
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public UndoTree recordHistory() {
+        return record(historyLength);
+    }
+
+    // One more state once the budget is reached, so the oldest is pruned
+    @Benchmark
+    public UndoTree recordAtLimit() {
+        fullTree.record(new TextEdit(fullOffset++, "", "x"));
+        fullTree.closeGroup();
+        return fullTree;
+    }
+
+    @Benchmark
+    public TextEdit undoRedo() {
+        tree.undo();
+        return tree.redo();
+    }
+
+    // Back and forth in creation order, as the history buttons do
+    @Benchmark
+    public List<TextEdit> previousNextState() {
+        tree.previousState();
+        return tree.nextState();
+    }
+
+    // Read on every status bar update
+    @Benchmark
+    public int getCurrentPosition() {
+        return tree.getCurrentPosition();
+    }
+}
@@ -0,0 +1,975 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.text.BadLocationException; 
+
+import java.io.*; 
+
+import java.nio.file.AccessDeniedException; 
+
+import java.nio.file.FileSystemException; 
+
+import java.nio.file.FileSystems; 
+
+import java.nio.file.Files; 
+
+import java.nio.file.NoSuchFileException; 
+
+import java.nio.file.Path; 
+
+import java.nio.file.PathMatcher; 
+
+import java.util.*; 
+
+import java.util.concurrent.ExecutorService; 
+
+import java.util.concurrent.Executors; 
+
+import java.util.concurrent.Semaphore; 
+
+import java.util.concurrent.atomic.AtomicLong; 
+
+import java.util.regex.Matcher; 
+
+import java.util.regex.Pattern; 
+
+import java.util.regex.PatternSyntaxException; 
+
+import java.util.stream.Stream; 
+
+ 
+
+// Applies an edit script to many files without opening a window: 
+
+//   java SmartTextEditor --batch [--script file] [--edit command]... [--glob pattern] 
+
+//       [--threads n] [--words word list or folder]... [--dry-run] file or folder... 
+
+// Folders are searched for files whose name matches the glob, *.java unless 
+
+// given. Each worker thread has its own EditorCore, which opens a file, 
+
+// applies the script to its document and saves it the way the editor does, 
+
+// so a replacement of the same length rewrites only the changed bytes. 
+
+// 
+
+// The script holds one command per line; the first character after the 
+
+// command separates its arguments, and lines starting with # are comments: 
+
+//   replace /text/replacement/    every occurrence of the text 
+
+//   regex /pattern/replacement/   a java.util.regex pattern, $1 for groups 
+
+//   correct                       words one typo away from exactly one 
+
+//                                 dictionary word become that word 
+
+public class BatchEditor { 
+
+    // Shorter words are too often one typo away from an unrelated word 
+
+    private static final int MIN_CORRECTED_WORD = 5; 
+
+    private static final int CORRECTION_CACHE_SIZE = 100_000; 
+
+     
+
+    private final int threads; 
+
+    private final boolean dryRun; 
+
+    private final List<Edit> script = new ArrayList<>(); 
+
+    private final Trie dictionary = new Trie(); 
+
+    private boolean correcting; 
+
+     
+
+    private final List<EditorCore> cores = Collections.synchronizedList(new ArrayList<>()); 
+
+    private final ThreadLocal<EditorCore> core = ThreadLocal.withInitial(() -> { 
+
+        EditorCore core = new EditorCore(false); 
+
+        cores.add(core); 
+
+        return core; 
+
+    }); 
+
+    private final ThreadLocal<Map<String, String>> corrections = ThreadLocal.withInitial(HashMap::new); 
+
+     
+
+    private final AtomicLong files = new AtomicLong(); 
+
+    private final AtomicLong changedFiles = new AtomicLong(); 
+
+    private final AtomicLong skippedFiles = new AtomicLong(); 
+
+    private final AtomicLong failedFiles = new AtomicLong(); 
+
+    private final AtomicLong replacements = new AtomicLong(); 
+
+    private final AtomicLong bytesRead = new AtomicLong(); 
+
+    private final AtomicLong bytesWritten = new AtomicLong(); 
+
+    private long started; 
+
+     
+
+    public BatchEditor(int threads, boolean dryRun) { 
+
+        this.threads = threads; 
+
+        this.dryRun = dryRun; 
+
+    } 
+
+     
+
+    static int run(String[] args) { 
+
+        List<String> commands = new ArrayList<>(); 
+
+        List<Path> inputs = new ArrayList<>(); 
+
+        List<Path> wordSources = new ArrayList<>(); 
+
+        String glob = "*.java"; 
+
+        int threads = Runtime.getRuntime().availableProcessors(); 
+
+        boolean dryRun = false; 
+
+        try { 
+
+            for (int i = 0; i < args.length; i++) { 
+
+                if (args[i].equals("--script") && i + 1 < args.length) { 
+
+                    commands.addAll(Files.readAllLines(Path.of(args[++i]))); 
+
+                } else if (args[i].equals("--edit") && i + 1 < args.length) { 
+
+                    commands.add(args[++i]); 
+
+                } else if (args[i].equals("--glob") && i + 1 < args.length) { 
+
+                    glob = args[++i]; 
+
+                } else if (args[i].equals("--threads") && i + 1 < args.length) { 
+
+                    threads = Math.max(1, Integer.parseInt(args[++i])); 
+
+                } else if (args[i].equals("--words") && i + 1 < args.length) { 
+
+                    wordSources.add(Path.of(args[++i])); 
+
+                } else if (args[i].equals("--dry-run")) { 
+
+                    dryRun = true; 
+
+                } else { 
+
+                    inputs.add(Path.of(args[i])); 
+
+                } 
+
+            } 
+
+        } catch (IOException e) { 
+
+            System.err.println("Error reading script: " + e.getMessage()); 
+
+            return 2; 
+
+        } catch (NumberFormatException e) { 
+
+            System.err.println("Invalid thread count: " + e.getMessage()); 
+
+            return 2; 
+
+        } 
+
+         
+
+        BatchEditor editor = new BatchEditor(threads, dryRun); 
+
+        for (String command : commands) { 
+
+            try { 
+
+                editor.addCommand(command); 
+
+            } catch (IllegalArgumentException e) { 
+
+                System.err.println("Invalid command \"" + command + "\": " + e.getMessage()); 
+
+                return 2; 
+
+            } 
+
+        } 
+
+        if (editor.script.isEmpty() || inputs.isEmpty()) { 
+
+            System.err.println("Usage: --batch [--script file] [--edit command]... [--glob pattern]" 
+
+                + " [--threads n] [--words word list or folder]... [--dry-run] file or folder..."); 
+
+            return 2; 
+
+        } 
+
+         
+
+        try { 
+
+            if (editor.correcting) { 
+
+                editor.loadDictionary(wordSources); 
+
+            } 
+
+            editor.edit(inputs, FileSystems.getDefault().getPathMatcher("glob:" + glob)); 
+
+            System.out.println(editor.report()); 
+
+            return editor.failedFiles.get() == 0 ? 0 : 1; 
+
+        } catch (IOException e) { 
+
+            System.err.println("Error: " + e.getMessage()); 
+
+            return 1; 
+
+        } catch (InterruptedException e) { 
+
+            return 1; 
+
+        } 
+
+    } 
+
+     
+
+    // Adds one line of the script; blank lines and comments are ignored 
+
+    public void addCommand(String line) { 
+
+        String command = line.strip(); 
+
+        if (command.isEmpty() || command.startsWith("#")) { 
+
+            return; 
+
+        } 
+
+         
+
+        int nameEnd = 0; 
+
+        while (nameEnd < command.length() && !Character.isWhitespace(command.charAt(nameEnd))) { 
+
+            nameEnd++; 
+
+        } 
+
+        String name = command.substring(0, nameEnd); 
+
+        String arguments = command.substring(nameEnd).strip(); 
+
+        switch (name) { 
+
+            case "replace": { 
+
+                String[] parts = splitArguments(arguments); 
+
+                script.add(patternEdit(Pattern.compile(Pattern.quote(parts[0])), 
+
+                    Matcher.quoteReplacement(parts[1]))); 
+
+                break; 
+
+            } 
+
+            case "regex": { 
+
+                String[] parts = splitArguments(arguments); 
+
+                try { 
+
+                    script.add(patternEdit(Pattern.compile(parts[0], Pattern.MULTILINE), parts[1])); 
+
+                } catch (PatternSyntaxException e) { 
+
+                    throw new IllegalArgumentException(e.getDescription()); 
+
+                } 
+
+                break; 
+
+            } 
+
+            case "correct": 
+
+                if (!arguments.isEmpty()) { 
+
+                    throw new IllegalArgumentException("correct takes no arguments"); 
+
+                } 
+
+                script.add(this::findTypos); 
+
+                correcting = true; 
+
+                break; 
+
+            default: 
+
+                throw new IllegalArgumentException("unknown command " + name); 
+
+        } 
+
+    } 
+
+     
+
+    // "/text/replacement/", where the first character is the separator 
+
+    private static String[] splitArguments(String arguments) { 
+
+        if (arguments.isEmpty()) { 
+
+            throw new IllegalArgumentException("missing /text/replacement/"); 
+
+        } 
+
+        char separator = arguments.charAt(0); 
+
+        int middle = arguments.indexOf(separator, 1); 
+
+        if (middle < 0 || arguments.indexOf(separator, middle + 1) != arguments.length() - 1) { 
+
+            throw new IllegalArgumentException("expected " + separator + "text" + separator 
+
+                + "replacement" + separator); 
+
+        } 
+
+        if (middle == 1) { 
+
+            throw new IllegalArgumentException("nothing to find"); 
+
+        } 
+
+        return new String[] { 
+
+            arguments.substring(1, middle), 
+
+            arguments.substring(middle + 1, arguments.length() - 1) 
+
+        }; 
+
+    } 
+
+     
+
+    // The built-in or mapped dictionary, plus any extra word lists and source 
+
+    // trees, read the same way --build-dictionary reads them 
+
+    private void loadDictionary(List<Path> wordSources) throws IOException, InterruptedException { 
+
+        BuiltInDictionary.load(dictionary); 
+
+        if (wordSources.isEmpty()) { 
+
+            return; 
+
+        } 
+
+        ExecutorService dictionaryThread = Executors.newSingleThreadExecutor(); 
+
+        try { 
+
+            WordIngester ingester = new WordIngester(dictionary, dictionaryThread); 
+
+            ingester.ingest(wordSources, () -> { }); 
+
+            System.out.println("Read " + ingester.report()); 
+
+        } finally { 
+
+            dictionaryThread.shutdown(); 
+
+        } 
+
+    } 
+
+     
+
+    // Edits every input file, and every matching file under each input 
+
+    // folder. The calling thread walks the folders and hands files to the 
+
+    // workers; permits bound the files in flight, so memory stays flat 
+
+    // however many files there are. An input that cannot be read counts as 
+
+    // a failed file, and the rest are still edited. 
+
+    public void edit(List<Path> inputs, PathMatcher names) throws InterruptedException { 
+
+        started = System.nanoTime(); 
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> { 
+
+            Thread thread = new Thread(runnable, "batch"); 
+
+            thread.setDaemon(true); 
+
+            return thread; 
+
+        }); 
+
+        Semaphore fileSlots = new Semaphore(2 * threads); 
+
+        try { 
+
+            for (Path input : inputs) { 
+
+                boolean folder = Files.isDirectory(input); 
+
+                try (Stream<Path> paths = Files.walk(input)) { 
+
+                    Iterator<Path> found = paths 
+
+                        .filter(path -> !folder || names.matches(path.getFileName())) 
+
+                        .filter(Files::isRegularFile) 
+
+                        .iterator(); 
+
+                    while (found.hasNext()) { 
+
+                        Path file = found.next(); 
+
+                        fileSlots.acquire(); 
+
+                        workers.execute(() -> { 
+
+                            try { 
+
+                                editFile(file); 
+
+                            } finally { 
+
+                                fileSlots.release(); 
+
+                            } 
+
+                        }); 
+
+                    } 
+
+                } catch (IOException e) { 
+
+                    inputFailed(input, e); 
+
+                } catch (UncheckedIOException e) { 
+
+                    inputFailed(input, e.getCause()); 
+
+                } 
+
+            } 
+
+             
+
+            // Wait for the last files 
+
+            fileSlots.acquire(2 * threads); 
+
+        } finally { 
+
+            workers.shutdownNow(); 
+
+            for (EditorCore core : cores) { 
+
+                core.shutdown(); 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    // Files.walk reports a missing or locked path with only its name 
+
+    private void inputFailed(Path input, IOException e) { 
+
+        failedFiles.incrementAndGet(); 
+
+        Path path = e instanceof FileSystemException && ((FileSystemException) e).getFile() != null 
+
+            ? Path.of(((FileSystemException) e).getFile()) : input; 
+
+        String reason = e instanceof NoSuchFileException ? "not found" 
+
+            : e instanceof AccessDeniedException ? "access denied" : e.getMessage(); 
+
+        System.err.println(path + ": " + reason); 
+
+    } 
+
+     
+
+    public String report() { 
+
+        double seconds = Math.max(1, System.nanoTime() - started) / 1e9; 
+
+        return String.format("%,d files, %,d %s (%,d replacements), %s read, %s %s in %,d ms" 
+
+                + " (%,.0f files/s, %s/s)%s%s", 
+
+            files.get(), changedFiles.get(), dryRun ? "would change" : "changed", replacements.get(), 
+
+            EditorCore.formatBytes(bytesRead.get()), EditorCore.formatBytes(bytesWritten.get()), 
+
+            dryRun ? "would be written" : "written", Math.round(seconds * 1000), files.get() / seconds, 
+
+            EditorCore.formatBytes(Math.round(bytesRead.get() / seconds)), 
+
+            skippedFiles.get() > 0 ? String.format(", %,d skipped", skippedFiles.get()) : "", 
+
+            failedFiles.get() > 0 ? String.format(", %,d failed", failedFiles.get()) : ""); 
+
+    } 
+
+     
+
+    private void editFile(Path path) { 
+
+        File file = path.toFile(); 
+
+        long size = file.length(); 
+
+        if (!EditorCore.fitsInMemory(size)) { 
+
+            skippedFiles.incrementAndGet(); 
+
+            System.err.println(path + ": skipped, " + EditorCore.formatBytes(size) + " is too large to load"); 
+
+            return; 
+
+        } 
+
+         
+
+        EditorCore core = this.core.get(); 
+
+        try { 
+
+            core.open(file); 
+
+            int count = 0; 
+
+            List<Replacement> found = new ArrayList<>(); 
+
+            for (Edit edit : script) { 
+
+                PieceTableDocument document = core.getDocument(); 
+
+                found.clear(); 
+
+                edit.find(new DocumentChars(document), found); 
+
+                 
+
+                // Back to front, so the offsets still to come stay valid 
+
+                for (int i = found.size() - 1; i >= 0; i--) { 
+
+                    Replacement replacement = found.get(i); 
+
+                    document.replace(replacement.start, replacement.end - replacement.start, 
+
+                        replacement.text, null); 
+
+                } 
+
+                count += found.size(); 
+
+            } 
+
+             
+
+            files.incrementAndGet(); 
+
+            bytesRead.addAndGet(size); 
+
+            replacements.addAndGet(count); 
+
+            if (core.isChanged()) { 
+
+                changedFiles.incrementAndGet(); 
+
+                if (dryRun) { 
+
+                    System.out.println(path + ": " + count + " replacements"); 
+
+                } else { 
+
+                    bytesWritten.addAndGet(core.save(file)); 
+
+                } 
+
+            } 
+
+        } catch (IOException | BadLocationException | RuntimeException e) { 
+
+            failedFiles.incrementAndGet(); 
+
+            System.err.println(path + ": " + e.getMessage()); 
+
+        } 
+
+    } 
+
+     
+
+    // Replaces every match with the replacement, expanding $1 and friends 
+
+    private static Edit patternEdit(Pattern pattern, String replacement) { 
+
+        return (text, found) -> { 
+
+            Matcher matcher = pattern.matcher(text); 
+
+            while (matcher.find()) { 
+
+                found.add(new Replacement(matcher.start(), matcher.end(), expand(matcher, replacement))); 
+
+            } 
+
+        }; 
+
+    } 
+
+     
+
+    // The replacement for the current match, read the way appendReplacement 
+
+    // reads it: $1 or ${name} for a group and \ to escape. appendReplacement 
+
+    // itself would also copy all the text since the previous match. 
+
+    private static String expand(Matcher matcher, String replacement) { 
+
+        StringBuilder expanded = new StringBuilder(); 
+
+        int length = replacement.length(); 
+
+        int i = 0; 
+
+        while (i < length) { 
+
+            char c = replacement.charAt(i++); 
+
+            if (c == '\\') { 
+
+                if (i == length) { 
+
+                    throw new IllegalArgumentException("character to be escaped is missing"); 
+
+                } 
+
+                expanded.append(replacement.charAt(i++)); 
+
+            } else if (c != '$') { 
+
+                expanded.append(c); 
+
+            } else if (i < length && replacement.charAt(i) == '{') { 
+
+                int end = replacement.indexOf('}', i); 
+
+                if (end < 0) { 
+
+                    throw new IllegalArgumentException("named group is missing its }"); 
+
+                } 
+
+                appendGroup(expanded, matcher.group(replacement.substring(i + 1, end))); 
+
+                i = end + 1; 
+
+            } else if (i < length && isDigit(replacement.charAt(i))) { 
+
+                // Later digits belong to the number only while such a group exists 
+
+                int group = replacement.charAt(i++) - '0'; 
+
+                while (i < length && isDigit(replacement.charAt(i)) 
+
+                        && group * 10 + replacement.charAt(i) - '0' <= matcher.groupCount()) { 
+
+                    group = group * 10 + replacement.charAt(i++) - '0'; 
+
+                } 
+
+                appendGroup(expanded, matcher.group(group)); 
+
+            } else { 
+
+                throw new IllegalArgumentException("illegal group reference"); 
+
+            } 
+
+        } 
+
+        return expanded.toString(); 
+
+    } 
+
+     
+
+    private static boolean isDigit(char c) { 
+
+        return c >= '0' && c <= '9'; 
+
+    } 
+
+     
+
+    // A group that took no part in the match adds nothing 
+
+    private static void appendGroup(StringBuilder expanded, String group) { 
+
+        if (group != null) { 
+
+            expanded.append(group); 
+
+        } 
+
+    } 
+
+     
+
+    private void findTypos(CharSequence text, List<Replacement> found) { 
+
+        int length = text.length(); 
+
+        int i = 0; 
+
+        while (i < length) { 
+
+            if (!Words.isWordChar(text.charAt(i))) { 
+
+                i++; 
+
+                continue; 
+
+            } 
+
+            int start = i; 
+
+            while (i < length && Words.isWordChar(text.charAt(i))) { 
+
+                i++; 
+
+            } 
+
+            if (i - start >= MIN_CORRECTED_WORD && !Character.isDigit(text.charAt(start))) { 
+
+                String correction = correctionFor(text.subSequence(start, i).toString()); 
+
+                if (correction != null) { 
+
+                    found.add(new Replacement(start, i, correction)); 
+
+                } 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    private String correctionFor(String word) { 
+
+        Map<String, String> cache = corrections.get(); 
+
+        String correction = cache.get(word); 
+
+        if (correction == null) { 
+
+            correction = lookUpCorrection(word); 
+
+            if (cache.size() >= CORRECTION_CACHE_SIZE) { 
+
+                cache.clear(); 
+
+            } 
+
+            cache.put(word, correction); 
+
+        } 
+
+        return correction.isEmpty() ? null : correction; 
+
+    } 
+
+     
+
+    // The one dictionary word a single typo away, or "" if there is none or 
+
+    // more than one. Every whole word within reach is checked, however many 
+
+    // longer words start the same way. The trie reuses its search arrays, so 
+
+    // lookups take turns. 
+
+    private String lookUpCorrection(String word) { 
+
+        List<String> candidates; 
+
+        synchronized (dictionary) { 
+
+            if (dictionary.contains(word)) { 
+
+                return ""; 
+
+            } 
+
+            candidates = dictionary.getWordsWithin(word, 1); 
+
+        } 
+
+         
+
+        String correction = ""; 
+
+        for (String candidate : candidates) { 
+
+            if (!candidate.equalsIgnoreCase(word) && isOneEditApart(word, candidate)) { 
+
+                if (!correction.isEmpty() && !correction.equals(candidate)) { 
+
+                    return ""; 
+
+                } 
+
+                correction = candidate; 
+
+            } 
+
+        } 
+
+        return correction; 
+
+    } 
+
+     
+
+    // One inserted, deleted or replaced character, or two neighbours swapped 
+
+    private static boolean isOneEditApart(String a, String b) { 
+
+        String longer = a.length() >= b.length() ? a : b; 
+
+        String shorter = longer == a ? b : a; 
+
+        int lengthDifference = longer.length() - shorter.length(); 
+
+        if (lengthDifference > 1) { 
+
+            return false; 
+
+        } 
+
+         
+
+        int i = 0; 
+
+        while (i < shorter.length() && longer.charAt(i) == shorter.charAt(i)) { 
+
+            i++; 
+
+        } 
+
+        if (i == shorter.length()) { 
+
+            return lengthDifference == 1; 
+
+        } 
+
+        if (lengthDifference == 1) { 
+
+            return longer.regionMatches(i + 1, shorter, i, shorter.length() - i); 
+
+        } 
+
+        if (longer.regionMatches(i + 1, shorter, i + 1, shorter.length() - i - 1)) { 
+
+            return true; 
+
+        } 
+
+        return i + 1 < shorter.length() 
+
+            && longer.charAt(i) == shorter.charAt(i + 1) && longer.charAt(i + 1) == shorter.charAt(i) 
+
+            && longer.regionMatches(i + 2, shorter, i + 2, shorter.length() - i - 2); 
+
+    } 
+
+     
+
+    // One command of the script: collects what to replace, in text order. 
+
+    // The text reads the document in place. 
+
+    private interface Edit { 
+
+        void find(CharSequence text, List<Replacement> found); 
+
+    } 
+
+     
+
+    private static class Replacement { 
+
+        final int start; 
+
+        final int end; 
+
+        final String text; 
+
+         
+
+        Replacement(int start, int end, String text) { 
+
+            this.start = start; 
+
+            this.end = end; 
+
+            this.text = text; 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
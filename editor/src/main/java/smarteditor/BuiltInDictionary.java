@@ -0,0 +1,389 @@
+package smarteditor; 
+
+ 
+
+import java.io.*; 
+
+import java.nio.file.Files; 
+
+import java.nio.file.Path; 
+
+import java.util.*; 
+
+import java.util.concurrent.ExecutorService; 
+
+import java.util.concurrent.Executors; 
+
+ 
+
+// The words suggested before any are learned: the dictionary file built 
+
+// with --build-dictionary when there is one, otherwise the built-in Java 
+
+// words added to the trie one by one 
+
+final class BuiltInDictionary { 
+
+    // Built with --build-dictionary and mapped at startup instead of adding 
+
+    // the built-in words one by one 
+
+    private static final Path DICTIONARY_FILE = 
+
+        Path.of(System.getProperty("user.home"), ".smarteditor", "dictionary.bin"); 
+
+     
+
+    private BuiltInDictionary() { 
+
+    } 
+
+     
+
+    // Maps the prebuilt dictionary when there is one, so startup does not 
+
+    // depend on the size of the vocabulary; otherwise the built-in words are 
+
+    // added to the trie 
+
+    static void load(Trie dictionary) { 
+
+        if (Files.isRegularFile(DICTIONARY_FILE)) { 
+
+            try { 
+
+                dictionary.setBase(MappedDictionary.open(DICTIONARY_FILE)); 
+
+                return; 
+
+            } catch (IOException e) { 
+
+                System.err.println("Error opening dictionary: " + e.getMessage()); 
+
+            } 
+
+        } 
+
+        addWords(dictionary); 
+
+    } 
+
+     
+
+    static void addWords(Trie dictionary) { 
+
+        // Java keywords 
+
+        String[] javaKeywords = { 
+
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", 
+
+            "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float", 
+
+            "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native", 
+
+            "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp", "super", 
+
+            "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void", "volatile", "while", 
+
+            "true", "false", "null" 
+
+        }; 
+
+         
+
+        // Common Java classes 
+
+        String[] javaClasses = { 
+
+            "String", "Integer", "Boolean", "Character", "Byte", "Short", "Long", "Float", "Double", 
+
+            "Math", "System", "Object", "Class", "Thread", "Runnable", "Exception", "RuntimeException", 
+
+            "Throwable", "Error", "ArrayList", "LinkedList", "HashMap", "HashSet", "TreeMap", "TreeSet", 
+
+            "Vector", "Stack", "Queue", "Deque", "PriorityQueue", "Collections", "Arrays", "List", "Set", 
+
+            "Map", "Iterator", "Iterable", "Comparable", "Comparator", "StringBuilder", "StringBuffer", 
+
+            "Scanner", "File", "FileReader", "FileWriter", "BufferedReader", "BufferedWriter", "PrintWriter", 
+
+            "InputStream", "OutputStream", "Reader", "Writer", "Socket", "ServerSocket", "URL", "URLConnection", 
+
+            "Date", "Calendar", "LocalDate", "LocalTime", "LocalDateTime", "ZonedDateTime", "Instant", 
+
+            "Optional", "Stream", "Collector", "Collectors", "Function", "Predicate", "Consumer", "Supplier", 
+
+            "BiFunction", "BiPredicate", "BiConsumer", "Enum", "Annotation", "Override", "Deprecated", 
+
+            "SuppressWarnings", "FunctionalInterface" 
+
+        }; 
+
+         
+
+        // Java methods and coding patterns 
+
+        String[] javaMethods = { 
+
+            "main", "toString", "equals", "hashCode", "compareTo", "clone", "valueOf", "length", "size", 
+
+            "isEmpty", "contains", "add", "remove", "clear", "get", "set", "put", "charAt", "substring", 
+
+            "indexOf", "lastIndexOf", "toUpperCase", "toLowerCase", "trim", "split", "replace", "replaceAll", 
+
+            "matches", "format", "printf", "println", "print", "append", "delete", "insert", "reverse", 
+
+            "next", "hasNext", "nextLine", "hasNextLine", "close", "flush", "read", "write", "execute", 
+
+            "start", "stop", "run", "wait", "notify", "notifyAll", "sleep", "join", "interrupt", "isAlive", 
+
+            "compile", "find", "group", "matcher", "pattern", "parse", "format", "sort", "binarySearch", 
+
+            "fill", "copy", "asList", "toArray", "forEach", "filter", "map", "reduce", "collect", "of", 
+
+            "getClass", "getName", "newInstance", "forName", "getDeclaredMethods", "getMethod", "invoke", 
+
+            "isInstance", "cast", "asSubclass", "getConstructor", "newInstance" 
+
+        }; 
+
+         
+
+        // Java UI components (Swing/JavaFX) 
+
+        String[] javaUI = { 
+
+            "JFrame", "JPanel", "JButton", "JLabel", "JTextField", "JTextArea", "JScrollPane", "JMenuBar", 
+
+            "JMenu", "JMenuItem", "JCheckBox", "JRadioButton", "ButtonGroup", "JComboBox", "JList", 
+
+            "JTable", "JTree", "JSplitPane", "JTabbedPane", "JDialog", "JOptionPane", "Border", "BorderFactory", 
+
+            "GridLayout", "BorderLayout", "FlowLayout", "CardLayout", "BoxLayout", "GridBagLayout", 
+
+            "GroupLayout", "SpringLayout", "Font", "Color", "Dimension", "Point", "Rectangle", "ActionListener", 
+
+            "ActionEvent", "MouseListener", "MouseEvent", "KeyListener", "KeyEvent", "ItemListener", 
+
+            "WindowListener", "FocusListener", "ChangeListener", "DocumentListener", "Scene", "Stage", 
+
+            "Application", "Button", "Label", "TextField", "TextArea", "ComboBox", "ListView", "TableView", 
+
+            "TreeView", "ScrollPane", "TabPane", "BorderPane", "GridPane", "FlowPane", "AnchorPane", 
+
+            "HBox", "VBox", "MenuItem", "MenuBar", "Dialog", "Alert", "Timeline", "Animation" 
+
+        }; 
+
+         
+
+        // Java coding conventions and patterns 
+
+        String[] javaPatterns = { 
+
+            "getter", "setter", "constructor", "singleton", "factory", "builder", "adapter", "observer", 
+
+            "decorator", "strategy", "command", "proxy", "composite", "iterator", "state", "template", 
+
+            "visitor", "mediator", "memento", "prototype", "facade", "flyweight", "bridge", "interpreter", 
+
+            "repository", "service", "controller", "model", "view", "dao", "dto", "pojo", "bean", "entity", 
+
+            "dependency", "injection", "autowired", "component", "repository", "service", "controller", 
+
+            "configuration", "bean", "transactional", "scheduled", "async", "lazy", "scope", "primary", 
+
+            "qualifier", "profile", "conditional", "property", "value", "required", "validated", "valid", 
+
+            "notnull", "nullable", "override", "implements", "extends", "throws", "try", "catch", "finally", 
+
+            "synchronize", "volatile", "atomic", "concurrent", "thread", "runnable", "callable", "future" 
+
+        }; 
+
+         
+
+        // Java file extensions and common terms 
+
+        String[] javaTerms = { 
+
+            "java", "class", "jar", "war", "maven", "gradle", "pom", "build", "junit", "test", "assert", 
+
+            "mockito", "mock", "spring", "hibernate", "jpa", "jdbc", "servlet", "jsp", "jstl", "jsf", 
+
+            "ejb", "jms", "jmx", "jndi", "soap", "rest", "api", "json", "xml", "yaml", "properties", 
+
+            "logging", "log4j", "logback", "slf4j", "javadoc", "annotation", "reflection", "introspection", 
+
+            "serialization", "deserialization", "bytecode", "classloader", "jvm", "jre", "jdk", "javac", 
+
+            "javap", "jar", "jdeps", "jcmd", "jconsole", "jmap", "jstack", "jstat", "jvisualvm", "jshell" 
+
+        }; 
+
+         
+
+        // Add all words to the dictionary 
+
+        for (String word : javaKeywords) { 
+
+            dictionary.insert(word); 
+
+        } 
+
+        for (String word : javaClasses) { 
+
+            dictionary.insert(word); 
+
+        } 
+
+        for (String word : javaMethods) { 
+
+            dictionary.insert(word); 
+
+        } 
+
+        for (String word : javaUI) { 
+
+            dictionary.insert(word); 
+
+        } 
+
+        for (String word : javaPatterns) { 
+
+            dictionary.insert(word); 
+
+        } 
+
+        for (String word : javaTerms) { 
+
+            dictionary.insert(word); 
+
+        } 
+
+         
+
+        // Also add common programming operators and symbols 
+
+        String[] commonOperators = { 
+
+            "++", "--", "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=", "<<=", ">>=", ">>>=", 
+
+            "==", "!=", ">=", "<=", "&&", "||", "!", "&", "|", "^", "~", "<<", ">>", ">>>", 
+
+            "+", "-", "*", "/", "%", "<", ">" 
+
+        }; 
+
+         
+
+        for (String op : commonOperators) { 
+
+            dictionary.insert(op); 
+
+        } 
+
+         
+
+        // Common Java code snippets (as keywords) 
+
+        String[] codeSnippets = { 
+
+            "public", "static", "void", "main", "args", "System.out.println", "public class", 
+
+            "private final", "extends", "implements", "try catch", "throws Exception",  
+
+            "return null", "return true", "return false", "import java.util", "import java.io", 
+
+            "import javax.swing", "import java.awt", "import java.net", "import java.sql" 
+
+        }; 
+
+         
+
+        for (String snippet : codeSnippets) { 
+
+            dictionary.insert(snippet); 
+
+        } 
+
+    } 
+
+     
+
+    // Builds the dictionary file from the built-in words, word lists that 
+
+    // hold one word per line, optionally followed by how often it occurs, and 
+
+    // the identifiers of every .java file under folders: 
+
+    //   java SmartTextEditor --build-dictionary [--output file] [word list or folder...] 
+
+    static int build(String[] args) { 
+
+        Path output = DICTIONARY_FILE; 
+
+        List<Path> sources = new ArrayList<>(); 
+
+        for (int i = 0; i < args.length; i++) { 
+
+            if (args[i].equals("--output") && i + 1 < args.length) { 
+
+                output = Path.of(args[++i]); 
+
+            } else { 
+
+                sources.add(Path.of(args[i])); 
+
+            } 
+
+        } 
+
+         
+
+        long started = System.nanoTime(); 
+
+        Trie dictionary = new Trie(); 
+
+        addWords(dictionary); 
+
+        ExecutorService dictionaryThread = Executors.newSingleThreadExecutor(); 
+
+        try { 
+
+            WordIngester ingester = new WordIngester(dictionary, dictionaryThread); 
+
+            ingester.ingest(sources, () -> { }); 
+
+            System.out.println("Read " + ingester.report()); 
+
+             
+
+            int words = MappedDictionary.write(dictionary, output); 
+
+            System.out.printf("Wrote %,d words (%,d KB) to %s in %,d ms%n", words, 
+
+                Files.size(output) / 1024, output, (System.nanoTime() - started) / 1_000_000); 
+
+            return 0; 
+
+        } catch (IOException e) { 
+
+            System.err.println("Error building dictionary: " + e.getMessage()); 
+
+            return 1; 
+
+        } catch (InterruptedException e) { 
+
+            return 1; 
+
+        } finally { 
+
+            dictionaryThread.shutdown(); 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,215 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.text.*; 
+
+import java.util.*; 
+
+ 
+
+// The regions changed since the last save. Each region holds its range in the 
+
+// current text and the range it replaced in the saved text; between regions 
+
+// the two texts are equal. 
+
+class DirtyRegions { 
+
+    private static final int MAX_REGIONS = 4096; 
+
+     
+
+    private final List<int[]> regions = new ArrayList<>(); // {start, end, savedStart, savedEnd} 
+
+    private boolean overflowed; 
+
+     
+
+    public void record(int offset, int removedLength, int insertedLength) { 
+
+        if (overflowed) { 
+
+            return; 
+
+        } 
+
+        int end = offset + removedLength; 
+
+        int delta = insertedLength - removedLength; 
+
+         
+
+        // Regions that overlap or touch the edit are merged with it 
+
+        int first = 0; 
+
+        while (first < regions.size() && regions.get(first)[1] < offset) { 
+
+            first++; 
+
+        } 
+
+        int last = first; 
+
+        while (last < regions.size() && regions.get(last)[0] <= end) { 
+
+            last++; 
+
+        } 
+
+         
+
+        int[] region = new int[4]; 
+
+        int shiftBefore = first == 0 ? 0 : shift(regions.get(first - 1)); 
+
+        if (first < last && regions.get(first)[0] <= offset) { 
+
+            region[0] = regions.get(first)[0]; 
+
+            region[2] = regions.get(first)[2]; 
+
+        } else { 
+
+            region[0] = offset; 
+
+            region[2] = offset - shiftBefore; 
+
+        } 
+
+        if (first < last && regions.get(last - 1)[1] >= end) { 
+
+            region[1] = regions.get(last - 1)[1] + delta; 
+
+            region[3] = regions.get(last - 1)[3]; 
+
+        } else { 
+
+            region[1] = end + delta; 
+
+            region[3] = end - (first < last ? shift(regions.get(last - 1)) : shiftBefore); 
+
+        } 
+
+         
+
+        regions.subList(first, last).clear(); 
+
+        regions.add(first, region); 
+
+        for (int i = first + 1; i < regions.size(); i++) { 
+
+            regions.get(i)[0] += delta; 
+
+            regions.get(i)[1] += delta; 
+
+        } 
+
+         
+
+        if (regions.size() > MAX_REGIONS) { 
+
+            overflowed = true; // Not worth tracking; the next save rewrites the file 
+
+            regions.clear(); 
+
+        } 
+
+    } 
+
+     
+
+    // True when no character moved, so the unchanged text keeps its offsets 
+
+    public boolean keepsOffsets() { 
+
+        if (overflowed) { 
+
+            return false; 
+
+        } 
+
+        for (int[] region : regions) { 
+
+            if (shift(region) != 0) { 
+
+                return false; 
+
+            } 
+
+        } 
+
+        return true; 
+
+    } 
+
+     
+
+    // Start and end of every region, widened so that no range splits a 
+
+    // surrogate pair. Only valid when keepsOffsets() is true. 
+
+    public int[] ranges(PieceTable.Snapshot savedText) { 
+
+        int[] ranges = new int[regions.size() * 2]; 
+
+        int count = 0; 
+
+        Segment segment = new Segment(); 
+
+        for (int[] region : regions) { 
+
+            int start = region[0]; 
+
+            int end = region[1]; 
+
+            if (start > 0 && Character.isHighSurrogate(charAt(savedText, start - 1, segment))) { 
+
+                start--; 
+
+            } 
+
+            if (end < savedText.textLength() && Character.isLowSurrogate(charAt(savedText, end, segment))) { 
+
+                end++; 
+
+            } 
+
+            if (count > 0 && start <= ranges[count - 1]) { 
+
+                ranges[count - 1] = Math.max(end, ranges[count - 1]); 
+
+            } else if (start < end) { 
+
+                ranges[count++] = start; 
+
+                ranges[count++] = end; 
+
+            } 
+
+        } 
+
+        return Arrays.copyOf(ranges, count); 
+
+    } 
+
+     
+
+    private static char charAt(PieceTable.Snapshot text, int offset, Segment segment) { 
+
+        text.getChars(offset, 1, segment); 
+
+        return segment.array[segment.offset]; 
+
+    } 
+
+     
+
+    private static int shift(int[] region) { 
+
+        return region[1] - region[3]; 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,121 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.text.*; 
+
+ 
+
+// Lets java.util.regex read a document. Each read goes up to the end of a 
+
+// piece through a Segment, so scanning forward looks up one piece at a time 
+
+// instead of one char, and nothing is copied. 
+
+class DocumentChars implements CharSequence { 
+
+    private static final int BACKWARD_STEP = 256; 
+
+     
+
+    private final Document document; 
+
+    private final Segment segment = new Segment(); 
+
+    private int segmentStart; 
+
+     
+
+    DocumentChars(Document document) { 
+
+        this.document = document; 
+
+        segment.setPartialReturn(true); 
+
+    } 
+
+     
+
+    @Override 
+
+    public int length() { 
+
+        return document.getLength(); 
+
+    } 
+
+     
+
+    @Override 
+
+    public char charAt(int index) { 
+
+        if (index < segmentStart || index >= segmentStart + segment.count) { 
+
+            if (index < 0 || index >= document.getLength()) { 
+
+                throw new IndexOutOfBoundsException(index); 
+
+            } 
+
+             
+
+            // Stepping back, as lookbehinds do, reads a little before the 
+
+            // char, so the next steps back find it already read 
+
+            int position = index < segmentStart ? Math.max(0, index - BACKWARD_STEP) : index; 
+
+            try { 
+
+                do { 
+
+                    document.getText(position, document.getLength() - position, segment); 
+
+                    segmentStart = position; 
+
+                    position += segment.count; 
+
+                } while (position <= index); 
+
+            } catch (BadLocationException e) { 
+
+                throw new IndexOutOfBoundsException(index); 
+
+            } 
+
+        } 
+
+        return segment.array[segment.offset + index - segmentStart]; 
+
+    } 
+
+     
+
+    @Override 
+
+    public CharSequence subSequence(int start, int end) { 
+
+        try { 
+
+            return document.getText(start, end - start); 
+
+        } catch (BadLocationException e) { 
+
+            throw new IndexOutOfBoundsException(start); 
+
+        } 
+
+    } 
+
+     
+
+    @Override 
+
+    public String toString() { 
+
+        return subSequence(0, length()).toString(); 
+
+    } 
+
+} 
\ No newline at end of file
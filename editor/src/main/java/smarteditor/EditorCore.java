@@ -0,0 +1,1331 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.event.*; 
+
+import javax.swing.text.*; 
+
+import java.io.*; 
+
+import java.nio.file.Files; 
+
+import java.nio.file.Path; 
+
+import java.util.*; 
+
+import java.util.concurrent.ExecutorService; 
+
+import java.util.concurrent.Executors; 
+
+import java.util.concurrent.atomic.AtomicLong; 
+
+import java.util.function.Consumer; 
+
+import java.util.function.ObjLongConsumer; 
+
+ 
+
+// The editor without its window: the document, its undo tree, the 
+
+// suggestion dictionary and reading and writing files. Nothing here needs a 
+
+// display, so it can also run in batch jobs, on a server or in benchmarks. 
+
+// 
+
+// It belongs to the thread that edits, the EDT in the editor. Reading and 
+
+// writing a file can be handed to a worker through PendingOpen and 
+
+// PendingSave. The dictionary is only used on its own thread, and autosave 
+
+// writes on another, so neither ever holds up editing. 
+
+// 
+
+// Each layer is a class of its own: PieceTable and PieceTableDocument hold 
+
+// the text, UndoTree and UndoJournal its history, Trie, MappedDictionary 
+
+// and BuiltInDictionary the words, TextFileReader and TextFileWriter the 
+
+// files. This class only ties them together for the window and the batch 
+
+// editor. 
+
+public class EditorCore { 
+
+    // Core data structures 
+
+    private final boolean interactive; 
+
+    private PieceTableDocument document; 
+
+    private UndoTree undoTree; 
+
+    private final Trie dictionary; 
+
+    private Consumer<TextEdit> editListener = edit -> { }; 
+
+    private boolean isReplayingHistory; // Undo, redo or a move through the tree 
+
+    private boolean isApplyingEdit; 
+
+     
+
+    // Start offset of every line of the document 
+
+    private LineIndex lineIndex; 
+
+     
+
+    // File handling 
+
+    private File currentFile; 
+
+    private boolean documentChanged; 
+
+     
+
+    // What the file on disk holds, so a save can rewrite only what changed. 
+
+    // The snapshot is null when the document does not match the file exactly. 
+
+    private PieceTable.Snapshot savedSnapshot; 
+
+    private File savedFile; 
+
+    private long savedFileSize; 
+
+    private long savedFileModified; 
+
+    private DirtyRegions dirtyRegions = new DirtyRegions(); 
+
+     
+
+    // Keeps the undo history of the open file across sessions. A new 
+
+    // document gets one in the recovery folder once it has been changed. 
+
+    private UndoJournal undoJournal; 
+
+    private long untitledEmptyState; // The state of an untitled document before any edits 
+
+     
+
+    // Autosave: new journal records are forced to disk and the recovery 
+
+    // marker is brought up to date on the autosave thread, so the editing 
+
+    // thread never waits for the disk 
+
+    private static final Path RECOVERY_DIRECTORY = 
+
+        Path.of(System.getProperty("user.home"), ".smarteditor", "recovery"); 
+
+    private final ExecutorService autosaveExecutor = Executors.newSingleThreadExecutor(runnable -> { 
+
+        Thread thread = new Thread(runnable, "autosave"); 
+
+        thread.setDaemon(true); 
+
+        return thread; 
+
+    }); 
+
+    private final RecoveryMarker recoveryMarker = 
+
+        new RecoveryMarker(RECOVERY_DIRECTORY.resolve(UUID.randomUUID() + RecoveryMarker.SUFFIX)); 
+
+    private String recoveryNote; // What the marker says, or null when there is none 
+
+    private final WordLocator wordLocator = new WordLocator(); 
+
+    private final TextSearch search = new TextSearch(); 
+
+     
+
+    // The dictionary is only used on this thread, so lookups and learning 
+
+    // never hold up typing and the trie needs no locking 
+
+    private final ExecutorService dictionaryExecutor = Executors.newSingleThreadExecutor(runnable -> { 
+
+        Thread thread = new Thread(runnable, "dictionary"); 
+
+        thread.setDaemon(true); 
+
+        return thread; 
+
+    }); 
+
+    private final AtomicLong suggestionRequest = new AtomicLong(); // Older results are dropped 
+
+     
+
+    // How often each word the dictionary learned occurs in the current 
+
+    // document. Only used on the dictionary thread. Replacing the document 
+
+    // takes these counts back out, so words used nowhere else are evicted. 
+
+    private final Map<String, Integer> documentWords = new HashMap<>(); 
+
+     
+
+    public EditorCore() { 
+
+        this(true); 
+
+    } 
+
+     
+
+    // An interactive core keeps an undo journal for every file it opens or 
+
+    // saves, and its dictionary starts with the common words and learns those 
+
+    // of the document. A batch core does neither, so going through many files 
+
+    // leaves nothing behind and costs no more than reading and writing them. 
+
+    public EditorCore(boolean interactive) { 
+
+        this.interactive = interactive; 
+
+        undoTree = new UndoTree(); 
+
+        dictionary = new Trie(); 
+
+         
+
+        // Load dictionary with common words 
+
+        if (interactive) { 
+
+            dictionaryExecutor.execute(() -> BuiltInDictionary.load(dictionary)); 
+
+            autosaveExecutor.execute(UndoJournal::pruneOld); 
+
+        } 
+
+         
+
+        newDocument(); 
+
+    } 
+
+     
+
+    public PieceTableDocument getDocument() { 
+
+        return document; 
+
+    } 
+
+     
+
+    public LineIndex getLineIndex() { 
+
+        return lineIndex; 
+
+    } 
+
+     
+
+    public UndoTree getUndoTree() { 
+
+        return undoTree; 
+
+    } 
+
+     
+
+    // The file the document was opened from or saved to, or null 
+
+    public File getFile() { 
+
+        return currentFile; 
+
+    } 
+
+     
+
+    public boolean isChanged() { 
+
+        return documentChanged; 
+
+    } 
+
+     
+
+    // True while the document is being changed, so caret moves it causes 
+
+    // can be told apart from the user's 
+
+    public boolean isApplyingEdit() { 
+
+        return isApplyingEdit; 
+
+    } 
+
+     
+
+    // Called after every change made through the document, but not after 
+
+    // undo, redo or moves through the history 
+
+    public void setEditListener(Consumer<TextEdit> editListener) { 
+
+        this.editListener = editListener; 
+
+    } 
+
+     
+
+    // Replaces the document with an empty, untitled one 
+
+    public void newDocument() { 
+
+        forgetDocumentWords(); 
+
+        lineIndex = new LineIndex(); 
+
+        installDocument(new PieceTableDocument()); 
+
+        currentFile = null; 
+
+        savedSnapshot = null; 
+
+        dirtyRegions = new DirtyRegions(); 
+
+        closeJournal(); 
+
+        undoTree.clear(); 
+
+        untitledEmptyState = undoTree.getCurrentSequence(); 
+
+        documentChanged = false; 
+
+    } 
+
+     
+
+    private void installDocument(PieceTableDocument document) { 
+
+        document.setDocumentFilter(new EditCaptureFilter()); 
+
+        document.addDocumentListener(new LineIndexUpdater()); 
+
+        this.document = document; 
+
+    } 
+
+     
+
+    private void beforeTextChange(TextEdit edit) { 
+
+        // An edit that cannot join the open group ends it before the document changes 
+
+        if (!isReplayingHistory && !undoTree.canMerge(edit)) { 
+
+            undoTree.closeGroup(); 
+
+        } 
+
+    } 
+
+     
+
+    private void handleTextChange(TextEdit edit) { 
+
+        dirtyRegions.record(edit.offset, edit.removed.length(), edit.inserted.length()); 
+
+        if (interactive) { 
+
+            learnWords(edit); 
+
+        } 
+
+         
+
+        if (!isReplayingHistory) { 
+
+            // Save the delta for undo; typing runs stay open until they are closed 
+
+            undoTree.record(edit); 
+
+            documentChanged = true; 
+
+            editListener.accept(edit); 
+
+        } 
+
+    } 
+
+    // Moves dictionary counts from the words an edit destroyed to the words it 
+
+    // created. Only the edited text and the words touching it are tokenized, 
+
+    // so the cost follows the size of the edit, not of the document. 
+
+    private void learnWords(TextEdit edit) { 
+
+        String before; 
+
+        String after; 
+
+        try { 
+
+            before = Words.wordCharsBefore(document, edit.offset); 
+
+            after = Words.wordCharsAfter(document, edit.offset + edit.inserted.length()); 
+
+        } catch (BadLocationException e) { 
+
+            System.err.println("Error learning words: " + e.getMessage()); 
+
+            return; 
+
+        } 
+
+         
+
+        Map<String, Integer> changes = new HashMap<>(); 
+
+        char[] removed = (before + edit.removed + after).toCharArray(); 
+
+        char[] inserted = (before + edit.inserted + after).toCharArray(); 
+
+        Words.forEachWord(removed, removed.length, word -> changes.merge(word, -1, Integer::sum)); 
+
+        Words.forEachWord(inserted, inserted.length, word -> changes.merge(word, 1, Integer::sum)); 
+
+        changes.values().removeIf(change -> change == 0); 
+
+        if (!changes.isEmpty()) { 
+
+            learnCounts(changes); 
+
+        } 
+
+    } 
+
+     
+
+    // Adds word counts, negative for words taken out, to the dictionary and 
+
+    // to those of the document 
+
+    private void learnCounts(Map<String, Integer> changes) { 
+
+        dictionaryExecutor.execute(() -> { 
+
+            for (Map.Entry<String, Integer> change : changes.entrySet()) { 
+
+                dictionary.addCount(change.getKey(), change.getValue()); 
+
+                documentWords.merge(change.getKey(), change.getValue(), 
+
+                    (count, added) -> count + added == 0 ? null : count + added); 
+
+            } 
+
+        }); 
+
+    } 
+
+     
+
+    // Takes the words of the document being replaced out of the dictionary 
+
+    private void forgetDocumentWords() { 
+
+        if (!interactive) { 
+
+            return; 
+
+        } 
+
+        dictionaryExecutor.execute(() -> { 
+
+            for (Map.Entry<String, Integer> word : documentWords.entrySet()) { 
+
+                dictionary.addCount(word.getKey(), -word.getValue()); 
+
+            } 
+
+            documentWords.clear(); 
+
+        }); 
+
+    } 
+
+     
+
+    // Where the word that ends at the offset starts 
+
+    public int wordStart(int offset) throws BadLocationException { 
+
+        return wordLocator.wordStart(document, offset); 
+
+    } 
+
+     
+
+    // Looks up suggestions for a prefix on the dictionary thread, where they 
+
+    // are passed on with the number of the request. A lookup still waiting 
+
+    // when the next one is asked for is dropped, and isLatestSuggestion tells 
+
+    // whether results are still wanted once they reach another thread. 
+
+    public long suggest(String prefix, boolean fuzzy, ObjLongConsumer<List<String>> results) { 
+
+        long request = suggestionRequest.incrementAndGet(); 
+
+        dictionaryExecutor.execute(() -> { 
+
+            if (request != suggestionRequest.get()) { 
+
+                return; 
+
+            } 
+
+            // Short prefixes allow one typo, longer ones two 
+
+            results.accept(fuzzy 
+
+                ? dictionary.getFuzzySuggestions(prefix, prefix.length() <= 4 ? 1 : 2) 
+
+                : dictionary.getSuggestions(prefix), request); 
+
+        }); 
+
+        return request; 
+
+    } 
+
+     
+
+    // Makes every lookup still queued or running out of date 
+
+    public void cancelSuggestions() { 
+
+        suggestionRequest.incrementAndGet(); 
+
+    } 
+
+     
+
+    public boolean isLatestSuggestion(long request) { 
+
+        return request == suggestionRequest.get(); 
+
+    } 
+
+     
+
+    // Streams the words of word lists and source folders into the dictionary 
+
+    public WordIngester newWordIngester() { 
+
+        return new WordIngester(dictionary, dictionaryExecutor); 
+
+    } 
+
+     
+
+    // Find and replace; the query is set on it and it finds matches in any 
+
+    // document, such as a window of a large file 
+
+    public TextSearch getSearch() { 
+
+        return search; 
+
+    } 
+
+     
+
+    // Replaces the range if it is a match of the search, looking again in 
+
+    // case the text changed since it was found; returns false if it is not 
+
+    public boolean replaceMatch(int start, int end, String replacement) throws BadLocationException { 
+
+        if (!search.find(document, start, true) || !search.isMatch(start, end)) { 
+
+            return false; 
+
+        } 
+
+        closeEditGroup(); 
+
+        search.replace(document, replacement); 
+
+        closeEditGroup(); 
+
+        return true; 
+
+    } 
+
+     
+
+    // Replaces every match in a single edit, which is one undo step; returns 
+
+    // how many there were 
+
+    public int replaceAll(String replacement) throws BadLocationException { 
+
+        closeEditGroup(); 
+
+        int count = search.replaceAll(document, replacement); 
+
+        closeEditGroup(); 
+
+        return count; 
+
+    } 
+
+     
+
+    // Ends the typing run being recorded; returns whether one was open 
+
+    public boolean closeEditGroup() { 
+
+        if (undoTree.isGroupOpen()) { 
+
+            undoTree.closeGroup(); 
+
+            return true; 
+
+        } 
+
+        return false; 
+
+    } 
+
+     
+
+    // Returns the edit that was undone, or null if there was none 
+
+    public TextEdit undo() { 
+
+        closeEditGroup(); 
+
+        TextEdit edit = undoTree.undo(); 
+
+        if (edit != null) { 
+
+            isReplayingHistory = true; 
+
+            try { 
+
+                edit.revert(document); 
+
+            } catch (BadLocationException e) { 
+
+                System.err.println("Error undoing edit: " + e.getMessage()); 
+
+            } finally { 
+
+                isReplayingHistory = false; 
+
+            } 
+
+            documentChanged = true; 
+
+        } 
+
+        return edit; 
+
+    } 
+
+     
+
+    // Returns the edit that was redone, or null if there was none 
+
+    public TextEdit redo() { 
+
+        TextEdit edit = undoTree.redo(); 
+
+        if (edit != null) { 
+
+            isReplayingHistory = true; 
+
+            try { 
+
+                edit.apply(document); 
+
+            } catch (BadLocationException e) { 
+
+                System.err.println("Error redoing edit: " + e.getMessage()); 
+
+            } finally { 
+
+                isReplayingHistory = false; 
+
+            } 
+
+            documentChanged = true; 
+
+        } 
+
+        return edit; 
+
+    } 
+
+     
+
+    // Moves to the state created before or after the current one 
+
+    public List<TextEdit> navigateToEdit(boolean forward) { 
+
+        closeEditGroup(); 
+
+        return applyPath(forward ? undoTree.nextState() : undoTree.previousState()); 
+
+    } 
+
+     
+
+    // Moves to the latest state of another branch at the closest fork 
+
+    public List<TextEdit> switchBranch(boolean forward) { 
+
+        closeEditGroup(); 
+
+        return applyPath(undoTree.switchBranch(forward ? 1 : -1)); 
+
+    } 
+
+     
+
+    public List<TextEdit> moveTo(long state) { 
+
+        closeEditGroup(); 
+
+        return applyPath(undoTree.moveTo(state)); 
+
+    } 
+
+     
+
+    // Applies the edits that lead to the state the undo tree moved to and 
+
+    // returns them 
+
+    private List<TextEdit> applyPath(List<TextEdit> edits) { 
+
+        if (edits.isEmpty()) { 
+
+            return edits; 
+
+        } 
+
+        isReplayingHistory = true; // The tree is already at the new state 
+
+        try { 
+
+            for (TextEdit edit : edits) { 
+
+                edit.apply(document); 
+
+            } 
+
+        } catch (BadLocationException e) { 
+
+            System.err.println("Error navigating history: " + e.getMessage()); 
+
+        } finally { 
+
+            isReplayingHistory = false; 
+
+        } 
+
+        documentChanged = true; 
+
+        return edits; 
+
+    } 
+
+     
+
+    // Starts opening a file. The pending open reads it, which can be done on 
+
+    // a worker, and open installs what it read. Reopening the file that is 
+
+    // open hands its journal over: it is closed first, so the pending open 
+
+    // reads every record it holds and is the only one writing the file. If 
+
+    // the open does not go through, the document is journaled again from its 
+
+    // next save. 
+
+    public PendingOpen prepareOpen(File file) { 
+
+        if (undoJournal != null && undoJournal.isFor(file)) { 
+
+            closeJournal(); 
+
+        } 
+
+        return new PendingOpen(file, undoTree.getMemoryLimit(), interactive); 
+
+    } 
+
+     
+
+    public void open(PendingOpen pending) { 
+
+        forgetDocumentWords(); 
+
+        lineIndex = pending.reader.lines; 
+
+        installDocument(pending.document); 
+
+         
+
+        currentFile = pending.file; 
+
+        savedSnapshot = pending.reader.exact ? document.getPieceTable().snapshot() : null; 
+
+        savedFile = pending.file; 
+
+        savedFileSize = pending.reader.fileSize; 
+
+        savedFileModified = pending.reader.fileModified; 
+
+        dirtyRegions = new DirtyRegions(); 
+
+        if (pending.reader.wordCounts != null) { 
+
+            learnCounts(pending.reader.wordCounts); 
+
+        } 
+
+        closeJournal(); 
+
+        undoTree = pending.history; 
+
+        undoJournal = pending.journal; 
+
+        documentChanged = false; 
+
+    } 
+
+     
+
+    public void open(File file) throws IOException { 
+
+        PendingOpen pending = prepareOpen(file); 
+
+        pending.read(percent -> { }, () -> false); 
+
+        open(pending); 
+
+    } 
+
+     
+
+    // Starts saving the document. The pending save holds a snapshot that 
+
+    // shares the piece table's buffers, so it can be written on a worker 
+
+    // while editing continues; saved records the outcome. 
+
+    public PendingSave prepareSave(File file) { 
+
+        // Typing after this starts a new undo state, so the journal can tell 
+
+        // which state was saved 
+
+        undoTree.closeGroup(); 
+
+        currentFile = file; 
+
+        PendingSave save = new PendingSave(file, document, document.getPieceTable().snapshot(), 
+
+            undoTree.getCurrentSequence()); 
+
+        if (savedSnapshot != null && file.equals(savedFile)) { 
+
+            save.writer.rewriteDirtyRegions(savedSnapshot, dirtyRegions, savedFileSize, savedFileModified); 
+
+        } 
+
+        // Later edits are tracked against the text being saved now 
+
+        dirtyRegions = new DirtyRegions(); 
+
+        return save; 
+
+    } 
+
+     
+
+    public void saved(PendingSave save) { 
+
+        // Edits made while saving keep the document marked as changed 
+
+        TextFileWriter writer = save.writer; 
+
+        if (document == save.document) { 
+
+            savedSnapshot = writer.replaced ? null : writer.snapshot; 
+
+            savedFile = writer.file; 
+
+            savedFileSize = writer.fileSize; 
+
+            savedFileModified = writer.fileModified; 
+
+            if (!writer.replaced && interactive) { 
+
+                journalSaved(writer.file, save.state, writer.fileSize, writer.fileModified, writer.snapshot.textLength()); 
+
+            } 
+
+            if (writer.snapshot.isCurrent()) { 
+
+                documentChanged = false; 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    public void saveFailed() { 
+
+        // The edits since the last good save are no longer tracked 
+
+        savedSnapshot = null; 
+
+    } 
+
+     
+
+    // Returns the bytes written 
+
+    public long save(File file) throws IOException { 
+
+        PendingSave save = prepareSave(file); 
+
+        long written; 
+
+        try { 
+
+            written = save.write(); 
+
+        } catch (IOException e) { 
+
+            saveFailed(); 
+
+            throw e; 
+
+        } 
+
+        saved(save); 
+
+        return written; 
+
+    } 
+
+     
+
+    private void closeJournal() { 
+
+        if (undoJournal != null) { 
+
+            undoJournal.close(); 
+
+            undoJournal = null; 
+
+        } 
+
+    } 
+
+     
+
+    // Marks the saved state in the file's journal, starting one for a file 
+
+    // saved for the first time or under a new name 
+
+    private void journalSaved(File file, long state, long fileSize, long fileModified, int length) { 
+
+        if (undoJournal == null || !undoJournal.isFor(file)) { 
+
+            closeJournal(); 
+
+            try { 
+
+                undoJournal = UndoJournal.create(file, undoTree); 
+
+            } catch (IOException e) { 
+
+                System.err.println("Error creating undo journal: " + e.getMessage()); 
+
+                return; 
+
+            } 
+
+        } 
+
+        undoJournal.saved(state, fileSize, fileModified, length); 
+
+    } 
+
+     
+
+    // Brings the recovery folder up to date with unsaved work. However many 
+
+    // edits were made since the last call, this costs one small write. 
+
+    public void autosave() { 
+
+        String note = null; 
+
+        if (documentChanged) { 
+
+            if (undoJournal == null && currentFile == null) { 
+
+                try { 
+
+                    undoJournal = UndoJournal.createUntitled( 
+
+                        RECOVERY_DIRECTORY.resolve(UUID.randomUUID() + ".journal"), undoTree, untitledEmptyState); 
+
+                } catch (IOException e) { 
+
+                    System.err.println("Error creating recovery journal: " + e.getMessage()); 
+
+                } 
+
+            } 
+
+            if (undoJournal != null) { 
+
+                note = currentFile != null 
+
+                    ? "file\n" + currentFile.getAbsolutePath() 
+
+                    : "untitled\n" + undoJournal.getPath(); 
+
+            } 
+
+        } 
+
+         
+
+        UndoJournal journal = undoJournal; 
+
+        String changedNote = Objects.equals(note, recoveryNote) ? null : note; 
+
+        boolean removeNote = note == null && recoveryNote != null; 
+
+        recoveryNote = note; 
+
+        autosaveExecutor.execute(() -> { 
+
+            try { 
+
+                if (journal != null) { 
+
+                    journal.flush(); 
+
+                } 
+
+                if (changedNote != null) { 
+
+                    recoveryMarker.write(changedNote); 
+
+                } else if (removeNote) { 
+
+                    recoveryMarker.delete(); 
+
+                } 
+
+            } catch (IOException e) { 
+
+                System.err.println("Error autosaving: " + e.getMessage()); 
+
+            } 
+
+        }); 
+
+    } 
+
+     
+
+    // Whether a file can be read into a document and edited: its text has 
+
+    // to fit in one char array, and the heap needs room for two bytes a 
+
+    // character and as much again for the line index, edits and undo 
+
+    // history. Files that do not fit are mapped instead, read-only. 
+
+    static boolean fitsInMemory(long fileSize) { 
+
+        if (fileSize > TextFileReader.MAX_DOCUMENT_LENGTH) { 
+
+            return false; 
+
+        } 
+
+        Runtime runtime = Runtime.getRuntime(); 
+
+        long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory()); 
+
+        return 4 * fileSize <= available; 
+
+    } 
+
+     
+
+    static String formatBytes(long bytes) { 
+
+        if (bytes < 1024) { 
+
+            return bytes + " B"; 
+
+        } 
+
+        if (bytes < 1024 * 1024) { 
+
+            return String.format("%.1f KB", bytes / 1024.0); 
+
+        } 
+
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0)); 
+
+    } 
+
+     
+
+    // Unsaved work left by editors that did not exit normally, newest first 
+
+    public static List<RecoveryMarker> findUnsavedWork() throws IOException { 
+
+        return RecoveryMarker.findAbandoned(RECOVERY_DIRECTORY); 
+
+    } 
+
+     
+
+    public static void deleteRecoveryFile(Path path) { 
+
+        try { 
+
+            Files.deleteIfExists(path); 
+
+        } catch (IOException e) { 
+
+            System.err.println("Error deleting " + path + ": " + e.getMessage()); 
+
+        } 
+
+    } 
+
+     
+
+    // Takes over the undo history of an untitled document from its journal 
+
+    public void recoverUntitled(Path journalPath) throws IOException { 
+
+        UndoTree history = new UndoTree(); 
+
+        history.setMemoryLimit(undoTree.getMemoryLimit()); 
+
+        UndoJournal journal = UndoJournal.openUntitled(journalPath, history); 
+
+        closeJournal(); 
+
+        undoTree = history; 
+
+        undoJournal = journal; 
+
+        untitledEmptyState = history.getCurrentSequence(); 
+
+    } 
+
+     
+
+    // The state the journal was in when its editor last stopped, or -1 
+
+    public long getUnsavedState() { 
+
+        return undoJournal == null ? -1 : undoJournal.getLastState(); 
+
+    } 
+
+     
+
+    // Closes the journal and takes down the recovery marker, as when the 
+
+    // editor exits 
+
+    public void shutdown() { 
+
+        closeJournal(); 
+
+        autosaveExecutor.shutdownNow(); // A queued write must not bring the marker back 
+
+        try { 
+
+            recoveryMarker.delete(); 
+
+        } catch (IOException e) { 
+
+            System.err.println("Error deleting recovery marker: " + e.getMessage()); 
+
+        } 
+
+        dictionaryExecutor.shutdownNow(); 
+
+    } 
+
+     
+
+    // Inner class that keeps the line index in step with the document 
+
+    private class LineIndexUpdater implements DocumentListener { 
+
+        private final Segment inserted = new Segment(); 
+
+         
+
+        @Override 
+
+        public void insertUpdate(DocumentEvent e) { 
+
+            try { 
+
+                e.getDocument().getText(e.getOffset(), e.getLength(), inserted); 
+
+                lineIndex.insert(e.getOffset(), inserted); 
+
+            } catch (BadLocationException ex) { 
+
+                System.err.println("Error updating line index: " + ex.getMessage()); 
+
+            } 
+
+        } 
+
+         
+
+        @Override 
+
+        public void removeUpdate(DocumentEvent e) { 
+
+            lineIndex.remove(e.getOffset(), e.getLength()); 
+
+        } 
+
+         
+
+        @Override 
+
+        public void changedUpdate(DocumentEvent e) { 
+
+        } 
+
+    } 
+
+     
+
+    // Inner class that captures document changes as edit deltas. 
+
+    // Remove events no longer carry the removed text, so it is read here 
+
+    // before the change is applied. 
+
+    private class EditCaptureFilter extends DocumentFilter { 
+
+        @Override 
+
+        public void insertString(FilterBypass fb, int offset, String string, AttributeSet attr) 
+
+                throws BadLocationException { 
+
+            replace(fb, offset, 0, string, attr); 
+
+        } 
+
+         
+
+        @Override 
+
+        public void remove(FilterBypass fb, int offset, int length) throws BadLocationException { 
+
+            replace(fb, offset, length, null, null); 
+
+        } 
+
+         
+
+        @Override 
+
+        public void replace(FilterBypass fb, int offset, int length, String text, AttributeSet attrs) 
+
+                throws BadLocationException { 
+
+            String removed = length > 0 ? fb.getDocument().getText(offset, length) : ""; 
+
+            String inserted = text != null ? text : ""; 
+
+            TextEdit edit = new TextEdit(offset, removed, inserted); 
+
+            boolean changed = !removed.equals(inserted); 
+
+             
+
+            if (changed) { 
+
+                beforeTextChange(edit); 
+
+            } 
+
+             
+
+            isApplyingEdit = true; 
+
+            try { 
+
+                if (length > 0) { 
+
+                    fb.replace(offset, length, inserted, attrs); 
+
+                } else if (!inserted.isEmpty()) { 
+
+                    fb.insertString(offset, inserted, attrs); 
+
+                } 
+
+            } finally { 
+
+                isApplyingEdit = false; 
+
+            } 
+
+             
+
+            if (changed) { 
+
+                handleTextChange(edit); 
+
+            } 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,399 @@
+package smarteditor; 
+
+ 
+
+import java.util.*; 
+
+ 
+
+// The line-start index. Offsets are kept in fixed-size chunks of a primitive 
+
+// long[], each relative to a per-chunk base, so an edit rewrites the entries 
+
+// of one chunk and only moves the bases after it. 
+
+class LineIndex { 
+
+    private static final int CHUNK_CAPACITY = 4096; 
+
+     
+
+    private long[][] chunks = new long[16][]; 
+
+    private long[] bases = new long[16]; 
+
+    private int[] sizes = new int[16]; 
+
+    private int chunkCount; 
+
+    private int lineCount; 
+
+     
+
+    public LineIndex() { 
+
+        add(0); // The first line always starts at 0 
+
+    } 
+
+     
+
+    public int lineCount() { 
+
+        return lineCount; 
+
+    } 
+
+     
+
+    // Appends the start of the next line while the index is being built 
+
+    public void add(long start) { 
+
+        if (chunkCount == 0 || sizes[chunkCount - 1] == CHUNK_CAPACITY) { 
+
+            insertChunk(chunkCount, new long[CHUNK_CAPACITY], 0, 0); 
+
+        } 
+
+        int chunk = chunkCount - 1; 
+
+        chunks[chunk][sizes[chunk]++] = start - bases[chunk]; 
+
+        lineCount++; 
+
+    } 
+
+     
+
+    public long lineStart(int line) { 
+
+        if (line < 0 || line >= lineCount) { 
+
+            throw new IndexOutOfBoundsException("Line " + line + " of " + lineCount); 
+
+        } 
+
+        long location = locate(line); 
+
+        int chunk = (int) (location >>> 32); 
+
+        return bases[chunk] + chunks[chunk][(int) location]; 
+
+    } 
+
+     
+
+    // Number of the line containing the offset 
+
+    public int lineOf(long offset) { 
+
+        int low = 0; 
+
+        int high = chunkCount - 1; 
+
+        while (low < high) { 
+
+            int mid = (low + high + 1) >>> 1; 
+
+            if (bases[mid] + chunks[mid][0] <= offset) { 
+
+                low = mid; 
+
+            } else { 
+
+                high = mid - 1; 
+
+            } 
+
+        } 
+
+         
+
+        int line = 0; 
+
+        for (int c = 0; c < low; c++) { 
+
+            line += sizes[c]; 
+
+        } 
+
+        int index = Arrays.binarySearch(chunks[low], 0, sizes[low], offset - bases[low]); 
+
+        return line + (index >= 0 ? index : -index - 2); 
+
+    } 
+
+     
+
+    // Text was inserted at the offset: later lines move and every newline 
+
+    // in the text starts a new line 
+
+    public void insert(long offset, CharSequence text) { 
+
+        int line = lineOf(offset); 
+
+        shiftAfter(line, text.length()); 
+
+         
+
+        long[] starts = null; 
+
+        int count = 0; 
+
+        for (int i = 0; i < text.length(); i++) { 
+
+            if (text.charAt(i) == '\n') { 
+
+                if (starts == null) { 
+
+                    starts = new long[16]; 
+
+                } else if (count == starts.length) { 
+
+                    starts = Arrays.copyOf(starts, count * 2); 
+
+                } 
+
+                starts[count++] = offset + i + 1; 
+
+            } 
+
+        } 
+
+        if (count > 0) { 
+
+            insertLines(line + 1, starts, count); 
+
+        } 
+
+    } 
+
+     
+
+    // Text was removed at the offset: lines that started inside it are 
+
+    // joined to the line before and later lines move back 
+
+    public void remove(long offset, long length) { 
+
+        int first = lineOf(offset) + 1; 
+
+        int last = lineOf(offset + length); 
+
+        if (last >= first) { 
+
+            removeLines(first, last - first + 1); 
+
+        } 
+
+        shiftAfter(first - 1, -length); 
+
+    } 
+
+     
+
+    // Chunk of the line in the high half, index within the chunk in the low half 
+
+    private long locate(int line) { 
+
+        int chunk = 0; 
+
+        while (chunk < chunkCount - 1 && line >= sizes[chunk]) { 
+
+            line -= sizes[chunk]; 
+
+            chunk++; 
+
+        } 
+
+        return ((long) chunk << 32) | line; 
+
+    } 
+
+     
+
+    private void shiftAfter(int line, long delta) { 
+
+        if (line + 1 >= lineCount) { 
+
+            return; 
+
+        } 
+
+        long location = locate(line + 1); 
+
+        int chunk = (int) (location >>> 32); 
+
+        for (int i = (int) location; i < sizes[chunk]; i++) { 
+
+            chunks[chunk][i] += delta; 
+
+        } 
+
+        for (int c = chunk + 1; c < chunkCount; c++) { 
+
+            bases[c] += delta; 
+
+        } 
+
+    } 
+
+     
+
+    private void insertLines(int line, long[] starts, int count) { 
+
+        long location = locate(line); 
+
+        int chunk = (int) (location >>> 32); 
+
+        int index = (int) location; 
+
+        long[] entries = chunks[chunk]; 
+
+        int size = sizes[chunk]; 
+
+        long base = bases[chunk]; 
+
+         
+
+        if (size + count <= CHUNK_CAPACITY) { 
+
+            System.arraycopy(entries, index, entries, index + count, size - index); 
+
+            for (int i = 0; i < count; i++) { 
+
+                entries[index + i] = starts[i] - base; 
+
+            } 
+
+            sizes[chunk] = size + count; 
+
+        } else { 
+
+            // Spread the chunk and the new lines over half-full chunks so 
+
+            // that the next inserts nearby do not split again at once 
+
+            long[] merged = new long[size + count]; 
+
+            System.arraycopy(entries, 0, merged, 0, index); 
+
+            for (int i = 0; i < count; i++) { 
+
+                merged[index + i] = starts[i] - base; 
+
+            } 
+
+            System.arraycopy(entries, index, merged, index + count, size - index); 
+
+             
+
+            removeChunk(chunk); 
+
+            int half = CHUNK_CAPACITY / 2; 
+
+            for (int from = 0; from < merged.length; from += half) { 
+
+                int length = Math.min(half, merged.length - from); 
+
+                long[] part = new long[CHUNK_CAPACITY]; 
+
+                System.arraycopy(merged, from, part, 0, length); 
+
+                insertChunk(chunk++, part, length, base); 
+
+            } 
+
+        } 
+
+        lineCount += count; 
+
+    } 
+
+     
+
+    private void removeLines(int line, int count) { 
+
+        long location = locate(line); 
+
+        int chunk = (int) (location >>> 32); 
+
+        int index = (int) location; 
+
+        lineCount -= count; 
+
+        while (count > 0) { 
+
+            int removed = Math.min(count, sizes[chunk] - index); 
+
+            System.arraycopy(chunks[chunk], index + removed, chunks[chunk], index, sizes[chunk] - index - removed); 
+
+            sizes[chunk] -= removed; 
+
+            count -= removed; 
+
+            if (sizes[chunk] == 0) { 
+
+                removeChunk(chunk); 
+
+            } else { 
+
+                chunk++; 
+
+            } 
+
+            index = 0; 
+
+        } 
+
+    } 
+
+     
+
+    private void insertChunk(int at, long[] entries, int size, long base) { 
+
+        if (chunkCount == chunks.length) { 
+
+            chunks = Arrays.copyOf(chunks, chunkCount * 2); 
+
+            bases = Arrays.copyOf(bases, chunkCount * 2); 
+
+            sizes = Arrays.copyOf(sizes, chunkCount * 2); 
+
+        } 
+
+        System.arraycopy(chunks, at, chunks, at + 1, chunkCount - at); 
+
+        System.arraycopy(bases, at, bases, at + 1, chunkCount - at); 
+
+        System.arraycopy(sizes, at, sizes, at + 1, chunkCount - at); 
+
+        chunks[at] = entries; 
+
+        bases[at] = base; 
+
+        sizes[at] = size; 
+
+        chunkCount++; 
+
+    } 
+
+     
+
+    private void removeChunk(int at) { 
+
+        System.arraycopy(chunks, at + 1, chunks, at, chunkCount - at - 1); 
+
+        System.arraycopy(bases, at + 1, bases, at, chunkCount - at - 1); 
+
+        System.arraycopy(sizes, at + 1, sizes, at, chunkCount - at - 1); 
+
+        chunkCount--; 
+
+        chunks[chunkCount] = null; 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,451 @@
+package smarteditor; 
+
+ 
+
+import java.io.*; 
+
+import java.nio.ByteBuffer; 
+
+import java.nio.MappedByteBuffer; 
+
+import java.nio.channels.FileChannel; 
+
+import java.nio.file.Files; 
+
+import java.nio.file.Path; 
+
+import java.nio.file.StandardCopyOption; 
+
+import java.nio.file.StandardOpenOption; 
+
+ 
+
+// A dictionary that is built offline and memory-mapped. The trie is stored 
+
+// breadth first, so the children of a node are next to each other and found 
+
+// by binary search, and each node keeps the best completions it had when it 
+
+// was built. Lookups read the mapped file directly; nothing is built on the 
+
+// heap however large the vocabulary is. 
+
+// 
+
+// Layout, big-endian: magic, version, node count and suggestion limit, 
+
+// then for every node its first child, parent, count (-1 when no word ends 
+
+// there) and best completions, then the labels. The first child array has 
+
+// one more entry, so the children of node n run up to firstChild[n + 1]. 
+
+class MappedDictionary { 
+
+    private static final int MAGIC = 0x53454443; // "SEDC" 
+
+    private static final int VERSION = 1; 
+
+    private static final int HEADER_SIZE = 16; 
+
+    private static final int ROOT = 0; 
+
+    private static final int NONE = 0; // The root is never a child 
+
+     
+
+    private final MappedByteBuffer buffer; 
+
+    private final int nodeCount; 
+
+    private final int suggestionLimit; 
+
+    private final int firstChildAt; 
+
+    private final int parentAt; 
+
+    private final int countAt; 
+
+    private final int bestAt; 
+
+    private final int labelAt; 
+
+     
+
+    private MappedDictionary(MappedByteBuffer buffer) throws IOException { 
+
+        this.buffer = buffer; 
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) { 
+
+            throw new IOException("Not a dictionary file"); 
+
+        } 
+
+        if (buffer.getInt(4) != VERSION) { 
+
+            throw new IOException("Unsupported dictionary version " + buffer.getInt(4)); 
+
+        } 
+
+        nodeCount = buffer.getInt(8); 
+
+        suggestionLimit = buffer.getInt(12); 
+
+        long size = HEADER_SIZE + 4L * (nodeCount + 1) + 8L * nodeCount 
+
+            + 4L * nodeCount * suggestionLimit + 2L * nodeCount; 
+
+        if (nodeCount < 1 || suggestionLimit < 0 || size != buffer.capacity()) { 
+
+            throw new IOException("Dictionary file is damaged"); 
+
+        } 
+
+        firstChildAt = HEADER_SIZE; 
+
+        parentAt = firstChildAt + 4 * (nodeCount + 1); 
+
+        countAt = parentAt + 4 * nodeCount; 
+
+        bestAt = countAt + 4 * nodeCount; 
+
+        labelAt = bestAt + 4 * nodeCount * suggestionLimit; 
+
+    } 
+
+     
+
+    // The mapping stays valid after the channel is closed 
+
+    public static MappedDictionary open(Path path) throws IOException { 
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) { 
+
+            if (channel.size() > Integer.MAX_VALUE) { 
+
+                throw new IOException("Dictionary file is too large"); 
+
+            } 
+
+            return new MappedDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())); 
+
+        } 
+
+    } 
+
+     
+
+    // Writes the words of a trie in this format and returns how many there 
+
+    // were. The file is written beside the target and renamed over it, so 
+
+    // an editor that has the old one mapped never sees it half-written. 
+
+    public static int write(Trie trie, Path target) throws IOException { 
+
+        // Number the nodes breadth first 
+
+        int[] order = new int[trie.nodeCount]; 
+
+        int[] number = new int[trie.nodeCount]; 
+
+        int[] firstChild = new int[trie.nodeCount + 1]; 
+
+        int nodes = 1; // The root 
+
+        for (int i = 0; i < nodes; i++) { 
+
+            firstChild[i] = nodes; 
+
+            int start = trie.edgeStart[order[i]]; 
+
+            for (int e = start; e < start + trie.edgeCount[order[i]]; e++) { 
+
+                int child = trie.edges.ints[e]; 
+
+                number[child] = nodes; 
+
+                order[nodes++] = child; 
+
+            } 
+
+        } 
+
+        firstChild[nodes] = nodes; 
+
+         
+
+        long size = HEADER_SIZE + 4L * (nodes + 1) + 8L * nodes 
+
+            + 4L * nodes * Trie.SUGGESTION_LIMIT + 2L * nodes; 
+
+        if (size > Integer.MAX_VALUE) { 
+
+            throw new IOException("Too many words for one dictionary file"); 
+
+        } 
+
+         
+
+        Path absolute = target.toAbsolutePath(); 
+
+        Files.createDirectories(absolute.getParent()); 
+
+        Path temp = absolute.resolveSibling("." + absolute.getFileName() + ".building"); 
+
+        int words = 0; 
+
+        try { 
+
+            Files.deleteIfExists(temp); 
+
+            try (FileChannel channel = FileChannel.open(temp, 
+
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) { 
+
+                ByteBuffer out = ByteBuffer.allocate(64 * 1024); 
+
+                out.putInt(MAGIC).putInt(VERSION).putInt(nodes).putInt(Trie.SUGGESTION_LIMIT); 
+
+                for (int i = 0; i <= nodes; i++) { 
+
+                    putInt(channel, out, firstChild[i]); 
+
+                } 
+
+                for (int i = 0; i < nodes; i++) { 
+
+                    putInt(channel, out, i == ROOT ? NONE : number[trie.parent[order[i]]]); 
+
+                } 
+
+                for (int i = 0; i < nodes; i++) { 
+
+                    boolean word = trie.endOfWord[order[i]]; 
+
+                    putInt(channel, out, word ? trie.counts[order[i]] : -1); 
+
+                    words += word ? 1 : 0; 
+
+                } 
+
+                for (int i = 0; i < nodes; i++) { 
+
+                    // Lists shorter than the limit are padded with no node 
+
+                    int start = trie.bestStart[order[i]]; 
+
+                    int listed = Trie.BEST_SIZES[trie.bestSize[order[i]]]; 
+
+                    for (int k = 0; k < Trie.SUGGESTION_LIMIT; k++) { 
+
+                        putInt(channel, out, k < listed ? number[trie.best.ints[start + k]] : NONE); 
+
+                    } 
+
+                } 
+
+                for (int i = 0; i < nodes; i++) { 
+
+                    if (out.remaining() < 2) { 
+
+                        drain(channel, out); 
+
+                    } 
+
+                    out.putChar(trie.labels[order[i]]); 
+
+                } 
+
+                drain(channel, out); 
+
+                channel.force(true); 
+
+            } 
+
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE); 
+
+        } finally { 
+
+            Files.deleteIfExists(temp); 
+
+        } 
+
+        return words; 
+
+    } 
+
+     
+
+    private static void putInt(FileChannel channel, ByteBuffer out, int value) throws IOException { 
+
+        if (out.remaining() < 4) { 
+
+            drain(channel, out); 
+
+        } 
+
+        out.putInt(value); 
+
+    } 
+
+     
+
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException { 
+
+        out.flip(); 
+
+        while (out.hasRemaining()) { 
+
+            channel.write(out); 
+
+        } 
+
+        out.clear(); 
+
+    } 
+
+     
+
+    public int find(String word) { 
+
+        int node = ROOT; 
+
+        for (int i = 0; i < word.length(); i++) { 
+
+            node = child(node, word.charAt(i)); 
+
+            if (node == NONE) { 
+
+                return NONE; 
+
+            } 
+
+        } 
+
+        return node; 
+
+    } 
+
+     
+
+    // How often a word was seen when the dictionary was built, or -1 when 
+
+    // it is not in the dictionary 
+
+    public int count(String word) { 
+
+        int node = find(word); 
+
+        return node == NONE ? -1 : count(node); 
+
+    } 
+
+     
+
+    public int count(int node) { 
+
+        return buffer.getInt(countAt + 4 * node); 
+
+    } 
+
+     
+
+    public char label(int node) { 
+
+        return buffer.getChar(labelAt + 2 * node); 
+
+    } 
+
+     
+
+    public int firstChild(int node) { 
+
+        return buffer.getInt(firstChildAt + 4 * node); 
+
+    } 
+
+     
+
+    public int childEnd(int node) { 
+
+        return firstChild(node + 1); 
+
+    } 
+
+     
+
+    // The word node at a position of a node's best completions, or NONE 
+
+    public int best(int node, int position) { 
+
+        if (position >= suggestionLimit) { 
+
+            return NONE; 
+
+        } 
+
+        return buffer.getInt(bestAt + 4 * (node * suggestionLimit + position)); 
+
+    } 
+
+     
+
+    public int child(int node, char label) { 
+
+        int low = firstChild(node); 
+
+        int high = childEnd(node) - 1; 
+
+        while (low <= high) { 
+
+            int middle = (low + high) >>> 1; 
+
+            char middleLabel = label(middle); 
+
+            if (middleLabel < label) { 
+
+                low = middle + 1; 
+
+            } else if (middleLabel > label) { 
+
+                high = middle - 1; 
+
+            } else { 
+
+                return middle; 
+
+            } 
+
+        } 
+
+        return NONE; 
+
+    } 
+
+     
+
+    public String spell(int node) { 
+
+        int depth = 0; 
+
+        for (int n = node; n != ROOT; n = buffer.getInt(parentAt + 4 * n)) { 
+
+            depth++; 
+
+        } 
+
+        char[] word = new char[depth]; 
+
+        for (int n = node; n != ROOT; n = buffer.getInt(parentAt + 4 * n)) { 
+
+            word[--depth] = label(n); 
+
+        } 
+
+        return new String(word); 
+
+    } 
+
+} 
\ No newline at end of file
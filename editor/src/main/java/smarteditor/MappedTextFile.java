@@ -0,0 +1,261 @@
+package smarteditor; 
+
+ 
+
+import java.io.*; 
+
+import java.nio.ByteBuffer; 
+
+import java.nio.CharBuffer; 
+
+import java.nio.MappedByteBuffer; 
+
+import java.nio.channels.FileChannel; 
+
+import java.nio.charset.CharacterCodingException; 
+
+import java.nio.charset.CharsetDecoder; 
+
+import java.nio.charset.CodingErrorAction; 
+
+import java.nio.charset.StandardCharsets; 
+
+import java.nio.file.StandardOpenOption; 
+
+ 
+
+// A memory-mapped, read-only view of a large file. The file is mapped in 
+
+// regions of up to 1 GB and only the bytes that are asked for get decoded, so 
+
+// the operating system pages the rest in on demand. 
+
+class MappedTextFile implements Closeable { 
+
+    private static final long REGION_SIZE = 1L << 30; 
+
+    private static final int MAX_LINE_SCAN = 64 * 1024; 
+
+     
+
+    private final FileChannel channel; 
+
+    private final MappedByteBuffer[] regions; 
+
+    private final long size; 
+
+     
+
+    private MappedTextFile(FileChannel channel) throws IOException { 
+
+        this.channel = channel; 
+
+        this.size = channel.size(); 
+
+        this.regions = new MappedByteBuffer[(int) ((size + REGION_SIZE - 1) / REGION_SIZE)]; 
+
+        for (int i = 0; i < regions.length; i++) { 
+
+            long start = i * REGION_SIZE; 
+
+            regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, size - start)); 
+
+        } 
+
+    } 
+
+     
+
+    public static MappedTextFile open(File file) throws IOException { 
+
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ); 
+
+        try { 
+
+            return new MappedTextFile(channel); 
+
+        } catch (IOException | RuntimeException e) { 
+
+            channel.close(); 
+
+            throw e; 
+
+        } 
+
+    } 
+
+     
+
+    public long size() { 
+
+        return size; 
+
+    } 
+
+     
+
+    // Copies bytes from the position into the buffer without crossing a 
+
+    // region boundary and returns how many were copied 
+
+    public int read(long position, byte[] buffer) { 
+
+        int offset = (int) (position % REGION_SIZE); 
+
+        ByteBuffer region = regions[(int) (position / REGION_SIZE)].duplicate(); 
+
+        int count = Math.min(buffer.length, region.limit() - offset); 
+
+        region.position(offset); 
+
+        region.get(buffer, 0, count); 
+
+        return count; 
+
+    } 
+
+     
+
+    public byte byteAt(long position) { 
+
+        return regions[(int) (position / REGION_SIZE)].get((int) (position % REGION_SIZE)); 
+
+    } 
+
+     
+
+    // Start of the line containing the position. Very long lines are cut 
+
+    // at a character boundary instead of scanning them to the start. 
+
+    public long lineStart(long position) { 
+
+        long limit = Math.max(0, position - MAX_LINE_SCAN); 
+
+        for (long i = position; i > limit; i--) { 
+
+            if (byteAt(i - 1) == '\n') { 
+
+                return i; 
+
+            } 
+
+        } 
+
+        return limit == 0 ? 0 : charStart(position); 
+
+    } 
+
+     
+
+    // Start of the line after the one containing the position 
+
+    public long lineEnd(long position) { 
+
+        long limit = Math.min(size, position + MAX_LINE_SCAN); 
+
+        for (long i = position; i < limit; i++) { 
+
+            if (byteAt(i) == '\n') { 
+
+                return i + 1; 
+
+            } 
+
+        } 
+
+        return limit == size ? size : charStart(position); 
+
+    } 
+
+     
+
+    // Moves back over UTF-8 continuation bytes. A character has at most 
+
+    // three of them, so malformed or binary input never moves it further. 
+
+    private long charStart(long position) { 
+
+        long limit = Math.max(0, position - 3); 
+
+        while (position > limit && position < size && (byteAt(position) & 0xC0) == 0x80) { 
+
+            position--; 
+
+        } 
+
+        return position; 
+
+    } 
+
+     
+
+    public CharBuffer decode(long start, long end) { 
+
+        if (start == end) { 
+
+            return CharBuffer.allocate(0); 
+
+        } 
+
+         
+
+        ByteBuffer bytes; 
+
+        int region = (int) (start / REGION_SIZE); 
+
+        if (region == (int) ((end - 1) / REGION_SIZE)) { 
+
+            // Decode straight from the mapping when the range is in one region 
+
+            int offset = (int) (start % REGION_SIZE); 
+
+            bytes = regions[region].duplicate(); 
+
+            bytes.limit(offset + (int) (end - start)).position(offset); 
+
+        } else { 
+
+            bytes = ByteBuffer.allocate((int) (end - start)); 
+
+            for (long i = start; i < end; i++) { 
+
+                bytes.put(byteAt(i)); 
+
+            } 
+
+            bytes.flip(); 
+
+        } 
+
+         
+
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder() 
+
+            .onMalformedInput(CodingErrorAction.REPLACE) 
+
+            .onUnmappableCharacter(CodingErrorAction.REPLACE); 
+
+        try { 
+
+            return decoder.decode(bytes); 
+
+        } catch (CharacterCodingException e) { 
+
+            throw new IllegalStateException(e); // Cannot happen with REPLACE 
+
+        } 
+
+    } 
+
+     
+
+    @Override 
+
+    public void close() throws IOException { 
+
+        channel.close(); 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,543 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.text.*; 
+
+import java.lang.ref.WeakReference; 
+
+import java.util.*; 
+
+ 
+
+// The positions handed out by the piece table. Marks are kept sorted in 
+
+// fixed-size buckets. Shifts that apply to whole buckets are kept in a 
+
+// Fenwick tree, so an edit only rewrites the marks in the buckets it touches 
+
+// and costs O(log n) for everything after them. Positions nobody references 
+
+// any more are dropped, as in GapContent. 
+
+class MarkList { 
+
+    private static final int BUCKET_CAPACITY = 256; 
+
+     
+
+    private final List<MarkBucket> buckets; 
+
+    private int[] shiftTree; 
+
+    private int markCount; 
+
+    private int createdSinceSweep; 
+
+     
+
+    public MarkList() { 
+
+        buckets = new ArrayList<>(); 
+
+        shiftTree = new int[16]; 
+
+        markCount = 0; 
+
+        createdSinceSweep = 0; 
+
+    } 
+
+     
+
+    public Position create(int offset) { 
+
+        if (++createdSinceSweep > Math.max(1024, markCount)) { 
+
+            sweepCollectedMarks(); 
+
+        } 
+
+         
+
+        if (buckets.isEmpty()) { 
+
+            buckets.add(new MarkBucket(this)); 
+
+            reindexBuckets(); 
+
+        } 
+
+        int index = buckets.get(0).size == 0 ? 0 : Math.min(findBucket(offset), buckets.size() - 1); 
+
+        MarkBucket bucket = buckets.get(index); 
+
+        int base = bucket.base(); 
+
+         
+
+        // Insert after any marks at the same offset to keep the bucket sorted 
+
+        int low = 0; 
+
+        int high = bucket.size; 
+
+        while (low < high) { 
+
+            int mid = (low + high) >>> 1; 
+
+            if (bucket.values[mid] + base <= offset) { 
+
+                low = mid + 1; 
+
+            } else { 
+
+                high = mid; 
+
+            } 
+
+        } 
+
+         
+
+        StickyPosition position = new StickyPosition(); 
+
+        position.mark = new Mark(position); 
+
+        bucket.insert(low, position.mark, offset - base); 
+
+        markCount++; 
+
+         
+
+        if (bucket.size == BUCKET_CAPACITY) { 
+
+            buckets.add(index + 1, bucket.splitHalf()); 
+
+            reindexBuckets(); 
+
+        } 
+
+        return position; 
+
+    } 
+
+     
+
+    // Marks at or after the insertion point move with the text, except marks 
+
+    // at the very start of the document which stay at offset 0 
+
+    public void insertUpdate(int where, int length) { 
+
+        int first = findBucket(where); 
+
+        int i = first; 
+
+        while (i < buckets.size() && (i == first || (where == 0 && buckets.get(i).offsetAt(0) == 0))) { 
+
+            MarkBucket bucket = buckets.get(i); 
+
+            int base = bucket.base(); 
+
+            for (int j = 0; j < bucket.size; j++) { 
+
+                int offset = bucket.values[j] + base; 
+
+                if (offset > where || (offset == where && where != 0)) { 
+
+                    bucket.values[j] += length; 
+
+                } 
+
+            } 
+
+            i++; 
+
+        } 
+
+        addShift(i, length); 
+
+    } 
+
+     
+
+    // Marks inside the removed range collapse onto its start. Collected marks 
+
+    // in the touched buckets are dropped here so they do not pile up there. 
+
+    public void removeUpdate(int where, int length) { 
+
+        int end = where + length; 
+
+        int i = findBucket(where + 1); 
+
+        boolean emptied = false; 
+
+        while (i < buckets.size() && buckets.get(i).offsetAt(0) <= end) { 
+
+            MarkBucket bucket = buckets.get(i); 
+
+            markCount -= bucket.dropCollected(); 
+
+            emptied |= bucket.size == 0; 
+
+             
+
+            int base = bucket.base(); 
+
+            for (int j = 0; j < bucket.size; j++) { 
+
+                int offset = bucket.values[j] + base; 
+
+                if (offset > end) { 
+
+                    bucket.values[j] -= length; 
+
+                } else if (offset > where) { 
+
+                    bucket.values[j] = where - base; 
+
+                } 
+
+            } 
+
+            i++; 
+
+        } 
+
+        addShift(i, -length); 
+
+        if (emptied) { 
+
+            removeEmptyBuckets(); 
+
+        } 
+
+    } 
+
+     
+
+    // Index of the first bucket whose last mark is at or after offset 
+
+    private int findBucket(int offset) { 
+
+        int low = 0; 
+
+        int high = buckets.size(); 
+
+        while (low < high) { 
+
+            int mid = (low + high) >>> 1; 
+
+            MarkBucket bucket = buckets.get(mid); 
+
+            if (bucket.offsetAt(bucket.size - 1) < offset) { 
+
+                low = mid + 1; 
+
+            } else { 
+
+                high = mid; 
+
+            } 
+
+        } 
+
+        return low; 
+
+    } 
+
+     
+
+    // Shift pending for a bucket from edits before it 
+
+    private int pendingShift(int bucketIndex) { 
+
+        int sum = 0; 
+
+        for (int i = bucketIndex + 1; i > 0; i -= i & -i) { 
+
+            sum += shiftTree[i]; 
+
+        } 
+
+        return sum; 
+
+    } 
+
+     
+
+    // Shifts every bucket from the given index on 
+
+    private void addShift(int fromBucket, int delta) { 
+
+        for (int i = fromBucket + 1; i < shiftTree.length; i += i & -i) { 
+
+            shiftTree[i] += delta; 
+
+        } 
+
+    } 
+
+     
+
+    private void removeEmptyBuckets() { 
+
+        for (MarkBucket bucket : buckets) { 
+
+            bucket.shift += pendingShift(bucket.index); 
+
+            bucket.index = -1; 
+
+        } 
+
+        buckets.removeIf(bucket -> bucket.size == 0); 
+
+        reindexBuckets(); 
+
+    } 
+
+     
+
+    // Moves pending shifts into the buckets after buckets were added or removed 
+
+    private void reindexBuckets() { 
+
+        for (MarkBucket bucket : buckets) { 
+
+            bucket.shift += pendingShift(bucket.index); 
+
+        } 
+
+        shiftTree = new int[Math.max(16, Integer.highestOneBit(buckets.size() + 1) * 2)]; 
+
+        for (int i = 0; i < buckets.size(); i++) { 
+
+            buckets.get(i).index = i; 
+
+        } 
+
+    } 
+
+     
+
+    // Rebuilds the buckets from the marks that are still referenced. Runs 
+
+    // after as many creations as there are marks, so it is amortized O(1). 
+
+    private void sweepCollectedMarks() { 
+
+        List<MarkBucket> live = new ArrayList<>(); 
+
+        MarkBucket current = null; 
+
+        for (MarkBucket bucket : buckets) { 
+
+            int base = bucket.base(); 
+
+            for (int j = 0; j < bucket.size; j++) { 
+
+                if (bucket.marks[j].get() == null) { 
+
+                    continue; 
+
+                } 
+
+                if (current == null || current.size == BUCKET_CAPACITY / 2) { 
+
+                    current = new MarkBucket(this); 
+
+                    live.add(current); 
+
+                } 
+
+                current.insert(current.size, bucket.marks[j], bucket.values[j] + base); 
+
+            } 
+
+        } 
+
+        buckets.clear(); 
+
+        buckets.addAll(live); 
+
+        shiftTree = new int[Math.max(16, Integer.highestOneBit(buckets.size() + 1) * 2)]; 
+
+        markCount = 0; 
+
+        for (int i = 0; i < buckets.size(); i++) { 
+
+            buckets.get(i).index = i; 
+
+            markCount += buckets.get(i).size; 
+
+        } 
+
+        createdSinceSweep = 0; 
+
+    } 
+
+     
+
+    // Mark offsets live in a primitive array so edits scan plain ints 
+
+    private static final class MarkBucket { 
+
+        final MarkList owner; 
+
+        final Mark[] marks = new Mark[BUCKET_CAPACITY]; 
+
+        final int[] values = new int[BUCKET_CAPACITY]; 
+
+        int size; 
+
+        int shift; // Added to every value in this bucket 
+
+        int index = -1; // Position in the bucket list, -1 until indexed 
+
+         
+
+        MarkBucket(MarkList owner) { 
+
+            this.owner = owner; 
+
+        } 
+
+         
+
+        int base() { 
+
+            return shift + owner.pendingShift(index); 
+
+        } 
+
+         
+
+        int offsetAt(int i) { 
+
+            return values[i] + base(); 
+
+        } 
+
+         
+
+        void insert(int at, Mark mark, int value) { 
+
+            System.arraycopy(marks, at, marks, at + 1, size - at); 
+
+            System.arraycopy(values, at, values, at + 1, size - at); 
+
+            marks[at] = mark; 
+
+            values[at] = value; 
+
+            size++; 
+
+            for (int i = at; i < size; i++) { 
+
+                marks[i].bucket = this; 
+
+                marks[i].index = i; 
+
+            } 
+
+        } 
+
+         
+
+        // Removes marks whose positions were garbage collected 
+
+        int dropCollected() { 
+
+            int kept = 0; 
+
+            for (int i = 0; i < size; i++) { 
+
+                if (marks[i].get() != null) { 
+
+                    marks[kept] = marks[i]; 
+
+                    values[kept] = values[i]; 
+
+                    marks[kept].index = kept; 
+
+                    kept++; 
+
+                } 
+
+            } 
+
+            int dropped = size - kept; 
+
+            Arrays.fill(marks, kept, size, null); 
+
+            size = kept; 
+
+            return dropped; 
+
+        } 
+
+         
+
+        MarkBucket splitHalf() { 
+
+            MarkBucket upper = new MarkBucket(owner); 
+
+            int half = size / 2; 
+
+            int base = base(); 
+
+            for (int i = half; i < size; i++) { 
+
+                upper.insert(upper.size, marks[i], values[i] + base); 
+
+                marks[i] = null; 
+
+            } 
+
+            size = half; 
+
+            return upper; 
+
+        } 
+
+    } 
+
+     
+
+    private static final class Mark extends WeakReference<Position> { 
+
+        MarkBucket bucket; 
+
+        int index; 
+
+         
+
+        Mark(Position position) { 
+
+            super(position); 
+
+        } 
+
+    } 
+
+     
+
+    private static final class StickyPosition implements Position { 
+
+        Mark mark; 
+
+         
+
+        @Override 
+
+        public int getOffset() { 
+
+            return mark.bucket.offsetAt(mark.index); 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,321 @@
+package smarteditor; 
+
+ 
+
+import java.nio.CharBuffer; 
+
+import java.util.*; 
+
+import java.util.concurrent.ExecutionException; 
+
+import java.util.concurrent.ForkJoinPool; 
+
+import java.util.concurrent.ForkJoinTask; 
+
+import java.util.function.BooleanSupplier; 
+
+import java.util.function.Consumer; 
+
+import java.util.function.LongConsumer; 
+
+import java.util.regex.Matcher; 
+
+import java.util.regex.Pattern; 
+
+ 
+
+// Searches a memory-mapped file for a pattern on every core. The file is cut 
+
+// into line-aligned chunks, which a ForkJoinPool decodes and searches a few 
+
+// chunks ahead of the caller, who receives their matches in file order as 
+
+// each chunk is done. Only the chunks being searched are in memory, so a file 
+
+// larger than the heap can be searched. A match cannot span two chunks; they 
+
+// meet between lines, except inside lines too long to find the end of. 
+
+class ParallelFileSearch { 
+
+    private static final int CHUNK_SIZE = 1024 * 1024; 
+
+    private static final int MAX_LINE_TEXT = 200; 
+
+     
+
+    private final MappedTextFile file; 
+
+    private final Pattern pattern; 
+
+    private volatile boolean stopped; 
+
+     
+
+    ParallelFileSearch(MappedTextFile file, Pattern pattern) { 
+
+        this.file = file; 
+
+        this.pattern = pattern; 
+
+    } 
+
+     
+
+    // Searches the file, passing the matches of each chunk that has any 
+
+    // in file order, and the bytes searched so far after every chunk. 
+
+    // Stops early once cancelled; returns how many matches were found. 
+
+    public long search(Consumer<List<Match>> matches, LongConsumer progress, BooleanSupplier cancelled) 
+
+            throws InterruptedException { 
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors()); 
+
+        Deque<Chunk> chunks = new ArrayDeque<>(); 
+
+        long position = 0; 
+
+        long line = 0; 
+
+        long count = 0; 
+
+        try { 
+
+            while (!cancelled.getAsBoolean() && (position < file.size() || !chunks.isEmpty())) { 
+
+                // Keep every worker busy with a chunk waiting behind it 
+
+                while (position < file.size() && chunks.size() < 2 * pool.getParallelism()) { 
+
+                    Chunk chunk = new Chunk(position, nextChunkStart(position)); 
+
+                    chunk.task = pool.submit(() -> searchChunk(chunk)); 
+
+                    chunks.add(chunk); 
+
+                    position = chunk.end; 
+
+                } 
+
+                 
+
+                Chunk chunk = chunks.remove(); 
+
+                try { 
+
+                    chunk.task.get(); 
+
+                } catch (ExecutionException e) { 
+
+                    throw new IllegalStateException("Search failed", e.getCause()); 
+
+                } 
+
+                 
+
+                // Lines were counted from the start of the chunk 
+
+                for (Match match : chunk.matches) { 
+
+                    match.line += line; 
+
+                } 
+
+                line += chunk.lines; 
+
+                count += chunk.matches.size(); 
+
+                if (!chunk.matches.isEmpty()) { 
+
+                    matches.accept(chunk.matches); 
+
+                } 
+
+                progress.accept(chunk.end); 
+
+            } 
+
+            return count; 
+
+        } finally { 
+
+            stopped = true; 
+
+            pool.shutdownNow(); 
+
+        } 
+
+    } 
+
+     
+
+    // Start of the first line after the chunk size, or of the character 
+
+    // that ends the search inside a very long line 
+
+    private long nextChunkStart(long start) { 
+
+        long end = start + CHUNK_SIZE; 
+
+        // Every chunk holds at least one byte, whatever the input looks like 
+
+        return end >= file.size() ? file.size() : Math.max(start + 1, file.lineEnd(end)); 
+
+    } 
+
+     
+
+    private void searchChunk(Chunk chunk) { 
+
+        CharBuffer text = file.decode(chunk.start, chunk.end); 
+
+        Matcher matcher = pattern.matcher(text); 
+
+        List<Match> matches = new ArrayList<>(); 
+
+        int line = 0; 
+
+        int lineStart = 0; 
+
+        int counted = 0; // Newlines are counted up to here 
+
+        while (!stopped && matcher.find()) { 
+
+            for (; counted < matcher.start(); counted++) { 
+
+                if (text.charAt(counted) == '\n') { 
+
+                    line++; 
+
+                    lineStart = counted + 1; 
+
+                } 
+
+            } 
+
+            int lineEnd = lineStart; 
+
+            while (lineEnd < text.length() && lineEnd - lineStart < MAX_LINE_TEXT && text.charAt(lineEnd) != '\n') { 
+
+                lineEnd++; 
+
+            } 
+
+            matches.add(new Match(line, matcher.start() - lineStart, matcher.end() - matcher.start(), 
+
+                text.subSequence(lineStart, lineEnd).toString())); 
+
+        } 
+
+        for (; counted < text.length(); counted++) { 
+
+            if (text.charAt(counted) == '\n') { 
+
+                line++; 
+
+            } 
+
+        } 
+
+        chunk.matches = matches; 
+
+        chunk.lines = line; 
+
+    } 
+
+     
+
+    // A match, with the start of its line's text 
+
+    static class Match { 
+
+        private long line; 
+
+        private final int column; 
+
+        private final int length; 
+
+        private final String text; 
+
+         
+
+        Match(long line, int column, int length, String text) { 
+
+            this.line = line; 
+
+            this.column = column; 
+
+            this.length = length; 
+
+            this.text = text; 
+
+        } 
+
+         
+
+        public long getLine() { 
+
+            return line; 
+
+        } 
+
+         
+
+        public int getColumn() { 
+
+            return column; 
+
+        } 
+
+         
+
+        public int getLength() { 
+
+            return length; 
+
+        } 
+
+         
+
+        @Override 
+
+        public String toString() { 
+
+            return String.format("Ln %,d, Col %,d: %s", line + 1, column + 1, text); 
+
+        } 
+
+    } 
+
+     
+
+    // A range of the file and, once searched, its matches and line count 
+
+    private static class Chunk { 
+
+        final long start; 
+
+        final long end; 
+
+        ForkJoinTask<?> task; 
+
+        List<Match> matches; 
+
+        int lines; 
+
+         
+
+        Chunk(long start, long end) { 
+
+            this.start = start; 
+
+            this.end = end; 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
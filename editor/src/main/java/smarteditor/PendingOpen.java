@@ -0,0 +1,111 @@
+package smarteditor; 
+
+ 
+
+import java.io.*; 
+
+import java.util.function.BooleanSupplier; 
+
+import java.util.function.IntConsumer; 
+
+ 
+
+// A file being opened: read, possibly on a worker, then installed with open 
+
+class PendingOpen { 
+
+    final File file; 
+
+    final TextFileReader reader; 
+
+    private final boolean journaled; 
+
+    final UndoTree history = new UndoTree(); 
+
+    PieceTableDocument document; 
+
+    UndoJournal journal; 
+
+     
+
+    PendingOpen(File file, long undoMemoryLimit, boolean interactive) { 
+
+        this.file = file; 
+
+        this.reader = new TextFileReader(file, interactive); 
+
+        this.journaled = interactive; 
+
+        history.setMemoryLimit(undoMemoryLimit); 
+
+    } 
+
+     
+
+    // Reports progress in percent, and gives up with false once cancelled 
+
+    public boolean read(IntConsumer progress, BooleanSupplier cancelled) throws IOException { 
+
+        document = reader.read(progress, cancelled); 
+
+        if (document == null) { 
+
+            return false; 
+
+        } 
+
+         
+
+        // The undo history of earlier sessions, if the file is as the last 
+
+        // save left it 
+
+        if (journaled) { 
+
+            try { 
+
+                journal = UndoJournal.open(file, history, reader.fileSize, reader.fileModified, document.getLength()); 
+
+            } catch (IOException e) { 
+
+                System.err.println("Error opening undo journal: " + e.getMessage()); 
+
+            } 
+
+        } 
+
+        return true; 
+
+    } 
+
+     
+
+    public File getFile() { 
+
+        return file; 
+
+    } 
+
+     
+
+    public int lineCount() { 
+
+        return reader.lines.lineCount(); 
+
+    } 
+
+     
+
+    // Lets go of what was read when it is not going to be opened 
+
+    public void discard() { 
+
+        if (journal != null) { 
+
+            journal.close(); 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
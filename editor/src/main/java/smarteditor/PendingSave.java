@@ -0,0 +1,59 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.text.*; 
+
+import java.io.*; 
+
+ 
+
+// A save in progress: written, possibly on a worker, then recorded with saved 
+
+class PendingSave { 
+
+    final TextFileWriter writer; 
+
+    final Document document; 
+
+    final long state; // The undo state the snapshot shows 
+
+     
+
+    PendingSave(File file, Document document, PieceTable.Snapshot snapshot, long state) { 
+
+        this.writer = new TextFileWriter(file, snapshot); 
+
+        this.document = document; 
+
+        this.state = state; 
+
+    } 
+
+     
+
+    // Returns the bytes written 
+
+    public long write() throws IOException { 
+
+        return writer.write(); 
+
+    } 
+
+     
+
+    public File getFile() { 
+
+        return writer.file; 
+
+    } 
+
+     
+
+    public boolean isInPlace() { 
+
+        return writer.inPlace; 
+
+    } 
+
+} 
\ No newline at end of file
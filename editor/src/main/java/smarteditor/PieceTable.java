@@ -0,0 +1,611 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.text.*; 
+
+import javax.swing.undo.UndoableEdit; 
+
+import java.util.*; 
+
+ 
+
+// Piece Table document content. The original text is never modified: inserted 
+
+// text is appended to an add buffer and the document is a sequence of pieces 
+
+// pointing into either buffer. The pieces form a treap ordered by document 
+
+// position, so finding, splitting and joining pieces is O(log n). Nodes are 
+
+// immutable, so an old root stays a valid snapshot. 
+
+class PieceTable implements AbstractDocument.Content { 
+
+    private static final char[] NO_TEXT = new char[0]; 
+
+     
+
+    private final Random random; 
+
+    private final MarkList marks; 
+
+    private char[] original; 
+
+    private char[] added; 
+
+    private int addedLength; 
+
+    private Piece root; 
+
+     
+
+    public PieceTable() { 
+
+        random = new Random(); 
+
+        marks = new MarkList(); 
+
+        original = NO_TEXT; 
+
+        added = new char[1024]; 
+
+         
+
+        // Like GapContent, the content always ends with an implied newline 
+
+        added[0] = '\n'; 
+
+        addedLength = 1; 
+
+        root = new Piece(true, 0, 1, random.nextInt(), null, null); 
+
+    } 
+
+     
+
+    // Places text in front of the implied newline of an empty table 
+
+    public void loadOriginal(char[] text, int length) { 
+
+        if (length() != 1) { 
+
+            throw new IllegalStateException("Content is not empty"); 
+
+        } 
+
+        original = text; 
+
+        if (length > 0) { 
+
+            root = merge(new Piece(false, 0, length, random.nextInt(), null, null), root); 
+
+            marks.insertUpdate(0, length); 
+
+        } 
+
+    } 
+
+     
+
+    @Override 
+
+    public Position createPosition(int offset) throws BadLocationException { 
+
+        if (offset < 0 || offset > length()) { 
+
+            throw new BadLocationException("Invalid position", offset); 
+
+        } 
+
+        return marks.create(offset); 
+
+    } 
+
+     
+
+    @Override 
+
+    public int length() { 
+
+        return size(root); 
+
+    } 
+
+     
+
+    @Override 
+
+    public UndoableEdit insertString(int where, String str) throws BadLocationException { 
+
+        if (where < 0 || where > length()) { 
+
+            throw new BadLocationException("Invalid insert", where); 
+
+        } 
+
+        if (str.isEmpty()) { 
+
+            return null; 
+
+        } 
+
+         
+
+        int start = addedLength; 
+
+        if (addedLength + str.length() > added.length) { 
+
+            added = Arrays.copyOf(added, Math.max(added.length * 2, addedLength + str.length())); 
+
+        } 
+
+        str.getChars(0, str.length(), added, addedLength); 
+
+        addedLength += str.length(); 
+
+         
+
+        Piece[] parts = split(root, where); 
+
+        root = merge(appendText(parts[0], start, str.length()), parts[1]); 
+
+        marks.insertUpdate(where, str.length()); 
+
+        return null; // Undo is handled by the editor's own undo engine 
+
+    } 
+
+     
+
+    @Override 
+
+    public UndoableEdit remove(int where, int nitems) throws BadLocationException { 
+
+        if (where < 0 || nitems < 0 || where + nitems >= length()) { 
+
+            throw new BadLocationException("Invalid remove", where + nitems); 
+
+        } 
+
+        if (nitems == 0) { 
+
+            return null; 
+
+        } 
+
+         
+
+        Piece[] head = split(root, where); 
+
+        Piece[] tail = split(head[1], nitems); 
+
+        root = merge(head[0], tail[1]); 
+
+        marks.removeUpdate(where, nitems); 
+
+        return null; 
+
+    } 
+
+     
+
+    @Override 
+
+    public String getString(int where, int len) throws BadLocationException { 
+
+        Segment segment = new Segment(); 
+
+        getChars(where, len, segment); 
+
+        return new String(segment.array, segment.offset, segment.count); 
+
+    } 
+
+     
+
+    @Override 
+
+    public void getChars(int where, int len, Segment txt) throws BadLocationException { 
+
+        if (where < 0 || len < 0 || where + len > length()) { 
+
+            throw new BadLocationException("Invalid location", where + len); 
+
+        } 
+
+         
+
+        // Text inside a single piece is returned without copying 
+
+        pieceText(root, original, added, where, len, txt); 
+
+        if (txt.count == len || txt.isPartialReturn()) { 
+
+            return; 
+
+        } 
+
+         
+
+        char[] text = new char[len]; 
+
+        copy(root, where, where + len, text, 0); 
+
+        txt.array = text; 
+
+        txt.offset = 0; 
+
+        txt.count = len; 
+
+    } 
+
+     
+
+    // Freezes the current content. Pieces are immutable and the buffers are 
+
+    // only ever appended to, so the snapshot stays valid while editing goes 
+
+    // on and can be read from another thread. 
+
+    public Snapshot snapshot() { 
+
+        return new Snapshot(root, original, added); 
+
+    } 
+
+     
+
+    // Points the segment at the text from where up to the end of its piece 
+
+    private static void pieceText(Piece root, char[] original, char[] added, int where, int len, Segment txt) { 
+
+        if (len == 0) { 
+
+            txt.array = NO_TEXT; 
+
+            txt.offset = 0; 
+
+            txt.count = 0; 
+
+            return; 
+
+        } 
+
+         
+
+        // Find the piece holding the first character 
+
+        Piece piece = root; 
+
+        int offset = where; 
+
+        while (true) { 
+
+            int leftSize = size(piece.left); 
+
+            if (offset < leftSize) { 
+
+                piece = piece.left; 
+
+            } else if (offset >= leftSize + piece.length) { 
+
+                offset -= leftSize + piece.length; 
+
+                piece = piece.right; 
+
+            } else { 
+
+                offset -= leftSize; 
+
+                break; 
+
+            } 
+
+        } 
+
+         
+
+        txt.array = piece.inAddBuffer ? added : original; 
+
+        txt.offset = piece.start + offset; 
+
+        txt.count = Math.min(len, piece.length - offset); 
+
+    } 
+
+     
+
+    public int pieceCount() { 
+
+        return count(root); 
+
+    } 
+
+     
+
+    private int count(Piece piece) { 
+
+        return piece == null ? 0 : 1 + count(piece.left) + count(piece.right); 
+
+    } 
+
+     
+
+    // Copies the characters [from, to) of the subtree into dest 
+
+    private void copy(Piece piece, int from, int to, char[] dest, int destOffset) { 
+
+        if (piece == null || from >= to) { 
+
+            return; 
+
+        } 
+
+        int pieceStart = size(piece.left); 
+
+        int pieceEnd = pieceStart + piece.length; 
+
+         
+
+        if (from < pieceStart) { 
+
+            copy(piece.left, from, Math.min(to, pieceStart), dest, destOffset); 
+
+        } 
+
+        int start = Math.max(from, pieceStart); 
+
+        int end = Math.min(to, pieceEnd); 
+
+        if (start < end) { 
+
+            System.arraycopy(piece.inAddBuffer ? added : original, piece.start + start - pieceStart, 
+
+                dest, destOffset + start - from, end - start); 
+
+        } 
+
+        if (to > pieceEnd) { 
+
+            int rightFrom = Math.max(from, pieceEnd); 
+
+            copy(piece.right, rightFrom - pieceEnd, to - pieceEnd, dest, destOffset + rightFrom - from); 
+
+        } 
+
+    } 
+
+     
+
+    // Adds text that was just appended to the add buffer after the last piece, 
+
+    // growing that piece instead when it ends exactly where the text starts 
+
+    private Piece appendText(Piece piece, int start, int length) { 
+
+        Piece last = piece; 
+
+        while (last != null && last.right != null) { 
+
+            last = last.right; 
+
+        } 
+
+        if (last != null && last.inAddBuffer && last.start + last.length == start) { 
+
+            return extendLast(piece, length); 
+
+        } 
+
+        return merge(piece, new Piece(true, start, length, random.nextInt(), null, null)); 
+
+    } 
+
+     
+
+    private Piece extendLast(Piece piece, int length) { 
+
+        if (piece.right == null) { 
+
+            return new Piece(piece.inAddBuffer, piece.start, piece.length + length, 
+
+                piece.priority, piece.left, null); 
+
+        } 
+
+        return piece.with(piece.left, extendLast(piece.right, length)); 
+
+    } 
+
+     
+
+    // Splits a subtree into the first offset characters and the rest 
+
+    private Piece[] split(Piece piece, int offset) { 
+
+        if (piece == null) { 
+
+            return new Piece[] {null, null}; 
+
+        } 
+
+        int leftSize = size(piece.left); 
+
+        if (offset <= leftSize) { 
+
+            Piece[] parts = split(piece.left, offset); 
+
+            return new Piece[] {parts[0], piece.with(parts[1], piece.right)}; 
+
+        } 
+
+        if (offset >= leftSize + piece.length) { 
+
+            Piece[] parts = split(piece.right, offset - leftSize - piece.length); 
+
+            return new Piece[] {piece.with(piece.left, parts[0]), parts[1]}; 
+
+        } 
+
+         
+
+        // The split point falls inside this piece 
+
+        int cut = offset - leftSize; 
+
+        Piece head = new Piece(piece.inAddBuffer, piece.start, cut, piece.priority, piece.left, null); 
+
+        Piece tail = new Piece(piece.inAddBuffer, piece.start + cut, piece.length - cut, 
+
+            random.nextInt(), null, null); 
+
+        return new Piece[] {head, merge(tail, piece.right)}; 
+
+    } 
+
+     
+
+    private Piece merge(Piece left, Piece right) { 
+
+        if (left == null) { 
+
+            return right; 
+
+        } 
+
+        if (right == null) { 
+
+            return left; 
+
+        } 
+
+        if (left.priority > right.priority) { 
+
+            return left.with(left.left, merge(left.right, right)); 
+
+        } 
+
+        return right.with(merge(left, right.left), right.right); 
+
+    } 
+
+     
+
+    private static int size(Piece piece) { 
+
+        return piece == null ? 0 : piece.size; 
+
+    } 
+
+     
+
+    public final class Snapshot { 
+
+        private final Piece root; 
+
+        private final char[] original; 
+
+        private final char[] added; 
+
+         
+
+        private Snapshot(Piece root, char[] original, char[] added) { 
+
+            this.root = root; 
+
+            this.original = original; 
+
+            this.added = added; 
+
+        } 
+
+         
+
+        // Length of the text, without the implied newline 
+
+        public int textLength() { 
+
+            return size(root) - 1; 
+
+        } 
+
+         
+
+        // Always a partial return: the segment covers the text up to the 
+
+        // end of the piece holding the first character 
+
+        public void getChars(int where, int len, Segment txt) { 
+
+            if (where < 0 || len < 0 || where + len > size(root)) { 
+
+                throw new IndexOutOfBoundsException("Invalid location " + (where + len)); 
+
+            } 
+
+            pieceText(root, original, added, where, len, txt); 
+
+        } 
+
+         
+
+        // True while the table has not been edited since the snapshot 
+
+        public boolean isCurrent() { 
+
+            return root == PieceTable.this.root; 
+
+        } 
+
+    } 
+
+     
+
+    private static final class Piece { 
+
+        final boolean inAddBuffer; 
+
+        final int start; 
+
+        final int length; 
+
+        final int priority; 
+
+        final Piece left; 
+
+        final Piece right; 
+
+        final int size; // Characters in this subtree 
+
+         
+
+        Piece(boolean inAddBuffer, int start, int length, int priority, Piece left, Piece right) { 
+
+            this.inAddBuffer = inAddBuffer; 
+
+            this.start = start; 
+
+            this.length = length; 
+
+            this.priority = priority; 
+
+            this.left = left; 
+
+            this.right = right; 
+
+            this.size = length + size(left) + size(right); 
+
+        } 
+
+         
+
+        Piece with(Piece left, Piece right) { 
+
+            return new Piece(inAddBuffer, start, length, priority, left, right); 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
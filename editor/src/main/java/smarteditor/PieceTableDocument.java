@@ -0,0 +1,73 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.event.*; 
+
+import javax.swing.text.*; 
+
+ 
+
+// The editor's document: a PlainDocument stored in a piece table 
+
+class PieceTableDocument extends PlainDocument { 
+
+    private final PieceTable pieces; 
+
+     
+
+    public PieceTableDocument() { 
+
+        this(new PieceTable()); 
+
+    } 
+
+     
+
+    private PieceTableDocument(PieceTable pieces) { 
+
+        super(pieces); 
+
+        this.pieces = pieces; 
+
+    } 
+
+     
+
+    // Loads text into this empty document. The array becomes the piece 
+
+    // table's original buffer, so the text is not copied again. 
+
+    public void load(char[] text, int length) { 
+
+        writeLock(); 
+
+        try { 
+
+            pieces.loadOriginal(text, length); 
+
+            DefaultDocumentEvent event = new DefaultDocumentEvent(0, length, DocumentEvent.EventType.INSERT); 
+
+            insertUpdate(event, null); 
+
+            event.end(); 
+
+            fireInsertUpdate(event); 
+
+        } finally { 
+
+            writeUnlock(); 
+
+        } 
+
+    } 
+
+     
+
+    public PieceTable getPieceTable() { 
+
+        return pieces; 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,203 @@
+package smarteditor; 
+
+ 
+
+import java.io.*; 
+
+import java.nio.ByteBuffer; 
+
+import java.nio.channels.FileChannel; 
+
+import java.nio.channels.FileLock; 
+
+import java.nio.channels.OverlappingFileLockException; 
+
+import java.nio.charset.StandardCharsets; 
+
+import java.nio.file.Files; 
+
+import java.nio.file.Path; 
+
+import java.nio.file.StandardOpenOption; 
+
+import java.util.*; 
+
+import java.util.stream.Stream; 
+
+ 
+
+// The file in the recovery folder that says which document has unsaved work 
+
+// in a journal: "file" and the file's path, or "untitled" and the journal's 
+
+// path. The editor that writes it keeps it locked, so a marker that can be 
+
+// locked was left by an editor that did not exit normally. 
+
+class RecoveryMarker { 
+
+    static final String SUFFIX = ".recovery"; 
+
+     
+
+    private final Path path; 
+
+    private FileChannel channel; // Open and locked while this editor's marker exists 
+
+    private String note; 
+
+     
+
+    RecoveryMarker(Path path) { 
+
+        this.path = path; 
+
+    } 
+
+     
+
+    public synchronized void write(String note) throws IOException { 
+
+        if (channel == null) { 
+
+            Files.createDirectories(path.getParent()); 
+
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, 
+
+                StandardOpenOption.WRITE); 
+
+            channel.lock(); 
+
+        } 
+
+        channel.truncate(0); 
+
+        ByteBuffer bytes = ByteBuffer.wrap(note.getBytes(StandardCharsets.UTF_8)); 
+
+        while (bytes.hasRemaining()) { 
+
+            channel.write(bytes, bytes.position()); 
+
+        } 
+
+        channel.force(true); 
+
+        this.note = note; 
+
+    } 
+
+     
+
+    public synchronized void delete() throws IOException { 
+
+        if (channel != null) { 
+
+            channel.close(); // Releases the lock 
+
+            channel = null; 
+
+        } 
+
+        Files.deleteIfExists(path); 
+
+        note = null; 
+
+    } 
+
+     
+
+    public Path getPath() { 
+
+        return path; 
+
+    } 
+
+     
+
+    public boolean isUntitled() { 
+
+        return note.startsWith("untitled\n"); 
+
+    } 
+
+     
+
+    // The file with unsaved work, or the journal of an untitled document 
+
+    public Path getTarget() { 
+
+        return Path.of(note.substring(note.indexOf('\n') + 1)); 
+
+    } 
+
+     
+
+    // Markers left by editors that are no longer running, newest first 
+
+    public static List<RecoveryMarker> findAbandoned(Path directory) throws IOException { 
+
+        List<Path> paths = new ArrayList<>(); 
+
+        if (Files.isDirectory(directory)) { 
+
+            try (Stream<Path> files = Files.list(directory)) { 
+
+                files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).forEach(paths::add); 
+
+            } 
+
+        } 
+
+         
+
+        List<RecoveryMarker> markers = new ArrayList<>(); 
+
+        for (Path path : paths) { 
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) { 
+
+                FileLock lock = channel.tryLock(); 
+
+                if (lock == null) { 
+
+                    continue; // Another editor is running with it 
+
+                } 
+
+                ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(channel.size(), 64 * 1024)); 
+
+                while (bytes.hasRemaining() && channel.read(bytes, bytes.position()) > 0) { 
+
+                    // Read the whole note 
+
+                } 
+
+                lock.release(); 
+
+                RecoveryMarker marker = new RecoveryMarker(path); 
+
+                marker.note = new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8); 
+
+                if (marker.note.indexOf('\n') > 0) { 
+
+                    markers.add(marker); 
+
+                } 
+
+            } catch (OverlappingFileLockException e) { 
+
+                // This editor's own marker 
+
+            } 
+
+        } 
+
+        markers.sort(Comparator.comparingLong((RecoveryMarker marker) -> marker.path.toFile().lastModified()) 
+
+            .reversed()); 
+
+        return markers; 
+
+    } 
+
+} 
\ No newline at end of file
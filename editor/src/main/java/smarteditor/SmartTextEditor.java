@@ -0,0 +1,3119 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.*; 
+
+import javax.swing.event.*; 
+
+import javax.swing.Timer; 
+
+import javax.swing.text.*; 
+
+import java.awt.*; 
+
+import java.awt.event.*; 
+
+import java.io.*; 
+
+import java.nio.CharBuffer; 
+
+import java.nio.file.Files; 
+
+import java.nio.file.Path; 
+
+import java.util.*; 
+
+import java.util.List; 
+
+import java.util.concurrent.CancellationException; 
+
+import java.util.concurrent.ExecutionException; 
+
+import java.util.regex.Pattern; 
+
+import java.util.regex.PatternSyntaxException; 
+
+import smarteditor.ParallelFileSearch.Match; 
+
+ 
+
+// The editor's window: a thin Swing view over an EditorCore, which holds the 
+
+// document, undo tree, dictionary and file handling 
+
+public class SmartTextEditor extends JFrame { 
+
+    // Core data structures 
+
+    private final EditorCore core; 
+
+     
+
+    // GUI Components 
+
+    private JTextArea textArea; 
+
+    private JList<String> suggestionList; 
+
+    private JLabel statusLabel; 
+
+    private JLabel caretLabel; 
+
+    private DefaultListModel<String> suggestionModel; 
+
+    private javax.swing.Timer typingTimer; 
+
+    private boolean fuzzySuggestions; // Typo-tolerant instead of exact prefix matches 
+
+     
+
+    // Find bar above the text, shown by Edit > Find... or Replace... 
+
+    private JPanel findBar; 
+
+    private JTextField findField; 
+
+    private JTextField replaceField; 
+
+    private JCheckBox matchCaseBox; 
+
+    private JCheckBox regexBox; 
+
+    private JButton replaceButton; 
+
+    private JButton replaceAllButton; 
+
+    private JButton findAllButton; 
+
+    private JLabel findStatusLabel; 
+
+     
+
+    // Matches of a search through a whole large file, listed below the text 
+
+    private static final int MAX_FILE_MATCHES = 100000; 
+
+    private JPanel fileMatchesPanel; 
+
+    private JList<Match> fileMatchesList; 
+
+    private DefaultListModel<Match> fileMatchesModel; 
+
+    private JLabel fileMatchesLabel; 
+
+    private JButton fileMatchesButton; 
+
+    private SwingWorker<?, ?> searchWorker; 
+
+     
+
+    // File handling 
+
+    private JFileChooser fileChooser; 
+
+     
+
+    // Large files are memory-mapped and shown one window at a time 
+
+    private static final int LARGE_FILE_WINDOW = 512 * 1024; 
+
+    private static final int LARGE_FILE_SCROLL_UNITS = 100000; 
+
+    private MappedTextFile largeFile; 
+
+    private File largeFileSource; 
+
+    private JScrollBar largeFileScrollBar; 
+
+    private long largeFileWindowStart; 
+
+    private long largeFileWindowEnd; 
+
+    private boolean isPagingLargeFile; 
+
+     
+
+    // Byte offset of every line of a large file. Null while it is still 
+
+    // being built. 
+
+    private LineIndex largeFileLines; 
+
+    private SwingWorker<?, ?> fileWorker; 
+
+    private SwingWorker<?, ?> saveWorker; 
+
+    private Runnable queuedSave; // Saves asked for while one was running 
+
+    private SwingWorker<?, ?> wordWorker; 
+
+     
+
+    // Every few seconds, unsaved work is brought up to date in the recovery 
+
+    // folder, so a burst of edits costs one small write however long it is 
+
+    private static final int AUTOSAVE_INTERVAL = 5000; // Milliseconds 
+
+    private javax.swing.Timer autosaveTimer; 
+
+     
+
+    public SmartTextEditor() { 
+
+        // Initialize data structures 
+
+        core = new EditorCore(); 
+
+        fileChooser = new JFileChooser(); 
+
+        fileChooser.setFileFilter(new javax.swing.filechooser.FileFilter() { 
+
+            @Override 
+
+            public boolean accept(File f) { 
+
+                return f.isDirectory() || f.getName().toLowerCase().endsWith(".txt") ||  
+
+                       f.getName().toLowerCase().endsWith(".java"); 
+
+            } 
+
+             
+
+            @Override 
+
+            public String getDescription() { 
+
+                return "Text Files (*.txt) or Java Files (*.java)"; 
+
+            } 
+
+        }); 
+
+         
+
+        // Set up the frame 
+
+        setTitle("Smart Text Editor"); 
+
+        setSize(800, 600); 
+
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE); 
+
+        addWindowListener(new WindowAdapter() { 
+
+            @Override 
+
+            public void windowClosing(WindowEvent e) { 
+
+                exitApplication(); 
+
+            } 
+
+        }); 
+
+         
+
+        // Create components 
+
+        setupUI(); 
+
+         
+
+        // Register keyboard shortcuts 
+
+        setupKeyboardShortcuts(); 
+
+         
+
+        // Show the frame 
+
+        setLocationRelativeTo(null); 
+
+        setVisible(true); 
+
+         
+
+        autosaveTimer = new javax.swing.Timer(AUTOSAVE_INTERVAL, e -> core.autosave()); 
+
+        autosaveTimer.start(); 
+
+        SwingUtilities.invokeLater(this::offerRecovery); 
+
+    } 
+
+     
+
+    private void setupUI() { 
+
+        // Main text area 
+
+        textArea = new JTextArea(); 
+
+        textArea.setFont(new Font("Monospaced", Font.PLAIN, 14)); 
+
+        textArea.setLineWrap(true); 
+
+        textArea.setWrapStyleWord(true); 
+
+        JScrollPane scrollPane = new JScrollPane(textArea); 
+
+         
+
+        // Position in a large file; hidden unless one is open 
+
+        largeFileScrollBar = new JScrollBar(JScrollBar.VERTICAL, 0, 1, 0, LARGE_FILE_SCROLL_UNITS); 
+
+        largeFileScrollBar.setVisible(false); 
+
+        largeFileScrollBar.addAdjustmentListener(e -> { 
+
+            if (!isPagingLargeFile && !e.getValueIsAdjusting() && largeFile != null) { 
+
+                showLargeFileWindow(largeFile.size() * e.getValue() / LARGE_FILE_SCROLL_UNITS); 
+
+            } 
+
+        }); 
+
+        JPanel editorPanel = new JPanel(new BorderLayout()); 
+
+        editorPanel.add(createFindBar(), BorderLayout.NORTH); 
+
+        editorPanel.add(scrollPane, BorderLayout.CENTER); 
+
+        editorPanel.add(largeFileScrollBar, BorderLayout.EAST); 
+
+        editorPanel.add(createFileMatchesPanel(), BorderLayout.SOUTH); 
+
+         
+
+        // Suggestions panel 
+
+        suggestionModel = new DefaultListModel<>(); 
+
+        suggestionList = new JList<>(suggestionModel); 
+
+        suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION); 
+
+        JScrollPane suggestionScrollPane = new JScrollPane(suggestionList); 
+
+        suggestionScrollPane.setPreferredSize(new Dimension(150, 0)); 
+
+         
+
+        // Status bar 
+
+        statusLabel = new JLabel("Ready"); 
+
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10)); 
+
+        caretLabel = new JLabel("Ln 1, Col 1"); 
+
+        caretLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10)); 
+
+        JPanel statusPanel = new JPanel(new BorderLayout()); 
+
+        statusPanel.add(statusLabel, BorderLayout.CENTER); 
+
+        statusPanel.add(caretLabel, BorderLayout.EAST); 
+
+         
+
+        // Create split pane for main area and suggestions 
+
+        JSplitPane splitPane = new JSplitPane( 
+
+                JSplitPane.HORIZONTAL_SPLIT, 
+
+                editorPanel, 
+
+                suggestionScrollPane 
+
+        ); 
+
+        splitPane.setResizeWeight(0.8); 
+
+         
+
+        // Main content panel 
+
+        JPanel contentPanel = new JPanel(new BorderLayout()); 
+
+        contentPanel.add(splitPane, BorderLayout.CENTER); 
+
+        contentPanel.add(statusPanel, BorderLayout.SOUTH); 
+
+         
+
+        // Add to frame 
+
+        setContentPane(contentPanel); 
+
+         
+
+        // Create menu bar 
+
+        createMenuBar(); 
+
+         
+
+        // Setup listeners 
+
+        setupListeners(); 
+
+         
+
+        // Typing timer for auto-suggestions 
+
+        // (also closes the current edit group after the same idle time) 
+
+        typingTimer = new javax.swing.Timer(300, e -> { 
+
+            closeEditGroup(); 
+
+            updateSuggestions(); 
+
+        }); 
+
+        typingTimer.setRepeats(false); 
+
+    } 
+
+     
+
+    private JPanel createFindBar() { 
+
+        findField = new JTextField(20); 
+
+        replaceField = new JTextField(20); 
+
+        matchCaseBox = new JCheckBox("Match Case"); 
+
+        regexBox = new JCheckBox("Regex"); 
+
+        JButton previousButton = new JButton("Previous"); 
+
+        JButton nextButton = new JButton("Next"); 
+
+        findAllButton = new JButton("Find All"); 
+
+        replaceButton = new JButton("Replace"); 
+
+        replaceAllButton = new JButton("Replace All"); 
+
+        JButton closeButton = new JButton("Close"); 
+
+        findStatusLabel = new JLabel(); 
+
+         
+
+        // Search as you type 
+
+        findField.getDocument().addDocumentListener(new DocumentListener() { 
+
+            @Override 
+
+            public void insertUpdate(DocumentEvent e) { 
+
+                searchIncremental(); 
+
+            } 
+
+             
+
+            @Override 
+
+            public void removeUpdate(DocumentEvent e) { 
+
+                searchIncremental(); 
+
+            } 
+
+             
+
+            @Override 
+
+            public void changedUpdate(DocumentEvent e) { 
+
+            } 
+
+        }); 
+
+        matchCaseBox.addActionListener(e -> searchIncremental()); 
+
+        regexBox.addActionListener(e -> searchIncremental()); 
+
+         
+
+        // Enter finds the next match, Shift+Enter the previous one, and Enter 
+
+        // in the replace field replaces the current one 
+
+        findField.addActionListener(e -> findNext(true)); 
+
+        findField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, InputEvent.SHIFT_DOWN_MASK), "findPrevious"); 
+
+        findField.getActionMap().put("findPrevious", new AbstractAction() { 
+
+            @Override 
+
+            public void actionPerformed(ActionEvent e) { 
+
+                findNext(false); 
+
+            } 
+
+        }); 
+
+        replaceField.addActionListener(e -> replaceMatch()); 
+
+        previousButton.addActionListener(e -> findNext(false)); 
+
+        nextButton.addActionListener(e -> findNext(true)); 
+
+        findAllButton.addActionListener(e -> findAllInFile()); 
+
+        replaceButton.addActionListener(e -> replaceMatch()); 
+
+        replaceAllButton.addActionListener(e -> replaceAll()); 
+
+        closeButton.addActionListener(e -> hideFindBar()); 
+
+         
+
+        findBar = new JPanel(new FlowLayout(FlowLayout.LEFT)); 
+
+        findBar.add(new JLabel("Find:")); 
+
+        findBar.add(findField); 
+
+        findBar.add(new JLabel("Replace:")); 
+
+        findBar.add(replaceField); 
+
+        findBar.add(matchCaseBox); 
+
+        findBar.add(regexBox); 
+
+        findBar.add(previousButton); 
+
+        findBar.add(nextButton); 
+
+        findBar.add(findAllButton); 
+
+        findBar.add(replaceButton); 
+
+        findBar.add(replaceAllButton); 
+
+        findBar.add(closeButton); 
+
+        findBar.add(findStatusLabel); 
+
+        findBar.setVisible(false); 
+
+        updateFindBar(); 
+
+         
+
+        // Escape closes the bar from any of its fields 
+
+        findBar.getInputMap(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT) 
+
+            .put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), "closeFindBar"); 
+
+        findBar.getActionMap().put("closeFindBar", new AbstractAction() { 
+
+            @Override 
+
+            public void actionPerformed(ActionEvent e) { 
+
+                hideFindBar(); 
+
+            } 
+
+        }); 
+
+        return findBar; 
+
+    } 
+
+     
+
+    private JPanel createFileMatchesPanel() { 
+
+        fileMatchesModel = new DefaultListModel<>(); 
+
+        fileMatchesList = new JList<>(fileMatchesModel); 
+
+        fileMatchesList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION); 
+
+        fileMatchesList.setFont(new Font("Monospaced", Font.PLAIN, 12)); 
+
+         
+
+        // Fixed cells, so a long list is not measured entry by entry 
+
+        FontMetrics metrics = fileMatchesList.getFontMetrics(fileMatchesList.getFont()); 
+
+        fileMatchesList.setFixedCellHeight(metrics.getHeight() + 2); 
+
+        fileMatchesList.setFixedCellWidth(metrics.charWidth('m') * 240); 
+
+        fileMatchesList.addListSelectionListener(e -> { 
+
+            if (!e.getValueIsAdjusting() && fileMatchesList.getSelectedValue() != null) { 
+
+                showFileMatch(fileMatchesList.getSelectedValue()); 
+
+            } 
+
+        }); 
+
+         
+
+        // Stops the search while it runs, then closes the list 
+
+        fileMatchesButton = new JButton("Stop"); 
+
+        fileMatchesButton.addActionListener(e -> { 
+
+            if (searchWorker != null) { 
+
+                searchWorker.cancel(true); 
+
+            } else { 
+
+                fileMatchesPanel.setVisible(false); 
+
+                fileMatchesPanel.getParent().revalidate(); 
+
+            } 
+
+        }); 
+
+         
+
+        fileMatchesLabel = new JLabel(); 
+
+        fileMatchesLabel.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 10)); 
+
+        JPanel headerPanel = new JPanel(new BorderLayout()); 
+
+        headerPanel.add(fileMatchesLabel, BorderLayout.CENTER); 
+
+        headerPanel.add(fileMatchesButton, BorderLayout.EAST); 
+
+         
+
+        fileMatchesPanel = new JPanel(new BorderLayout()); 
+
+        fileMatchesPanel.add(headerPanel, BorderLayout.NORTH); 
+
+        fileMatchesPanel.add(new JScrollPane(fileMatchesList), BorderLayout.CENTER); 
+
+        fileMatchesPanel.setPreferredSize(new Dimension(0, 160)); 
+
+        fileMatchesPanel.setVisible(false); 
+
+        return fileMatchesPanel; 
+
+    } 
+
+     
+
+    private void createMenuBar() { 
+
+        JMenuBar menuBar = new JMenuBar(); 
+
+         
+
+        // File menu 
+
+        JMenu fileMenu = new JMenu("File"); 
+
+         
+
+        JMenuItem newMenuItem = new JMenuItem("New"); 
+
+        newMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_N, InputEvent.CTRL_DOWN_MASK)); 
+
+        newMenuItem.addActionListener(e -> newFile()); 
+
+        fileMenu.add(newMenuItem); 
+
+         
+
+        JMenuItem openMenuItem = new JMenuItem("Open"); 
+
+        openMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_O, InputEvent.CTRL_DOWN_MASK)); 
+
+        openMenuItem.addActionListener(e -> openFile()); 
+
+        fileMenu.add(openMenuItem); 
+
+         
+
+        JMenuItem saveMenuItem = new JMenuItem("Save"); 
+
+        saveMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_S, InputEvent.CTRL_DOWN_MASK)); 
+
+        saveMenuItem.addActionListener(e -> saveFile(false)); 
+
+        fileMenu.add(saveMenuItem); 
+
+         
+
+        JMenuItem saveAsMenuItem = new JMenuItem("Save As..."); 
+
+        saveAsMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_S,  
+
+                InputEvent.CTRL_DOWN_MASK | InputEvent.SHIFT_DOWN_MASK)); 
+
+        saveAsMenuItem.addActionListener(e -> saveFile(true)); 
+
+        fileMenu.add(saveAsMenuItem); 
+
+         
+
+        fileMenu.addSeparator(); 
+
+         
+
+        JMenuItem exitMenuItem = new JMenuItem("Exit"); 
+
+        exitMenuItem.addActionListener(e -> exitApplication()); 
+
+        fileMenu.add(exitMenuItem); 
+
+         
+
+        // Edit menu 
+
+        JMenu editMenu = new JMenu("Edit"); 
+
+         
+
+        JMenuItem undoMenuItem = new JMenuItem("Undo"); 
+
+        undoMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK)); 
+
+        undoMenuItem.addActionListener(e -> undo()); 
+
+        editMenu.add(undoMenuItem); 
+
+         
+
+        JMenuItem redoMenuItem = new JMenuItem("Redo"); 
+
+        redoMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK)); 
+
+        redoMenuItem.addActionListener(e -> redo()); 
+
+        editMenu.add(redoMenuItem); 
+
+         
+
+        JMenuItem undoLimitMenuItem = new JMenuItem("Undo Memory Limit..."); 
+
+        undoLimitMenuItem.addActionListener(e -> configureUndoMemoryLimit()); 
+
+        editMenu.add(undoLimitMenuItem); 
+
+         
+
+        editMenu.addSeparator(); 
+
+         
+
+        JMenuItem cutMenuItem = new JMenuItem("Cut"); 
+
+        cutMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_X, InputEvent.CTRL_DOWN_MASK)); 
+
+        cutMenuItem.addActionListener(e -> textArea.cut()); 
+
+        editMenu.add(cutMenuItem); 
+
+         
+
+        JMenuItem copyMenuItem = new JMenuItem("Copy"); 
+
+        copyMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_C, InputEvent.CTRL_DOWN_MASK)); 
+
+        copyMenuItem.addActionListener(e -> textArea.copy()); 
+
+        editMenu.add(copyMenuItem); 
+
+         
+
+        JMenuItem pasteMenuItem = new JMenuItem("Paste"); 
+
+        pasteMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_V, InputEvent.CTRL_DOWN_MASK)); 
+
+        pasteMenuItem.addActionListener(e -> textArea.paste()); 
+
+        editMenu.add(pasteMenuItem); 
+
+         
+
+        JMenuItem selectAllMenuItem = new JMenuItem("Select All"); 
+
+        selectAllMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_A, InputEvent.CTRL_DOWN_MASK)); 
+
+        selectAllMenuItem.addActionListener(e -> textArea.selectAll()); 
+
+        editMenu.add(selectAllMenuItem); 
+
+         
+
+        editMenu.addSeparator(); 
+
+         
+
+        JMenuItem findMenuItem = new JMenuItem("Find..."); 
+
+        findMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F, InputEvent.CTRL_DOWN_MASK)); 
+
+        findMenuItem.addActionListener(e -> showFindBar(false)); 
+
+        editMenu.add(findMenuItem); 
+
+         
+
+        JMenuItem replaceMenuItem = new JMenuItem("Replace..."); 
+
+        replaceMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_H, InputEvent.CTRL_DOWN_MASK)); 
+
+        replaceMenuItem.addActionListener(e -> showFindBar(true)); 
+
+        editMenu.add(replaceMenuItem); 
+
+         
+
+        JMenuItem findNextMenuItem = new JMenuItem("Find Next"); 
+
+        findNextMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0)); 
+
+        findNextMenuItem.addActionListener(e -> findNext(true)); 
+
+        editMenu.add(findNextMenuItem); 
+
+         
+
+        JMenuItem findPreviousMenuItem = new JMenuItem("Find Previous"); 
+
+        findPreviousMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F3, InputEvent.SHIFT_DOWN_MASK)); 
+
+        findPreviousMenuItem.addActionListener(e -> findNext(false)); 
+
+        editMenu.add(findPreviousMenuItem); 
+
+         
+
+        JMenuItem goToLineMenuItem = new JMenuItem("Go to Line..."); 
+
+        goToLineMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_G, InputEvent.CTRL_DOWN_MASK)); 
+
+        goToLineMenuItem.addActionListener(e -> goToLine()); 
+
+        editMenu.add(goToLineMenuItem); 
+
+         
+
+        // Suggestions menu 
+
+        JMenu suggestionsMenu = new JMenu("Suggestions"); 
+
+        ButtonGroup suggestionModeGroup = new ButtonGroup(); 
+
+         
+
+        JRadioButtonMenuItem prefixMenuItem = new JRadioButtonMenuItem("Prefix Matches", true); 
+
+        prefixMenuItem.addActionListener(e -> setFuzzySuggestions(false)); 
+
+        suggestionModeGroup.add(prefixMenuItem); 
+
+        suggestionsMenu.add(prefixMenuItem); 
+
+         
+
+        JRadioButtonMenuItem fuzzyMenuItem = new JRadioButtonMenuItem("Fuzzy Matches (Allow Typos)"); 
+
+        fuzzyMenuItem.addActionListener(e -> setFuzzySuggestions(true)); 
+
+        suggestionModeGroup.add(fuzzyMenuItem); 
+
+        suggestionsMenu.add(fuzzyMenuItem); 
+
+         
+
+        suggestionsMenu.addSeparator(); 
+
+         
+
+        JMenuItem loadWordsMenuItem = new JMenuItem("Load Words..."); 
+
+        loadWordsMenuItem.addActionListener(e -> loadWords()); 
+
+        suggestionsMenu.add(loadWordsMenuItem); 
+
+         
+
+        // History menu 
+
+        JMenu historyMenu = new JMenu("History"); 
+
+         
+
+        JMenuItem previousEditMenuItem = new JMenuItem("Previous Edit"); 
+
+        previousEditMenuItem.addActionListener(e -> navigateToEdit(false)); 
+
+        historyMenu.add(previousEditMenuItem); 
+
+         
+
+        JMenuItem nextEditMenuItem = new JMenuItem("Next Edit"); 
+
+        nextEditMenuItem.addActionListener(e -> navigateToEdit(true)); 
+
+        historyMenu.add(nextEditMenuItem); 
+
+         
+
+        historyMenu.addSeparator(); 
+
+         
+
+        JMenuItem previousBranchMenuItem = new JMenuItem("Previous Branch"); 
+
+        previousBranchMenuItem.addActionListener(e -> switchBranch(false)); 
+
+        historyMenu.add(previousBranchMenuItem); 
+
+         
+
+        JMenuItem nextBranchMenuItem = new JMenuItem("Next Branch"); 
+
+        nextBranchMenuItem.addActionListener(e -> switchBranch(true)); 
+
+        historyMenu.add(nextBranchMenuItem); 
+
+         
+
+        // Add menus to menu bar 
+
+        menuBar.add(fileMenu); 
+
+        menuBar.add(editMenu); 
+
+        menuBar.add(suggestionsMenu); 
+
+        menuBar.add(historyMenu); 
+
+         
+
+        setJMenuBar(menuBar); 
+
+    } 
+
+     
+
+    private void setupListeners() { 
+
+        // The core's document, whose changes it captures as edit deltas 
+
+        textArea.setDocument(core.getDocument()); 
+
+        core.setEditListener(edit -> { 
+
+            // Reset the typing timer 
+
+            if (typingTimer.isRunning()) { 
+
+                typingTimer.restart(); 
+
+            } else { 
+
+                typingTimer.start(); 
+
+            } 
+
+            updateStatusBar(); 
+
+            updateTitle(); 
+
+        }); 
+
+         
+
+        // Caret jumps end the current typing run 
+
+        textArea.addCaretListener(e -> { 
+
+            UndoTree undoTree = core.getUndoTree(); 
+
+            if (!core.isApplyingEdit() && undoTree.isGroupOpen() && e.getDot() != undoTree.getGroupEnd()) { 
+
+                closeEditGroup(); 
+
+            } 
+
+            updateCaretPosition(); 
+
+        }); 
+
+         
+
+        // Suggestion list selection 
+
+        suggestionList.addListSelectionListener(e -> { 
+
+            if (!e.getValueIsAdjusting() && suggestionList.getSelectedIndex() != -1) { 
+
+                applySuggestion(suggestionList.getSelectedValue()); 
+
+            } 
+
+        }); 
+
+    } 
+
+     
+
+    private void setupKeyboardShortcuts() { 
+
+        InputMap inputMap = textArea.getInputMap(JComponent.WHEN_FOCUSED); 
+
+        ActionMap actionMap = textArea.getActionMap(); 
+
+         
+
+        // Undo - Ctrl+Z 
+
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK), "undo"); 
+
+        actionMap.put("undo", new AbstractAction() { 
+
+            @Override 
+
+            public void actionPerformed(ActionEvent e) { 
+
+                undo(); 
+
+            } 
+
+        }); 
+
+         
+
+        // Redo - Ctrl+Y 
+
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK), "redo"); 
+
+        actionMap.put("redo", new AbstractAction() { 
+
+            @Override 
+
+            public void actionPerformed(ActionEvent e) { 
+
+                redo(); 
+
+            } 
+
+        }); 
+
+         
+
+        // Replace - Ctrl+H, which the text area would otherwise take as Backspace 
+
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_H, InputEvent.CTRL_DOWN_MASK), "replace"); 
+
+        actionMap.put("replace", new AbstractAction() { 
+
+            @Override 
+
+            public void actionPerformed(ActionEvent e) { 
+
+                showFindBar(true); 
+
+            } 
+
+        }); 
+
+         
+
+        // Next/previous window of a large file - Ctrl+PageDown / Ctrl+PageUp 
+
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_PAGE_DOWN, InputEvent.CTRL_DOWN_MASK), "nextWindow"); 
+
+        actionMap.put("nextWindow", new AbstractAction() { 
+
+            @Override 
+
+            public void actionPerformed(ActionEvent e) { 
+
+                pageLargeFile(true); 
+
+            } 
+
+        }); 
+
+         
+
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_PAGE_UP, InputEvent.CTRL_DOWN_MASK), "previousWindow"); 
+
+        actionMap.put("previousWindow", new AbstractAction() { 
+
+            @Override 
+
+            public void actionPerformed(ActionEvent e) { 
+
+                pageLargeFile(false); 
+
+            } 
+
+        }); 
+
+    } 
+
+     
+
+    private void updateSuggestions() { 
+
+        try { 
+
+            // Find the word being typed 
+
+            int caretPosition = textArea.getCaretPosition(); 
+
+             
+
+            if (caretPosition == 0 || largeFile != null) { 
+
+                clearSuggestions(); 
+
+                return; 
+
+            } 
+
+             
+
+            // Find the start of the current word 
+
+            int start = core.wordStart(caretPosition); 
+
+             
+
+            // Extract the current prefix 
+
+            if (start < caretPosition) { 
+
+                String prefix = core.getDocument().getText(start, caretPosition - start); 
+
+                 
+
+                if (prefix.length() >= 2) { // Only suggest for 2+ characters 
+
+                    core.suggest(prefix, fuzzySuggestions, (suggestions, request) -> 
+
+                        SwingUtilities.invokeLater(() -> { 
+
+                            // Only the latest request reaches the list 
+
+                            if (core.isLatestSuggestion(request)) { 
+
+                                suggestionModel.clear(); 
+
+                                suggestionModel.addAll(suggestions); 
+
+                            } 
+
+                        })); 
+
+                } else { 
+
+                    clearSuggestions(); 
+
+                } 
+
+            } else { 
+
+                clearSuggestions(); 
+
+            } 
+
+        } catch (Exception e) { 
+
+            System.err.println("Error updating suggestions: " + e.getMessage()); 
+
+            clearSuggestions(); 
+
+        } 
+
+    } 
+
+     
+
+    // Any lookup still queued or running is now out of date 
+
+    private void clearSuggestions() { 
+
+        core.cancelSuggestions(); 
+
+        suggestionModel.clear(); 
+
+    } 
+
+     
+
+    private void setFuzzySuggestions(boolean fuzzy) { 
+
+        fuzzySuggestions = fuzzy; 
+
+        updateSuggestions(); 
+
+    } 
+
+     
+
+    private void loadWords() { 
+
+        JFileChooser chooser = new JFileChooser(); 
+
+        chooser.setDialogTitle("Load Words from Word Lists or Source Folders"); 
+
+        chooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES); 
+
+        chooser.setMultiSelectionEnabled(true); 
+
+         
+
+        if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) { 
+
+            List<Path> sources = new ArrayList<>(); 
+
+            for (File file : chooser.getSelectedFiles()) { 
+
+                sources.add(file.toPath()); 
+
+            } 
+
+            loadWords(sources); 
+
+        } 
+
+    } 
+
+     
+
+    // Adds the words of word lists and of every .java file under folders to 
+
+    // the dictionary in the background, reporting progress in the status bar 
+
+    public void loadWords(List<Path> sources) { 
+
+        if (wordWorker != null) { 
+
+            wordWorker.cancel(true); 
+
+        } 
+
+        WordLoader loader = new WordLoader(sources); 
+
+        wordWorker = loader; 
+
+        loader.execute(); 
+
+    } 
+
+     
+
+    private void applySuggestion(String suggestion) { 
+
+        try { 
+
+            // Find the word being replaced 
+
+            int caretPosition = textArea.getCaretPosition(); 
+
+            int start = core.wordStart(caretPosition); 
+
+             
+
+            // Replace the prefix with the suggestion in one edit, which is 
+
+            // its own undo step rather than part of the typing before it 
+
+            if (start < caretPosition) { 
+
+                core.closeEditGroup(); 
+
+                ((AbstractDocument) textArea.getDocument()).replace(start, caretPosition - start, suggestion, null); 
+
+                core.closeEditGroup(); 
+
+                 
+
+                // Clear suggestions 
+
+                suggestionModel.clear(); 
+
+            } 
+
+        } catch (Exception e) { 
+
+            System.err.println("Error applying suggestion: " + e.getMessage()); 
+
+        } 
+
+    } 
+
+     
+
+    private void closeEditGroup() { 
+
+        if (core.closeEditGroup()) { 
+
+            updateStatusBar(); 
+
+        } 
+
+    } 
+
+     
+
+    private void undo() { 
+
+        TextEdit edit = core.undo(); 
+
+        if (edit != null) { 
+
+            textArea.setCaretPosition(edit.offset + edit.removed.length()); 
+
+            updateStatusBar(); 
+
+            updateTitle(); 
+
+        } 
+
+    } 
+
+     
+
+    private void redo() { 
+
+        TextEdit edit = core.redo(); 
+
+        if (edit != null) { 
+
+            textArea.setCaretPosition(edit.offset + edit.inserted.length()); 
+
+            updateStatusBar(); 
+
+            updateTitle(); 
+
+        } 
+
+    } 
+
+     
+
+    private void configureUndoMemoryLimit() { 
+
+        String input = JOptionPane.showInputDialog(this, 
+
+            "Maximum memory for undo history (MB):", 
+
+            String.valueOf(core.getUndoTree().getMemoryLimit() / (1024 * 1024))); 
+
+         
+
+        if (input != null) { 
+
+            try { 
+
+                long megabytes = Long.parseLong(input.trim()); 
+
+                if (megabytes <= 0) { 
+
+                    throw new NumberFormatException(); 
+
+                } 
+
+                core.getUndoTree().setMemoryLimit(megabytes * 1024 * 1024); 
+
+                updateStatusBar(); 
+
+            } catch (NumberFormatException e) { 
+
+                JOptionPane.showMessageDialog(this, 
+
+                    "Please enter a positive number of megabytes.", 
+
+                    "Invalid Limit", JOptionPane.ERROR_MESSAGE); 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    // Moves to the state created before or after the current one 
+
+    private void navigateToEdit(boolean forward) { 
+
+        showPath(core.navigateToEdit(forward)); 
+
+    } 
+
+     
+
+    // Moves to the latest state of another branch at the closest fork 
+
+    private void switchBranch(boolean forward) { 
+
+        showPath(core.switchBranch(forward)); 
+
+    } 
+
+     
+
+    // Puts the caret after the last of the edits that led to the new state 
+
+    private void showPath(List<TextEdit> edits) { 
+
+        if (edits.isEmpty()) { 
+
+            return; 
+
+        } 
+
+        TextEdit last = edits.get(edits.size() - 1); 
+
+        textArea.setCaretPosition(last.offset + last.inserted.length()); 
+
+        updateStatusBar(); 
+
+        updateTitle(); 
+
+    } 
+
+     
+
+    private void updateStatusBar() { 
+
+        UndoTree undoTree = core.getUndoTree(); 
+
+        int undoAvailable = undoTree.undoCount(); 
+
+        int redoAvailable = undoTree.redoCount(); 
+
+        int totalEdits = undoTree.size(); 
+
+        int currentEdit = undoTree.getCurrentPosition() + 1; 
+
+         
+
+        statusLabel.setText(String.format("Edits: %d/%d | Undo: %d | Redo: %d | Branches: %d | Undo memory: %s", 
+
+            currentEdit, totalEdits, undoAvailable, redoAvailable, undoTree.branchCount(), 
+
+            EditorCore.formatBytes(undoTree.getMemoryUsage()))); 
+
+    } 
+
+     
+
+    private void updateCaretPosition() { 
+
+        int caret = textArea.getCaretPosition(); 
+
+        try { 
+
+            if (largeFile == null) { 
+
+                LineIndex lineIndex = core.getLineIndex(); 
+
+                int line = lineIndex.lineOf(caret); 
+
+                caretLabel.setText(String.format("Ln %,d, Col %,d", line + 1, caret - lineIndex.lineStart(line) + 1)); 
+
+            } else { 
+
+                // Lines inside the window come from the text area; the index 
+
+                // only places the window in the file 
+
+                int line = textArea.getLineOfOffset(caret); 
+
+                int column = caret - textArea.getLineStartOffset(line); 
+
+                caretLabel.setText(largeFileLines == null 
+
+                    ? String.format("Ln ?, Col %,d", column + 1) 
+
+                    : String.format("Ln %,d, Col %,d", largeFileLines.lineOf(largeFileWindowStart) + line + 1, column + 1)); 
+
+            } 
+
+        } catch (BadLocationException e) { 
+
+            caretLabel.setText(""); 
+
+        } 
+
+    } 
+
+     
+
+    private void goToLine() { 
+
+        LineIndex lineIndex = largeFile == null ? core.getLineIndex() : largeFileLines; 
+
+        if (lineIndex == null) { 
+
+            JOptionPane.showMessageDialog(this, 
+
+                "The line index is still being built.", 
+
+                "Go to Line", JOptionPane.INFORMATION_MESSAGE); 
+
+            return; 
+
+        } 
+
+         
+
+        String input = JOptionPane.showInputDialog(this, 
+
+            String.format("Line number (1-%,d):", lineIndex.lineCount()), "Go to Line", 
+
+            JOptionPane.QUESTION_MESSAGE); 
+
+        if (input == null) { 
+
+            return; 
+
+        } 
+
+         
+
+        int line; 
+
+        try { 
+
+            line = Integer.parseInt(input.trim().replace(",", "")) - 1; 
+
+        } catch (NumberFormatException e) { 
+
+            JOptionPane.showMessageDialog(this, 
+
+                "Please enter a line number.", 
+
+                "Invalid Line", JOptionPane.ERROR_MESSAGE); 
+
+            return; 
+
+        } 
+
+        line = Math.max(0, Math.min(line, lineIndex.lineCount() - 1)); 
+
+         
+
+        try { 
+
+            if (largeFile == null) { 
+
+                textArea.setCaretPosition((int) Math.min(lineIndex.lineStart(line), textArea.getDocument().getLength())); 
+
+            } else { 
+
+                textArea.setCaretPosition(showLargeFileLine(line)); 
+
+            } 
+
+        } catch (BadLocationException e) { 
+
+            System.err.println("Error going to line: " + e.getMessage()); 
+
+        } 
+
+        textArea.requestFocusInWindow(); 
+
+    } 
+
+     
+
+    // Opens the find bar with the selection, if it is on one line, as the query 
+
+    private void showFindBar(boolean replace) { 
+
+        String selected = textArea.getSelectedText(); 
+
+        if (selected != null && !selected.isEmpty() && selected.indexOf('\n') < 0) { 
+
+            findField.setText(selected); 
+
+        } 
+
+        updateFindBar(); 
+
+        findBar.setVisible(true); 
+
+        findBar.getParent().revalidate(); 
+
+         
+
+        JTextField field = replace && largeFile == null ? replaceField : findField; 
+
+        field.requestFocusInWindow(); 
+
+        field.selectAll(); 
+
+    } 
+
+     
+
+    // Replacing needs an editable document, and a large file is read-only; 
+
+    // finding all matches in the whole file is only for large files 
+
+    private void updateFindBar() { 
+
+        boolean editable = largeFile == null; 
+
+        replaceField.setEnabled(editable); 
+
+        replaceButton.setEnabled(editable); 
+
+        replaceAllButton.setEnabled(editable); 
+
+        findAllButton.setEnabled(!editable); 
+
+    } 
+
+     
+
+    private void hideFindBar() { 
+
+        findBar.setVisible(false); 
+
+        findBar.getParent().revalidate(); 
+
+        textArea.requestFocusInWindow(); 
+
+    } 
+
+     
+
+    // Sets the query from the find bar; false if it is not a valid pattern 
+
+    private boolean updateQuery() { 
+
+        try { 
+
+            core.getSearch().setQuery(findField.getText(), regexBox.isSelected(), matchCaseBox.isSelected()); 
+
+            return true; 
+
+        } catch (PatternSyntaxException e) { 
+
+            findStatusLabel.setText("Invalid pattern"); 
+
+            return false; 
+
+        } 
+
+    } 
+
+     
+
+    // Searches from the start of the current match, so typing more of the 
+
+    // query grows the match while it still fits and moves on once it does not 
+
+    private void searchIncremental() { 
+
+        if (!updateQuery()) { 
+
+            return; 
+
+        } 
+
+        try { 
+
+            showMatch(core.getSearch().findIncremental(textArea.getDocument(), textArea.getSelectionStart())); 
+
+        } catch (BadLocationException e) { 
+
+            System.err.println("Error searching: " + e.getMessage()); 
+
+        } 
+
+    } 
+
+     
+
+    private void findNext(boolean forward) { 
+
+        if (!findBar.isVisible()) { 
+
+            showFindBar(false); 
+
+        } 
+
+        if (!updateQuery()) { 
+
+            return; 
+
+        } 
+
+        TextSearch search = core.getSearch(); 
+
+        int start = textArea.getSelectionStart(); 
+
+        int end = textArea.getSelectionEnd(); 
+
+        int from = forward ? end : start; 
+
+        if (forward && start == end && search.isMatch(start, end)) { 
+
+            from++; // Step over an empty match 
+
+        } 
+
+        try { 
+
+            showMatch(search.find(textArea.getDocument(), from, forward)); 
+
+        } catch (BadLocationException e) { 
+
+            System.err.println("Error searching: " + e.getMessage()); 
+
+        } 
+
+    } 
+
+     
+
+    // Selects the match, keeping the selection visible while the find bar 
+
+    // has the focus 
+
+    private void showMatch(boolean found) { 
+
+        TextSearch search = core.getSearch(); 
+
+        if (!found) { 
+
+            findStatusLabel.setText(search.isEmpty() ? "" : "No matches"); 
+
+            return; 
+
+        } 
+
+        findStatusLabel.setText(""); 
+
+        textArea.select(search.getMatchStart(), search.getMatchEnd()); 
+
+        textArea.getCaret().setSelectionVisible(true); 
+
+    } 
+
+     
+
+    // Replaces the selected match and moves on to the next one; if the 
+
+    // selection is not a match, only finds the next one 
+
+    private void replaceMatch() { 
+
+        if (largeFile != null || !updateQuery()) { 
+
+            return; 
+
+        } 
+
+        int start = textArea.getSelectionStart(); 
+
+        int end = textArea.getSelectionEnd(); 
+
+        int length = textArea.getDocument().getLength(); 
+
+        try { 
+
+            if (core.replaceMatch(start, end, replaceField.getText())) { 
+
+                textArea.setCaretPosition(end + textArea.getDocument().getLength() - length); 
+
+            } 
+
+        } catch (IllegalArgumentException e) { 
+
+            findStatusLabel.setText(e.getMessage()); 
+
+            return; 
+
+        } catch (BadLocationException e) { 
+
+            System.err.println("Error replacing: " + e.getMessage()); 
+
+        } 
+
+        findNext(true); 
+
+    } 
+
+     
+
+    private void replaceAll() { 
+
+        if (largeFile != null || !updateQuery()) { 
+
+            return; 
+
+        } 
+
+        try { 
+
+            int count = core.replaceAll(replaceField.getText()); 
+
+            findStatusLabel.setText(count == 0 ? "No matches" : String.format("Replaced %,d", count)); 
+
+        } catch (IllegalArgumentException e) { 
+
+            findStatusLabel.setText(e.getMessage()); 
+
+        } catch (BadLocationException e) { 
+
+            System.err.println("Error replacing: " + e.getMessage()); 
+
+        } 
+
+    } 
+
+     
+
+    // Searches the whole large file on all cores rather than only the window 
+
+    // shown, listing matches below the text in file order as they are found 
+
+    private void findAllInFile() { 
+
+        if (largeFile == null || findField.getText().isEmpty()) { 
+
+            return; 
+
+        } 
+
+        Pattern pattern; 
+
+        try { 
+
+            pattern = TextSearch.compile(findField.getText(), regexBox.isSelected(), matchCaseBox.isSelected()); 
+
+        } catch (PatternSyntaxException e) { 
+
+            findStatusLabel.setText("Invalid pattern"); 
+
+            return; 
+
+        } 
+
+         
+
+        cancelFileSearch(); 
+
+        fileMatchesModel.clear(); 
+
+        fileMatchesButton.setText("Stop"); 
+
+        fileMatchesLabel.setText("Searching..."); 
+
+        fileMatchesPanel.setVisible(true); 
+
+        fileMatchesPanel.getParent().revalidate(); 
+
+         
+
+        FileSearcher searcher = new FileSearcher(new ParallelFileSearch(largeFile, pattern), largeFile.size()); 
+
+        searchWorker = searcher; 
+
+        searcher.execute(); 
+
+    } 
+
+     
+
+    private void cancelFileSearch() { 
+
+        if (searchWorker != null) { 
+
+            searchWorker.cancel(true); 
+
+            searchWorker = null; 
+
+        } 
+
+    } 
+
+     
+
+    // Moves the large file's window to the match and selects it 
+
+    private void showFileMatch(Match match) { 
+
+        if (largeFile == null) { 
+
+            return; 
+
+        } 
+
+        if (largeFileLines == null) { 
+
+            statusLabel.setText("The line index is still being built"); 
+
+            return; 
+
+        } 
+
+        if (match.getLine() >= largeFileLines.lineCount()) { 
+
+            return; 
+
+        } 
+
+         
+
+        try { 
+
+            int lineStart = showLargeFileLine((int) match.getLine()); 
+
+            int length = textArea.getDocument().getLength(); 
+
+            int start = Math.min(lineStart + match.getColumn(), length); 
+
+            textArea.select(start, Math.min(start + match.getLength(), length)); 
+
+            textArea.getCaret().setSelectionVisible(true); 
+
+        } catch (BadLocationException e) { 
+
+            System.err.println("Error showing match: " + e.getMessage()); 
+
+        } 
+
+    } 
+
+     
+
+    private void updateTitle() { 
+
+        String title = "Smart Text Editor"; 
+
+        File file = largeFile != null ? largeFileSource : core.getFile(); 
+
+        if (file != null) { 
+
+            title += " - " + file.getName(); 
+
+        } 
+
+        if (core.isChanged()) { 
+
+            title += " *"; 
+
+        } 
+
+        setTitle(title); 
+
+    } 
+
+     
+
+    // File operations 
+
+    private void newFile() { 
+
+        if (core.isChanged()) { 
+
+            int response = JOptionPane.showConfirmDialog(this, 
+
+                "Current document has unsaved changes. Save changes?", 
+
+                "Unsaved Changes", JOptionPane.YES_NO_CANCEL_OPTION); 
+
+             
+
+            if (response == JOptionPane.YES_OPTION) { 
+
+                saveFile(false, this::newFile); // Continues once the save has finished 
+
+                return; 
+
+            } else if (response == JOptionPane.CANCEL_OPTION) { 
+
+                return; // User cancelled operation 
+
+            } 
+
+        } 
+
+         
+
+        cancelFileWorker(); 
+
+        closeLargeFile(); 
+
+        core.newDocument(); 
+
+        textArea.setDocument(core.getDocument()); 
+
+        updateStatusBar(); 
+
+        updateTitle(); 
+
+    } 
+
+     
+
+    private void openFile() { 
+
+        if (core.isChanged()) { 
+
+            int response = JOptionPane.showConfirmDialog(this, 
+
+                "Current document has unsaved changes. Save changes?", 
+
+                "Unsaved Changes", JOptionPane.YES_NO_CANCEL_OPTION); 
+
+             
+
+            if (response == JOptionPane.YES_OPTION) { 
+
+                saveFile(false, this::openFile); // Continues once the save has finished 
+
+                return; 
+
+            } else if (response == JOptionPane.CANCEL_OPTION) { 
+
+                return; // User cancelled operation 
+
+            } 
+
+        } 
+
+         
+
+        int returnVal = fileChooser.showOpenDialog(this); 
+
+         
+
+        if (returnVal == JFileChooser.APPROVE_OPTION) { 
+
+            loadFile(fileChooser.getSelectedFile(), false); 
+
+        } 
+
+    } 
+
+     
+
+    // Opens a file, and if asked to recover, moves on to the state its 
+
+    // journal was in when the editor last stopped 
+
+    private void loadFile(File file, boolean recover) { 
+
+        cancelFileWorker(); 
+
+        if (!EditorCore.fitsInMemory(file.length())) { 
+
+            openLargeFile(file); 
+
+            return; 
+
+        } 
+
+         
+
+        // Reading and indexing run on a worker; the editor stays 
+
+        // read-only until the new document is installed 
+
+        textArea.setEditable(false); 
+
+        FileLoader loader = new FileLoader(core.prepareOpen(file), recover); 
+
+        fileWorker = loader; 
+
+        loader.execute(); 
+
+    } 
+
+     
+
+    private void fileLoaded(FileLoader loader) { 
+
+        File file = loader.pending.getFile(); 
+
+        closeLargeFile(); 
+
+        core.open(loader.pending); 
+
+        textArea.setDocument(core.getDocument()); 
+
+        textArea.setEditable(true); 
+
+        updateStatusBar(); 
+
+        updateTitle(); 
+
+        updateCaretPosition(); 
+
+         
+
+        UndoTree undoTree = core.getUndoTree(); 
+
+        if (loader.recover) { 
+
+            recoverUnsavedWork(file.getName()); 
+
+        } else if (undoTree.size() > 1) { 
+
+            statusLabel.setText(String.format("File opened: %s (%,d states of undo history restored)", 
+
+                file.getName(), undoTree.size())); 
+
+        } else { 
+
+            statusLabel.setText("File opened: " + file.getName()); 
+
+        } 
+
+    } 
+
+     
+
+    // Offers the unsaved work of an editor that did not exit normally 
+
+    private void offerRecovery() { 
+
+        List<RecoveryMarker> markers; 
+
+        try { 
+
+            markers = EditorCore.findUnsavedWork(); 
+
+        } catch (IOException e) { 
+
+            System.err.println("Error looking for unsaved work: " + e.getMessage()); 
+
+            return; 
+
+        } 
+
+         
+
+        for (RecoveryMarker marker : markers) { 
+
+            Path target = marker.getTarget(); 
+
+            if (Files.isRegularFile(target)) { 
+
+                String name = marker.isUntitled() ? "an untitled document" : target.getFileName().toString(); 
+
+                int response = JOptionPane.showConfirmDialog(this, 
+
+                    "Smart Text Editor did not close normally. Recover the unsaved changes to " + name + "?", 
+
+                    "Recover Unsaved Changes", JOptionPane.YES_NO_OPTION); 
+
+                if (response == JOptionPane.YES_OPTION) { 
+
+                    if (marker.isUntitled()) { 
+
+                        recoverUntitled(target); 
+
+                    } else { 
+
+                        loadFile(target.toFile(), true); 
+
+                    } 
+
+                } else if (marker.isUntitled()) { 
+
+                    EditorCore.deleteRecoveryFile(target); 
+
+                } 
+
+            } 
+
+            EditorCore.deleteRecoveryFile(marker.getPath()); 
+
+            if (core.isChanged() || fileWorker != null) { 
+
+                break; // Others are offered next time 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    private void recoverUntitled(Path journalPath) { 
+
+        try { 
+
+            core.recoverUntitled(journalPath); 
+
+        } catch (IOException e) { 
+
+            statusLabel.setText("Unsaved changes could not be recovered: " + e.getMessage()); 
+
+            return; 
+
+        } 
+
+        recoverUnsavedWork("an untitled document"); 
+
+    } 
+
+     
+
+    private void recoverUnsavedWork(String name) { 
+
+        long lastState = core.getUnsavedState(); 
+
+        updateStatusBar(); 
+
+        if (lastState < 0) { 
+
+            statusLabel.setText("Unsaved changes to " + name + " could not be recovered"); 
+
+        } else if (lastState == core.getUndoTree().getCurrentSequence()) { 
+
+            statusLabel.setText("No unsaved changes to " + name + " were found"); 
+
+        } else { 
+
+            showPath(core.moveTo(lastState)); 
+
+            statusLabel.setText("Recovered unsaved changes to " + name); 
+
+        } 
+
+    } 
+
+     
+
+    private void cancelFileWorker() { 
+
+        if (fileWorker != null) { 
+
+            fileWorker.cancel(true); 
+
+            fileWorker = null; 
+
+            textArea.setEditable(largeFile == null); 
+
+        } 
+
+    } 
+
+     
+
+    // Maps a file too large to read into a document and shows only the 
+
+    // window around the current position, so opening costs the same 
+
+    // whatever the file size. The window is read-only. 
+
+    private void openLargeFile(File file) { 
+
+        MappedTextFile mapped; 
+
+        try { 
+
+            mapped = MappedTextFile.open(file); 
+
+        } catch (IOException e) { 
+
+            JOptionPane.showMessageDialog(this, 
+
+                "Error opening file: " + e.getMessage(), 
+
+                "Error", JOptionPane.ERROR_MESSAGE); 
+
+            return; 
+
+        } 
+
+         
+
+        closeLargeFile(); 
+
+        core.newDocument(); 
+
+        largeFile = mapped; 
+
+        largeFileSource = file; 
+
+        largeFileLines = null; 
+
+        textArea.setEditable(false); 
+
+        largeFileScrollBar.setVisible(true); 
+
+        largeFileScrollBar.getParent().revalidate(); 
+
+        updateFindBar(); 
+
+        updateTitle(); 
+
+        showLargeFileWindow(0); 
+
+         
+
+        LargeFileIndexer indexer = new LargeFileIndexer(mapped); 
+
+        fileWorker = indexer; 
+
+        indexer.execute(); 
+
+    } 
+
+     
+
+    // Decodes the lines around the given byte position into the text area 
+
+    private void showLargeFileWindow(long position) { 
+
+        long start = largeFile.lineStart(Math.max(0, Math.min(position, largeFile.size() - LARGE_FILE_WINDOW / 2))); 
+
+        long end = largeFile.lineEnd(Math.min(largeFile.size(), start + LARGE_FILE_WINDOW)); 
+
+         
+
+        CharBuffer text = largeFile.decode(start, end); 
+
+        char[] chars = new char[text.remaining()]; 
+
+        text.get(chars); 
+
+        PieceTableDocument document = new PieceTableDocument(); 
+
+        document.load(chars, chars.length); 
+
+        textArea.setDocument(document); // Read-only, so no edits to capture 
+
+        textArea.setCaretPosition(0); 
+
+         
+
+        largeFileWindowStart = start; 
+
+        largeFileWindowEnd = end; 
+
+        isPagingLargeFile = true; 
+
+        try { 
+
+            int visible = (int) Math.max(1, (end - start) * LARGE_FILE_SCROLL_UNITS / Math.max(1, largeFile.size())); 
+
+            int value = (int) (start * LARGE_FILE_SCROLL_UNITS / Math.max(1, largeFile.size())); 
+
+            largeFileScrollBar.setValues(value, visible, 0, LARGE_FILE_SCROLL_UNITS); 
+
+        } finally { 
+
+            isPagingLargeFile = false; 
+
+        } 
+
+         
+
+        statusLabel.setText(String.format("Bytes %,d-%,d of %,d (read-only)", 
+
+            start, end, largeFile.size())); 
+
+        updateCaretPosition(); 
+
+    } 
+
+     
+
+    // Moves the window to a line of the large file and returns where the 
+
+    // line starts in the text area 
+
+    private int showLargeFileLine(int line) throws BadLocationException { 
+
+        showLargeFileWindow(largeFileLines.lineStart(line)); 
+
+        int windowLine = line - largeFileLines.lineOf(largeFileWindowStart); 
+
+        return textArea.getLineStartOffset(Math.min(windowLine, textArea.getLineCount() - 1)); 
+
+    } 
+
+     
+
+    private void pageLargeFile(boolean forward) { 
+
+        if (largeFile == null) { 
+
+            return; 
+
+        } 
+
+        if (forward && largeFileWindowEnd < largeFile.size()) { 
+
+            showLargeFileWindow(largeFileWindowEnd); 
+
+        } else if (!forward && largeFileWindowStart > 0) { 
+
+            showLargeFileWindow(Math.max(0, largeFileWindowStart - LARGE_FILE_WINDOW)); 
+
+        } 
+
+    } 
+
+     
+
+    private void closeLargeFile() { 
+
+        if (largeFile == null) { 
+
+            return; 
+
+        } 
+
+        try { 
+
+            largeFile.close(); 
+
+        } catch (IOException e) { 
+
+            System.err.println("Error closing file: " + e.getMessage()); 
+
+        } 
+
+        largeFile = null; 
+
+        largeFileSource = null; 
+
+        largeFileLines = null; 
+
+        textArea.setDocument(core.getDocument()); 
+
+        textArea.setEditable(true); 
+
+        largeFileScrollBar.setVisible(false); 
+
+        largeFileScrollBar.getParent().revalidate(); 
+
+         
+
+        cancelFileSearch(); 
+
+        fileMatchesModel.clear(); 
+
+        fileMatchesPanel.setVisible(false); 
+
+        updateFindBar(); 
+
+    } 
+
+     
+
+    private void saveFile(boolean saveAs) { 
+
+        saveFile(saveAs, null); 
+
+    } 
+
+     
+
+    // Writes the document on a worker and runs onSaved on the EDT once the 
+
+    // file is safely on disk. Nothing runs if the save is cancelled or fails. 
+
+    // A save asked for while another is running waits for it to finish, so 
+
+    // its continuation, such as exiting, is never dropped. 
+
+    private void saveFile(boolean saveAs, Runnable onSaved) { 
+
+        if (largeFile != null) { 
+
+            JOptionPane.showMessageDialog(this, 
+
+                "Files too large to load are opened read-only.", 
+
+                "Save", JOptionPane.INFORMATION_MESSAGE); 
+
+            return; 
+
+        } 
+
+        if (saveWorker != null) { 
+
+            Runnable request = () -> saveFile(saveAs, onSaved); 
+
+            Runnable earlier = queuedSave; 
+
+            queuedSave = earlier == null ? request : () -> { 
+
+                earlier.run(); 
+
+                request.run(); // Queues itself behind the save the earlier one started 
+
+            }; 
+
+            statusLabel.setText("Saving again once the current save has finished..."); 
+
+            return; 
+
+        } 
+
+         
+
+        File file = core.getFile(); 
+
+        if (file == null || saveAs) { 
+
+            int returnVal = fileChooser.showSaveDialog(this); 
+
+             
+
+            if (returnVal == JFileChooser.APPROVE_OPTION) { 
+
+                file = fileChooser.getSelectedFile(); 
+
+                 
+
+                // Add .txt extension if no extension is provided 
+
+                if (!file.getName().contains(".")) { 
+
+                    file = new File(file.getAbsolutePath() + ".txt"); 
+
+                } 
+
+                 
+
+                // Confirm overwrite if file exists 
+
+                if (file.exists() && !file.equals(core.getFile())) { 
+
+                    int response = JOptionPane.showConfirmDialog(this, 
+
+                        "The file exists, do you want to overwrite?", 
+
+                        "Confirm Overwrite", JOptionPane.YES_NO_OPTION); 
+
+                     
+
+                    if (response != JOptionPane.YES_OPTION) { 
+
+                        return; // User cancelled overwrite 
+
+                    } 
+
+                } 
+
+            } else { 
+
+                return; // User cancelled save dialog 
+
+            } 
+
+        } 
+
+         
+
+        // The worker writes a snapshot while editing continues 
+
+        FileSaver saver = new FileSaver(core.prepareSave(file), onSaved); 
+
+        saveWorker = saver; 
+
+        statusLabel.setText("Saving " + file.getName() + "..."); 
+
+        saver.execute(); 
+
+    } 
+
+     
+
+    private void exitApplication() { 
+
+        if (core.isChanged()) { 
+
+            int response = JOptionPane.showConfirmDialog(this, 
+
+                "Current document has unsaved changes. Save changes?", 
+
+                "Unsaved Changes", JOptionPane.YES_NO_CANCEL_OPTION); 
+
+             
+
+            if (response == JOptionPane.YES_OPTION) { 
+
+                saveFile(false, this::exitApplication); // Continues once the save has finished 
+
+                return; 
+
+            } else if (response == JOptionPane.CANCEL_OPTION) { 
+
+                return; // User cancelled operation 
+
+            } 
+
+        } 
+
+         
+
+        core.shutdown(); 
+
+        System.exit(0); 
+
+    } 
+
+     
+
+    public static void main(String[] args) { 
+
+        if (args.length > 0 && args[0].equals("--build-dictionary")) { 
+
+            System.exit(BuiltInDictionary.build(Arrays.copyOfRange(args, 1, args.length))); 
+
+        } 
+
+        if (args.length > 0 && args[0].equals("--batch")) { 
+
+            System.exit(BatchEditor.run(Arrays.copyOfRange(args, 1, args.length))); 
+
+        } 
+
+         
+
+        try { 
+
+            // Set system look and feel 
+
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName()); 
+
+        } catch (Exception e) { 
+
+            e.printStackTrace(); 
+
+        } 
+
+         
+
+        SwingUtilities.invokeLater(() -> new SmartTextEditor()); 
+
+    } 
+
+     
+
+    // Inner class that reads a file and builds its line index off the EDT 
+
+    private class FileLoader extends SwingWorker<Boolean, Integer> { 
+
+        private final PendingOpen pending; 
+
+        private final boolean recover; 
+
+         
+
+        FileLoader(PendingOpen pending, boolean recover) { 
+
+            this.pending = pending; 
+
+            this.recover = recover; 
+
+        } 
+
+         
+
+        @Override 
+
+        protected Boolean doInBackground() throws IOException { 
+
+            return pending.read(percent -> publish(percent), this::isCancelled); 
+
+        } 
+
+         
+
+        @Override 
+
+        protected void process(List<Integer> chunks) { 
+
+            if (fileWorker == this) { 
+
+                statusLabel.setText(String.format("Opening %s: %d%% (%,d lines)", 
+
+                    pending.getFile().getName(), chunks.get(chunks.size() - 1), pending.lineCount())); 
+
+            } 
+
+        } 
+
+         
+
+        @Override 
+
+        protected void done() { 
+
+            if (fileWorker != this) { 
+
+                pending.discard(); 
+
+                return; // Cancelled or replaced by a newer open 
+
+            } 
+
+            fileWorker = null; 
+
+            try { 
+
+                get(); 
+
+                fileLoaded(this); 
+
+            } catch (InterruptedException | ExecutionException e) { 
+
+                pending.discard(); 
+
+                textArea.setEditable(largeFile == null); 
+
+                Throwable cause = e.getCause() != null ? e.getCause() : e; 
+
+                JOptionPane.showMessageDialog(SmartTextEditor.this, 
+
+                    "Error opening file: " + cause.getMessage(), 
+
+                    "Error", JOptionPane.ERROR_MESSAGE); 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    // Inner class that saves a document snapshot off the EDT 
+
+    private class FileSaver extends SwingWorker<Long, Void> { 
+
+        private final PendingSave save; 
+
+        private final Runnable onSaved; 
+
+         
+
+        FileSaver(PendingSave save, Runnable onSaved) { 
+
+            this.save = save; 
+
+            this.onSaved = onSaved; 
+
+        } 
+
+         
+
+        @Override 
+
+        protected Long doInBackground() throws IOException { 
+
+            return save.write(); 
+
+        } 
+
+         
+
+        @Override 
+
+        protected void done() { 
+
+            saveWorker = null; 
+
+            try { 
+
+                long written = get(); 
+
+                core.saved(save); 
+
+                updateTitle(); 
+
+                statusLabel.setText(String.format("File saved: %s (%s written%s)", save.getFile().getName(), 
+
+                    EditorCore.formatBytes(written), save.isInPlace() ? " in place" : "")); 
+
+                if (onSaved != null) { 
+
+                    onSaved.run(); 
+
+                } 
+
+            } catch (InterruptedException | ExecutionException e) { 
+
+                core.saveFailed(); 
+
+                Throwable cause = e.getCause() != null ? e.getCause() : e; 
+
+                JOptionPane.showMessageDialog(SmartTextEditor.this, 
+
+                    "Error saving file: " + cause.getMessage(), 
+
+                    "Error", JOptionPane.ERROR_MESSAGE); 
+
+            } 
+
+             
+
+            // Whatever waited for this save runs now, even if it failed, 
+
+            // unless onSaved started another save for it to wait on 
+
+            if (queuedSave != null && saveWorker == null) { 
+
+                Runnable queued = queuedSave; 
+
+                queuedSave = null; 
+
+                queued.run(); 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    // Inner class that builds the line index of a memory-mapped file off the EDT 
+
+    private class LargeFileIndexer extends SwingWorker<LineIndex, Integer> { 
+
+        private final MappedTextFile file; 
+
+         
+
+        LargeFileIndexer(MappedTextFile file) { 
+
+            this.file = file; 
+
+        } 
+
+         
+
+        @Override 
+
+        protected LineIndex doInBackground() { 
+
+            LineIndex lines = new LineIndex(); 
+
+            byte[] block = new byte[1 << 16]; 
+
+            int progress = -1; 
+
+            long position = 0; 
+
+            while (position < file.size()) { 
+
+                if (isCancelled()) { 
+
+                    return null; 
+
+                } 
+
+                int count = file.read(position, block); 
+
+                for (int i = 0; i < count; i++) { 
+
+                    if (block[i] == '\n') { 
+
+                        lines.add(position + i + 1); 
+
+                    } 
+
+                } 
+
+                position += count; 
+
+                 
+
+                int percent = (int) (position * 100 / file.size()); 
+
+                if (percent != progress) { 
+
+                    progress = percent; 
+
+                    publish(percent); 
+
+                } 
+
+            } 
+
+            return lines; 
+
+        } 
+
+         
+
+        @Override 
+
+        protected void process(List<Integer> chunks) { 
+
+            if (fileWorker == this) { 
+
+                statusLabel.setText(String.format("Indexing lines: %d%%", chunks.get(chunks.size() - 1))); 
+
+            } 
+
+        } 
+
+         
+
+        @Override 
+
+        protected void done() { 
+
+            if (fileWorker != this) { 
+
+                return; 
+
+            } 
+
+            fileWorker = null; 
+
+            try { 
+
+                largeFileLines = get(); 
+
+                statusLabel.setText(String.format("%,d lines indexed (read-only)", largeFileLines.lineCount())); 
+
+                updateCaretPosition(); 
+
+            } catch (InterruptedException | ExecutionException e) { 
+
+                statusLabel.setText("Line indexing failed: " + e.getMessage()); 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    // Inner class that searches a whole large file off the EDT. Matches are 
+
+    // listed as each chunk of the file is done; the search stops once there 
+
+    // are more than the list should hold. 
+
+    private class FileSearcher extends SwingWorker<Long, List<Match>> { 
+
+        private final ParallelFileSearch search; 
+
+        private final long size; 
+
+        private final long started = System.nanoTime(); 
+
+        private volatile long searched; 
+
+        private long found; // Only used on the worker thread 
+
+         
+
+        FileSearcher(ParallelFileSearch search, long size) { 
+
+            this.search = search; 
+
+            this.size = size; 
+
+        } 
+
+         
+
+        @Override 
+
+        protected Long doInBackground() throws InterruptedException { 
+
+            return search.search(matches -> { 
+
+                found += matches.size(); 
+
+                publish(matches); 
+
+            }, bytes -> { 
+
+                searched = bytes; 
+
+                publish(Collections.emptyList()); // Only shows the progress 
+
+            }, () -> isCancelled() || found >= MAX_FILE_MATCHES); 
+
+        } 
+
+         
+
+        @Override 
+
+        protected void process(List<List<Match>> chunks) { 
+
+            if (searchWorker != this) { 
+
+                return; 
+
+            } 
+
+            for (List<Match> matches : chunks) { 
+
+                fileMatchesModel.addAll(matches); 
+
+            } 
+
+            fileMatchesLabel.setText(String.format("Searching: %,d matches, %d%%", 
+
+                fileMatchesModel.size(), searched * 100 / Math.max(1, size))); 
+
+        } 
+
+         
+
+        @Override 
+
+        protected void done() { 
+
+            if (searchWorker != this) { 
+
+                return; 
+
+            } 
+
+            searchWorker = null; 
+
+            fileMatchesButton.setText("Close"); 
+
+            long elapsed = (System.nanoTime() - started) / 1_000_000; 
+
+            try { 
+
+                long count = get(); 
+
+                fileMatchesLabel.setText(count >= MAX_FILE_MATCHES 
+
+                    ? String.format("Stopped after %,d matches (%,d ms)", fileMatchesModel.size(), elapsed) 
+
+                    : String.format("%,d matches in %s (%,d ms)", count, EditorCore.formatBytes(size), elapsed)); 
+
+            } catch (CancellationException e) { 
+
+                fileMatchesLabel.setText(String.format("Stopped after %,d matches at %d%%", 
+
+                    fileMatchesModel.size(), searched * 100 / Math.max(1, size))); 
+
+            } catch (InterruptedException | ExecutionException e) { 
+
+                fileMatchesLabel.setText("Search failed: " + e.getMessage()); 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    // Inner class that loads words into the dictionary off the EDT 
+
+    private class WordLoader extends SwingWorker<Long, Void> { 
+
+        private final WordIngester ingester; 
+
+        private final List<Path> sources; 
+
+         
+
+        WordLoader(List<Path> sources) { 
+
+            this.ingester = core.newWordIngester(); 
+
+            this.sources = sources; 
+
+        } 
+
+         
+
+        @Override 
+
+        protected Long doInBackground() throws IOException, InterruptedException { 
+
+            return ingester.ingest(sources, () -> publish()); 
+
+        } 
+
+         
+
+        @Override 
+
+        protected void process(List<Void> chunks) { 
+
+            if (wordWorker == this) { 
+
+                statusLabel.setText("Loading words: " + ingester.report()); 
+
+            } 
+
+        } 
+
+         
+
+        @Override 
+
+        protected void done() { 
+
+            if (wordWorker != this) { 
+
+                return; 
+
+            } 
+
+            wordWorker = null; 
+
+            try { 
+
+                get(); 
+
+                statusLabel.setText("Loaded " + ingester.report()); 
+
+            } catch (InterruptedException | ExecutionException e) { 
+
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e; 
+
+                statusLabel.setText("Loading words failed: " + cause.getMessage()); 
+
+            } 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,119 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.text.*; 
+
+ 
+
+// A single edit delta: the text removed and inserted at an offset 
+
+class TextEdit { 
+
+    final int offset; 
+
+    final String removed; 
+
+    final String inserted; 
+
+     
+
+    public TextEdit(int offset, String removed, String inserted) { 
+
+        this.offset = offset; 
+
+        this.removed = removed; 
+
+        this.inserted = inserted; 
+
+    } 
+
+     
+
+    public void apply(AbstractDocument document) throws BadLocationException { 
+
+        document.replace(offset, removed.length(), inserted, null); 
+
+    } 
+
+     
+
+    public void revert(AbstractDocument document) throws BadLocationException { 
+
+        document.replace(offset, inserted.length(), removed, null); 
+
+    } 
+
+     
+
+    public TextEdit inverse() { 
+
+        return new TextEdit(offset, inserted, removed); 
+
+    } 
+
+     
+
+    // Typing and single-character deletes can be continued by the next keystroke 
+
+    public boolean canStartGroup() { 
+
+        return inserted.length() == 1 || (inserted.isEmpty() && removed.length() == 1); 
+
+    } 
+
+     
+
+    // True if next directly continues this typing, backspace or delete run 
+
+    public boolean continuedBy(TextEdit next) { 
+
+        if (next.removed.isEmpty() && next.inserted.length() == 1) { 
+
+            return !inserted.isEmpty() && next.offset == offset + inserted.length(); 
+
+        } 
+
+        if (next.inserted.isEmpty() && next.removed.length() == 1 && inserted.isEmpty()) { 
+
+            return next.offset + 1 == offset || next.offset == offset; 
+
+        } 
+
+        return false; 
+
+    } 
+
+     
+
+    // Combines this edit with an edit that continues it 
+
+    public TextEdit merge(TextEdit next) { 
+
+        if (!next.inserted.isEmpty()) { 
+
+            return new TextEdit(offset, removed, inserted + next.inserted); 
+
+        } 
+
+        if (next.offset < offset) { // Backspace 
+
+            return new TextEdit(next.offset, next.removed + removed, ""); 
+
+        } 
+
+        return new TextEdit(offset, removed + next.removed, ""); // Delete 
+
+    } 
+
+     
+
+    // Rough heap footprint: object headers, two strings and their char data 
+
+    public long memorySize() { 
+
+        return 96 + 2L * (removed.length() + inserted.length()); 
+
+    } 
+
+} 
\ No newline at end of file
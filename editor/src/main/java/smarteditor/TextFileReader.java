@@ -0,0 +1,181 @@
+package smarteditor; 
+
+ 
+
+import java.io.*; 
+
+import java.nio.charset.StandardCharsets; 
+
+import java.util.*; 
+
+import java.util.function.BooleanSupplier; 
+
+import java.util.function.IntConsumer; 
+
+ 
+
+// Reads a UTF-8 file into a piece table document, indexing line starts and 
+
+// counting words as it goes 
+
+class TextFileReader { 
+
+    // The longest text one char array can hold 
+
+    static final int MAX_DOCUMENT_LENGTH = Integer.MAX_VALUE - 8; 
+
+     
+
+    private final File file; 
+
+    private final boolean countingWords; 
+
+    final LineIndex lines = new LineIndex(); 
+
+    boolean exact = true; // Saving the text gives back the same bytes 
+
+    Map<String, Integer> wordCounts; // Null unless counting words 
+
+    long fileSize; 
+
+    long fileModified; 
+
+     
+
+    TextFileReader(File file, boolean countingWords) { 
+
+        this.file = file; 
+
+        this.countingWords = countingWords; 
+
+    } 
+
+     
+
+    // Reports progress in percent, and gives up with null once cancelled 
+
+    public PieceTableDocument read(IntConsumer progress, BooleanSupplier cancelled) throws IOException { 
+
+        TextFileWriter.rollBackInterruptedSave(TextFileWriter.targetOf(file)); 
+
+        fileSize = file.length(); 
+
+        fileModified = file.lastModified(); 
+
+        long fileLength = Math.max(1, fileSize); 
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) { 
+
+            // Read straight into the piece table's original buffer. Line 
+
+            // endings become '\n' and the last line gets one if it has none. 
+
+            char[] buffer = new char[(int) Math.min(MAX_DOCUMENT_LENGTH, fileSize + 16)]; 
+
+            char[] block = new char[8192]; 
+
+            int length = 0; 
+
+            int reported = -1; 
+
+            boolean afterReturn = false; 
+
+            int count; 
+
+            while ((count = reader.read(block)) != -1) { 
+
+                if (cancelled.getAsBoolean()) { 
+
+                    return null; 
+
+                } 
+
+                if (length + count + 1 > buffer.length) { 
+
+                    buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count + 1)); 
+
+                } 
+
+                for (int i = 0; i < count; i++) { 
+
+                    char c = block[i]; 
+
+                    if (c == '\n' && afterReturn) { 
+
+                        afterReturn = false; 
+
+                        continue; // Second half of a \r\n 
+
+                    } 
+
+                    afterReturn = c == '\r'; 
+
+                    if (c == '\r') { 
+
+                        c = '\n'; 
+
+                        exact = false; 
+
+                    } else if (c == '\uFFFD') { 
+
+                        exact = false; // Possibly a malformed byte sequence 
+
+                    } 
+
+                    buffer[length++] = c; 
+
+                    if (c == '\n') { 
+
+                        lines.add(length); 
+
+                    } 
+
+                } 
+
+                 
+
+                int percent = (int) Math.min(99, length * 100L / fileLength); 
+
+                if (percent != reported) { 
+
+                    reported = percent; 
+
+                    progress.accept(percent); 
+
+                } 
+
+            } 
+
+            if (length > 0 && buffer[length - 1] != '\n') { 
+
+                buffer[length++] = '\n'; 
+
+                lines.add(length); 
+
+                exact = false; 
+
+            } 
+
+             
+
+            if (countingWords) { 
+
+                wordCounts = Words.countWords(buffer, length); 
+
+            } 
+
+             
+
+            // The document is not shown yet, so it can be filled here 
+
+            PieceTableDocument document = new PieceTableDocument(); 
+
+            document.load(buffer, length); 
+
+            return document; 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,735 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.text.*; 
+
+import java.io.*; 
+
+import java.nio.ByteBuffer; 
+
+import java.nio.CharBuffer; 
+
+import java.nio.channels.Channels; 
+
+import java.nio.channels.FileChannel; 
+
+import java.nio.charset.CharacterCodingException; 
+
+import java.nio.charset.CharsetEncoder; 
+
+import java.nio.charset.CoderResult; 
+
+import java.nio.charset.StandardCharsets; 
+
+import java.nio.file.Files; 
+
+import java.nio.file.Path; 
+
+import java.nio.file.StandardCopyOption; 
+
+import java.nio.file.StandardOpenOption; 
+
+import java.nio.file.attribute.PosixFileAttributeView; 
+
+import java.nio.file.attribute.PosixFileAttributes; 
+
+import java.util.ArrayList; 
+
+import java.util.List; 
+
+import java.util.zip.CRC32; 
+
+import java.util.zip.CheckedInputStream; 
+
+import java.util.zip.CheckedOutputStream; 
+
+ 
+
+// Writes a document snapshot to a file as UTF-8. The text is encoded through 
+
+// small reused buffers into a temporary file next to the target, which is 
+
+// forced to disk and then renamed over it, so a crash leaves either the old 
+
+// file or the new one. 
+
+// 
+
+// When only same-length replacements were made since the last save, just 
+
+// those bytes are overwritten in the file itself. The bytes they replace are 
+
+// first forced to a rollback file next to it; a save that fails puts them 
+
+// back at once, and one cut short by a crash is rolled back the next time 
+
+// the file is read or saved. Either way the file ends up old or new. 
+
+class TextFileWriter { 
+
+    private static final int CHAR_BUFFER_SIZE = 8192; 
+
+    private static final int BYTE_BUFFER_SIZE = 64 * 1024; 
+
+    private static final int ROLLBACK_MAGIC = 0x53455242; // "SERB" 
+
+     
+
+    final File file; 
+
+    final PieceTable.Snapshot snapshot; 
+
+     
+
+    // Set when the file on disk is known to hold savedText 
+
+    private PieceTable.Snapshot savedText; 
+
+    private DirtyRegions dirty; 
+
+    private long expectedSize; 
+
+    private long expectedModified; 
+
+     
+
+    // Results of the save 
+
+    boolean inPlace; 
+
+    boolean replaced; 
+
+    long fileSize; 
+
+    long fileModified; 
+
+     
+
+    TextFileWriter(File file, PieceTable.Snapshot snapshot) { 
+
+        this.file = file; 
+
+        this.snapshot = snapshot; 
+
+    } 
+
+     
+
+    // Lets the save write only the changed regions when their encoded 
+
+    // length is unchanged and the file is still the one last saved 
+
+    void rewriteDirtyRegions(PieceTable.Snapshot savedText, DirtyRegions dirty, long size, long modified) { 
+
+        this.savedText = savedText; 
+
+        this.dirty = dirty; 
+
+        this.expectedSize = size; 
+
+        this.expectedModified = modified; 
+
+    } 
+
+     
+
+    // Returns the bytes written 
+
+    public long write() throws IOException { 
+
+        Path target = targetOf(file); 
+
+        rollBackInterruptedSave(target); 
+
+        long written = -1; 
+
+        if (savedText != null) { 
+
+            written = writeInPlace(target); 
+
+        } 
+
+        inPlace = written >= 0; 
+
+        if (!inPlace) { 
+
+            written = writeAtomically(target); 
+
+        } 
+
+        fileSize = file.length(); 
+
+        fileModified = file.lastModified(); 
+
+        return written; 
+
+    } 
+
+     
+
+    // Returns the bytes written, or -1 if the file needs a full rewrite 
+
+    private long writeInPlace(Path target) throws IOException { 
+
+        if (!dirty.keepsOffsets() || file.length() != expectedSize || file.lastModified() != expectedModified) { 
+
+            return -1; 
+
+        } 
+
+         
+
+        // Character ranges to rewrite; offsets are the same in both texts 
+
+        int[] ranges = dirty.ranges(savedText); 
+
+        long[] byteOffsets = byteOffsets(savedText, ranges); 
+
+        ByteBuffer[] encoded = new ByteBuffer[ranges.length / 2]; 
+
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder(); 
+
+        Segment segment = new Segment(); 
+
+        segment.setPartialReturn(true); 
+
+        for (int i = 0; i < encoded.length; i++) { 
+
+            int start = ranges[2 * i]; 
+
+            int end = ranges[2 * i + 1]; 
+
+            char[] text = new char[end - start]; 
+
+            for (int position = start; position < end; position += segment.count) { 
+
+                snapshot.getChars(position, end - position, segment); 
+
+                System.arraycopy(segment.array, segment.offset, text, position - start, segment.count); 
+
+            } 
+
+            try { 
+
+                encoded[i] = encoder.encode(CharBuffer.wrap(text)); 
+
+            } catch (CharacterCodingException e) { 
+
+                return -1; // Lone surrogates are left to the full save 
+
+            } 
+
+            if (encoded[i].remaining() != byteOffsets[2 * i + 1] - byteOffsets[2 * i]) { 
+
+                return -1; // The encoded length changed, so later bytes would move 
+
+            } 
+
+        } 
+
+         
+
+        long[] starts = new long[encoded.length]; 
+
+        ByteBuffer[] old = new ByteBuffer[encoded.length]; 
+
+        long written = 0; 
+
+        Path rollback = rollbackPath(target); 
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE)) { 
+
+            for (int i = 0; i < encoded.length; i++) { 
+
+                starts[i] = byteOffsets[2 * i]; 
+
+                old[i] = ByteBuffer.allocate(encoded[i].remaining()); 
+
+                while (old[i].hasRemaining()) { 
+
+                    if (channel.read(old[i], starts[i] + old[i].position()) < 0) { 
+
+                        throw new EOFException("File is shorter than when it was saved"); 
+
+                    } 
+
+                } 
+
+                old[i].flip(); 
+
+                written += encoded[i].remaining(); 
+
+            } 
+
+            writeRollback(rollback, expectedSize, starts, old); 
+
+             
+
+            try { 
+
+                putRanges(channel, starts, encoded); 
+
+                channel.force(true); 
+
+            } catch (IOException e) { 
+
+                try { 
+
+                    putRanges(channel, starts, old); 
+
+                    channel.force(true); 
+
+                    Files.delete(rollback); 
+
+                } catch (IOException rollbackFailed) { 
+
+                    e.addSuppressed(rollbackFailed); // Left to the next read or save 
+
+                } 
+
+                throw e; 
+
+            } 
+
+        } 
+
+        Files.delete(rollback); 
+
+        return written; 
+
+    } 
+
+     
+
+    private static void putRanges(FileChannel channel, long[] starts, ByteBuffer[] ranges) throws IOException { 
+
+        for (int i = 0; i < ranges.length; i++) { 
+
+            ByteBuffer range = ranges[i].duplicate(); 
+
+            while (range.hasRemaining()) { 
+
+                channel.write(range, starts[i] + range.position()); 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    // The file a save writes: the one a symbolic link points to, so the 
+
+    // rename replaces that file and leaves the link in place 
+
+    static Path targetOf(File file) throws IOException { 
+
+        Path path = file.toPath().toAbsolutePath(); 
+
+        return Files.exists(path) ? path.toRealPath() : path; 
+
+    } 
+
+     
+
+    static Path rollbackPath(Path target) { 
+
+        return target.resolveSibling("." + target.getFileName() + ".rollback"); 
+
+    } 
+
+     
+
+    // Layout, big-endian: magic, the file's size, the number of ranges, then 
+
+    // the start, length and bytes of each, and a CRC32 of all of it 
+
+    static void writeRollback(Path rollback, long fileSize, long[] starts, ByteBuffer[] old) 
+
+            throws IOException { 
+
+        CRC32 checksum = new CRC32(); 
+
+        try (FileChannel channel = FileChannel.open(rollback, StandardOpenOption.CREATE, 
+
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) { 
+
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream( 
+
+                new BufferedOutputStream(Channels.newOutputStream(channel)), checksum)); 
+
+            out.writeInt(ROLLBACK_MAGIC); 
+
+            out.writeLong(fileSize); 
+
+            out.writeInt(old.length); 
+
+            for (int i = 0; i < old.length; i++) { 
+
+                ByteBuffer range = old[i].duplicate(); 
+
+                out.writeLong(starts[i]); 
+
+                out.writeInt(range.remaining()); 
+
+                out.write(range.array(), range.position(), range.remaining()); 
+
+            } 
+
+            out.writeInt((int) checksum.getValue()); 
+
+            out.flush(); 
+
+            channel.force(true); 
+
+        } 
+
+        forceDirectory(rollback.getParent()); 
+
+    } 
+
+     
+
+    // Puts back what an in-place save that did not finish overwrote. A 
+
+    // rollback file that is cut short was not finished either, and the save 
+
+    // had not touched the file yet, so it is only deleted. 
+
+    static void rollBackInterruptedSave(Path target) throws IOException { 
+
+        Path rollback = rollbackPath(target); 
+
+        if (!Files.exists(rollback)) { 
+
+            return; 
+
+        } 
+
+        CRC32 checksum = new CRC32(); 
+
+        long fileSize; 
+
+        List<Long> starts = new ArrayList<>(); 
+
+        List<ByteBuffer> old = new ArrayList<>(); 
+
+        boolean whole; 
+
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream( 
+
+                new BufferedInputStream(Files.newInputStream(rollback)), checksum))) { 
+
+            whole = in.readInt() == ROLLBACK_MAGIC; 
+
+            fileSize = in.readLong(); 
+
+            for (int count = in.readInt(); whole && count > 0; count--) { 
+
+                long start = in.readLong(); 
+
+                int length = in.readInt(); 
+
+                whole = length >= 0 && start >= 0 && start + length <= fileSize; 
+
+                if (whole) { 
+
+                    byte[] range = new byte[length]; 
+
+                    in.readFully(range); 
+
+                    starts.add(start); 
+
+                    old.add(ByteBuffer.wrap(range)); 
+
+                } 
+
+            } 
+
+            long expected = checksum.getValue(); 
+
+            whole = whole && in.readInt() == (int) expected; 
+
+        } catch (EOFException e) { 
+
+            whole = false; 
+
+            fileSize = -1; 
+
+        } 
+
+         
+
+        // A file of another size has been replaced since, so the bytes are not its own 
+
+        if (whole && Files.isRegularFile(target) && Files.size(target) == fileSize) { 
+
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) { 
+
+                putRanges(channel, starts.stream().mapToLong(Long::longValue).toArray(), 
+
+                    old.toArray(new ByteBuffer[0])); 
+
+                channel.force(true); 
+
+            } 
+
+        } 
+
+        Files.delete(rollback); 
+
+    } 
+
+     
+
+    // UTF-8 byte offsets of the given character offsets, found in one pass 
+
+    private long[] byteOffsets(PieceTable.Snapshot text, int[] offsets) { 
+
+        long[] result = new long[offsets.length]; 
+
+        Segment segment = new Segment(); 
+
+        segment.setPartialReturn(true); 
+
+        int position = 0; 
+
+        long bytes = 0; 
+
+        for (int i = 0; i < offsets.length; i++) { 
+
+            while (position < offsets[i]) { 
+
+                text.getChars(position, offsets[i] - position, segment); 
+
+                for (int j = 0; j < segment.count; j++) { 
+
+                    char c = segment.array[segment.offset + j]; 
+
+                    // Each half of a surrogate pair counts 2 of its 4 bytes 
+
+                    bytes += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3; 
+
+                } 
+
+                position += segment.count; 
+
+            } 
+
+            result[i] = bytes; 
+
+        } 
+
+        return result; 
+
+    } 
+
+     
+
+    private long writeAtomically(Path target) throws IOException { 
+
+        Path temp = target.resolveSibling("." + target.getFileName() + ".saving"); 
+
+        long written; 
+
+        try { 
+
+            Files.deleteIfExists(temp); // Left over from an interrupted save 
+
+            try (FileChannel channel = FileChannel.open(temp, 
+
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) { 
+
+                if (Files.exists(target)) { 
+
+                    copyAttributes(target, temp); // Before the text goes in 
+
+                } 
+
+                written = write(channel); 
+
+                channel.force(true); 
+
+            } 
+
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE); 
+
+        } finally { 
+
+            Files.deleteIfExists(temp); 
+
+        } 
+
+        forceDirectory(target.getParent()); // Makes the rename itself durable 
+
+        return written; 
+
+    } 
+
+     
+
+    // Gives the new file the mode, owner and group of the one it replaces. 
+
+    // Only the superuser can hand a file to another owner, so for anyone 
+
+    // else a file they do not own ends up theirs, with its mode kept. 
+
+    private static void copyAttributes(Path from, Path to) throws IOException { 
+
+        PosixFileAttributeView source = Files.getFileAttributeView(from, PosixFileAttributeView.class); 
+
+        PosixFileAttributeView copy = Files.getFileAttributeView(to, PosixFileAttributeView.class); 
+
+        if (source == null || copy == null) { 
+
+            return; // Not a POSIX file system 
+
+        } 
+
+        PosixFileAttributes attributes = source.readAttributes(); 
+
+        try { 
+
+            copy.setOwner(attributes.owner()); 
+
+            copy.setGroup(attributes.group()); 
+
+        } catch (IOException e) { 
+
+            // Not allowed to give the file away 
+
+        } 
+
+        copy.setPermissions(attributes.permissions()); 
+
+    } 
+
+     
+
+    // Not every platform can sync a directory, so this is best effort 
+
+    private static void forceDirectory(Path directory) { 
+
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) { 
+
+            channel.force(true); 
+
+        } catch (IOException e) { 
+
+            // Best effort 
+
+        } 
+
+    } 
+
+     
+
+    private long write(FileChannel channel) throws IOException { 
+
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder(); 
+
+        CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE); 
+
+        ByteBuffer bytes = ByteBuffer.allocate(BYTE_BUFFER_SIZE); 
+
+        Segment segment = new Segment(); 
+
+        segment.setPartialReturn(true); 
+
+         
+
+        int length = snapshot.textLength(); 
+
+        int position = 0; 
+
+        long written = 0; 
+
+        while (true) { 
+
+            // Characters left over from the last round (such as half a 
+
+            // surrogate pair) stay at the front of the buffer 
+
+            while (chars.hasRemaining() && position < length) { 
+
+                snapshot.getChars(position, Math.min(length - position, chars.remaining()), segment); 
+
+                chars.put(segment.array, segment.offset, segment.count); 
+
+                position += segment.count; 
+
+            } 
+
+            chars.flip(); 
+
+            boolean endOfInput = position == length; 
+
+            CoderResult result = encoder.encode(chars, bytes, endOfInput); 
+
+            if (result.isError()) { 
+
+                // A lone surrogate is written as '?', so the text no 
+
+                // longer matches the file byte for byte 
+
+                chars.position(chars.position() + result.length()); 
+
+                if (!bytes.hasRemaining()) { 
+
+                    written += drain(bytes, channel); 
+
+                } 
+
+                bytes.put((byte) '?'); 
+
+                replaced = true; 
+
+            } 
+
+            chars.compact(); 
+
+            if (result.isOverflow()) { 
+
+                written += drain(bytes, channel); 
+
+            } else if (result.isUnderflow() && endOfInput) { 
+
+                break; 
+
+            } 
+
+        } 
+
+        while (encoder.flush(bytes).isOverflow()) { 
+
+            written += drain(bytes, channel); 
+
+        } 
+
+        return written + drain(bytes, channel); 
+
+    } 
+
+     
+
+    private long drain(ByteBuffer bytes, FileChannel channel) throws IOException { 
+
+        bytes.flip(); 
+
+        long count = bytes.remaining(); 
+
+        while (bytes.hasRemaining()) { 
+
+            channel.write(bytes); 
+
+        } 
+
+        bytes.clear(); 
+
+        return count; 
+
+    } 
+
+} 
\ No newline at end of file
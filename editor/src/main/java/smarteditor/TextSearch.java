@@ -0,0 +1,575 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.text.*; 
+
+import java.util.*; 
+
+import java.util.regex.Matcher; 
+
+import java.util.regex.Pattern; 
+
+ 
+
+// Find and replace. Literal text is found with Boyer-Moore-Horspool over 
+
+// chunks read through a Segment, and patterns with java.util.regex over a 
+
+// CharSequence that reads the document the same way, so no search copies the 
+
+// whole text. The last match is kept, so searching again as the query is 
+
+// typed starts from it and extends it while it still matches. 
+
+class TextSearch { 
+
+    private static final int CHUNK_SIZE = 16 * 1024; 
+
+     
+
+    private final Segment segment = new Segment(); 
+
+    private String query = ""; 
+
+    private Pattern pattern; // Null for literal text 
+
+    private boolean matchCase; 
+
+    private char[] folded = new char[0]; // The literal, case-folded unless matching case 
+
+    private final int[] shifts = new int[256]; // Horspool shift by low byte of a folded char 
+
+    private char[] window = new char[0]; 
+
+    private Matcher matcher; // After a regex match, for expanding $1 in its replacement 
+
+    private int matchStart = -1; 
+
+    private int matchEnd = -1; 
+
+     
+
+    TextSearch() { 
+
+        segment.setPartialReturn(true); 
+
+    } 
+
+     
+
+    // Throws PatternSyntaxException if a regex does not compile 
+
+    public void setQuery(String query, boolean regex, boolean matchCase) { 
+
+        this.pattern = regex && !query.isEmpty() ? compile(query, true, matchCase) : null; 
+
+        this.query = query; 
+
+        this.matchCase = matchCase; 
+
+        matcher = null; 
+
+         
+
+        folded = new char[query.length()]; 
+
+        for (int i = 0; i < folded.length; i++) { 
+
+            folded[i] = fold(query.charAt(i)); 
+
+        } 
+
+         
+
+        // Chars that share a low byte share a slot, which then holds the 
+
+        // shortest of their shifts, so no match is ever skipped 
+
+        Arrays.fill(shifts, Math.max(1, folded.length)); 
+
+        for (int i = 0; i < folded.length - 1; i++) { 
+
+            shifts[folded[i] & 0xFF] = folded.length - 1 - i; 
+
+        } 
+
+        if (window.length < CHUNK_SIZE + folded.length) { 
+
+            window = new char[CHUNK_SIZE + folded.length]; 
+
+        } 
+
+    } 
+
+     
+
+    public boolean isEmpty() { 
+
+        return query.isEmpty(); 
+
+    } 
+
+     
+
+    // The query as a pattern that matches what this search would, for 
+
+    // searches that only run patterns 
+
+    static Pattern compile(String query, boolean regex, boolean matchCase) { 
+
+        int flags = Pattern.MULTILINE | (matchCase ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE); 
+
+        return Pattern.compile(regex ? query : Pattern.quote(query), flags); 
+
+    } 
+
+     
+
+    public int getMatchStart() { 
+
+        return matchStart; 
+
+    } 
+
+     
+
+    public int getMatchEnd() { 
+
+        return matchEnd; 
+
+    } 
+
+     
+
+    // True if the range is the match found last 
+
+    public boolean isMatch(int start, int end) { 
+
+        return matchStart >= 0 && start == matchStart && end == matchEnd; 
+
+    } 
+
+     
+
+    // Search as you type: the first match from the offset, normally the 
+
+    // start of the previous match, wrapping around the end 
+
+    public boolean findIncremental(Document document, int offset) throws BadLocationException { 
+
+        return find(document, offset, true); 
+
+    } 
+
+     
+
+    // The first match from the offset forward, or the last one starting 
+
+    // before it, wrapping around the ends of the document. An empty match 
+
+    // is stepped over so searching again moves on. 
+
+    public boolean find(Document document, int offset, boolean forward) throws BadLocationException { 
+
+        if (query.isEmpty()) { 
+
+            return found(-1, -1); 
+
+        } 
+
+        int length = document.getLength(); 
+
+        if (forward) { 
+
+            return findForward(document, offset, length) || findForward(document, 0, length); 
+
+        } 
+
+        return findBackward(document, offset) || findBackward(document, length + 1); 
+
+    } 
+
+     
+
+    private boolean findForward(Document document, int from, int length) throws BadLocationException { 
+
+        if (from > length) { 
+
+            return false; 
+
+        } 
+
+        if (pattern != null) { 
+
+            matcher = pattern.matcher(new DocumentChars(document)); 
+
+            return matcher.find(from) ? found(matcher.start(), matcher.end()) : false; 
+
+        } 
+
+         
+
+        int start = from; 
+
+        while (start + folded.length <= length) { 
+
+            int end = Math.min(length, start + CHUNK_SIZE + folded.length - 1); 
+
+            fillWindow(document, start, end); 
+
+            int match = horspool(0, end - start); 
+
+            if (match >= 0) { 
+
+                return found(start + match, start + match + folded.length); 
+
+            } 
+
+            start = end - folded.length + 1; // A match across chunks is seen whole 
+
+        } 
+
+        return false; 
+
+    } 
+
+     
+
+    // The last match that starts before the offset 
+
+    private boolean findBackward(Document document, int before) throws BadLocationException { 
+
+        int length = document.getLength(); 
+
+        if (pattern != null) { 
+
+            // Patterns only run forward, so ever larger regions before 
+
+            // the offset are searched for their last match 
+
+            DocumentChars text = new DocumentChars(document); 
+
+            int end = Math.min(length, before + CHUNK_SIZE); 
+
+            for (int size = CHUNK_SIZE; ; size *= 2) { 
+
+                int start = Math.max(0, before - size); 
+
+                Matcher region = pattern.matcher(text).useTransparentBounds(true).useAnchoringBounds(false); 
+
+                region.region(start, end); 
+
+                int lastStart = -1; 
+
+                while (region.find() && region.start() < before) { 
+
+                    lastStart = region.start(); 
+
+                } 
+
+                if (lastStart >= 0) { 
+
+                    // Matched again without the region, which may have cut it short 
+
+                    matcher = pattern.matcher(text); 
+
+                    matcher.find(lastStart); 
+
+                    return found(matcher.start(), matcher.end()); 
+
+                } 
+
+                if (start == 0) { 
+
+                    return false; 
+
+                } 
+
+            } 
+
+        } 
+
+         
+
+        int end = Math.min(length, before + folded.length - 1); 
+
+        while (end >= folded.length) { 
+
+            int start = Math.max(0, end - CHUNK_SIZE - folded.length + 1); 
+
+            fillWindow(document, start, end); 
+
+            int last = -1; 
+
+            for (int match = horspool(0, end - start); match >= 0; match = horspool(match + 1, end - start)) { 
+
+                last = match; 
+
+            } 
+
+            if (last >= 0) { 
+
+                return found(start + last, start + last + folded.length); 
+
+            } 
+
+            end = start + folded.length - 1; 
+
+            if (start == 0) { 
+
+                return false; 
+
+            } 
+
+        } 
+
+        return false; 
+
+    } 
+
+     
+
+    private boolean found(int start, int end) { 
+
+        matchStart = start; 
+
+        matchEnd = end; 
+
+        return start >= 0; 
+
+    } 
+
+     
+
+    // Offset in the window of the first match starting from the given 
+
+    // one, or -1. Compares from the last char of the query back, and on a 
+
+    // mismatch skips ahead by how far that last char is from its previous 
+
+    // occurrence in the query. 
+
+    private int horspool(int from, int end) { 
+
+        int last = folded.length - 1; 
+
+        for (int i = from; i + last < end; ) { 
+
+            char c = fold(window[i + last]); 
+
+            if (c == folded[last]) { 
+
+                int j = last - 1; 
+
+                while (j >= 0 && fold(window[i + j]) == folded[j]) { 
+
+                    j--; 
+
+                } 
+
+                if (j < 0) { 
+
+                    return i; 
+
+                } 
+
+            } 
+
+            i += shifts[c & 0xFF]; 
+
+        } 
+
+        return -1; 
+
+    } 
+
+     
+
+    private char fold(char c) { 
+
+        return matchCase ? c : Character.toLowerCase(Character.toUpperCase(c)); 
+
+    } 
+
+     
+
+    // Copies the text between the offsets to the start of the window 
+
+    private void fillWindow(Document document, int start, int end) throws BadLocationException { 
+
+        for (int position = start; position < end; position += segment.count) { 
+
+            document.getText(position, end - position, segment); 
+
+            System.arraycopy(segment.array, segment.offset, window, position - start, segment.count); 
+
+        } 
+
+    } 
+
+     
+
+    private void appendText(Document document, int start, int end, StringBuilder text) throws BadLocationException { 
+
+        for (int position = start; position < end; position += segment.count) { 
+
+            document.getText(position, end - position, segment); 
+
+            text.append(segment.array, segment.offset, segment.count); 
+
+        } 
+
+    } 
+
+     
+
+    // Replaces the last match, found in this document. A regex 
+
+    // replacement can name groups as $1 or ${name}. 
+
+    public void replace(AbstractDocument document, String replacement) throws BadLocationException { 
+
+        if (matchStart < 0) { 
+
+            return; 
+
+        } 
+
+        StringBuilder text = new StringBuilder(); 
+
+        appendReplacement(replacement, text); 
+
+        document.replace(matchStart, matchEnd - matchStart, text.toString(), null); 
+
+        found(-1, -1); 
+
+    } 
+
+     
+
+    // Replaces every match with one document edit that spans from the 
+
+    // first to the last, so it is undone in one step; returns how many 
+
+    // matches were replaced 
+
+    public int replaceAll(AbstractDocument document, String replacement) throws BadLocationException { 
+
+        StringBuilder text = new StringBuilder(); 
+
+        int length = document.getLength(); 
+
+        int first = -1; 
+
+        int previousEnd = -1; 
+
+        int count = 0; 
+
+        for (int offset = 0; !query.isEmpty() && findForward(document, offset, length); count++) { 
+
+            if (first < 0) { 
+
+                first = matchStart; 
+
+            } else { 
+
+                appendText(document, previousEnd, matchStart, text); 
+
+            } 
+
+            appendReplacement(replacement, text); 
+
+            previousEnd = matchEnd; 
+
+            offset = matchEnd > matchStart ? matchEnd : matchEnd + 1; 
+
+        } 
+
+        if (count > 0) { 
+
+            document.replace(first, previousEnd - first, text.toString(), null); 
+
+        } 
+
+        found(-1, -1); 
+
+        return count; 
+
+    } 
+
+     
+
+    // Expands the replacement for the last match the way 
+
+    // Matcher.appendReplacement does, without copying the text before it 
+
+    private void appendReplacement(String replacement, StringBuilder text) { 
+
+        if (pattern == null) { 
+
+            text.append(replacement); 
+
+            return; 
+
+        } 
+
+        for (int i = 0; i < replacement.length(); i++) { 
+
+            char c = replacement.charAt(i); 
+
+            if (c == '\\' && i + 1 < replacement.length()) { 
+
+                text.append(replacement.charAt(++i)); 
+
+            } else if (c == '$' && i + 1 < replacement.length() && replacement.charAt(i + 1) == '{') { 
+
+                int close = replacement.indexOf('}', i + 2); 
+
+                if (close < 0) { 
+
+                    throw new IllegalArgumentException("Missing } in replacement"); 
+
+                } 
+
+                String group = matcher.group(replacement.substring(i + 2, close)); 
+
+                text.append(group != null ? group : ""); 
+
+                i = close; 
+
+            } else if (c == '$' && i + 1 < replacement.length() && Character.isDigit(replacement.charAt(i + 1))) { 
+
+                // The longest number that still names a group 
+
+                int number = replacement.charAt(++i) - '0'; 
+
+                while (i + 1 < replacement.length() && Character.isDigit(replacement.charAt(i + 1)) 
+
+                        && number * 10 + replacement.charAt(i + 1) - '0' <= matcher.groupCount()) { 
+
+                    number = number * 10 + replacement.charAt(++i) - '0'; 
+
+                } 
+
+                if (number > matcher.groupCount()) { 
+
+                    throw new IllegalArgumentException("No group " + number); 
+
+                } 
+
+                String group = matcher.group(number); 
+
+                text.append(group != null ? group : ""); 
+
+            } else { 
+
+                text.append(c); 
+
+            } 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
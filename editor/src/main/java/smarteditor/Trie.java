@@ -0,0 +1,1397 @@
+package smarteditor; 
+
+ 
+
+import java.util.*; 
+
+ 
+
+// A trie of the words to suggest. Nodes are indices into parallel arrays 
+
+// instead of objects: the label of the edge into each node, its parent, 
+
+// and how often the word ending there was seen. Node 0 is the root, which 
+
+// is never a child, so 0 also means "no node". Learned words are evicted 
+
+// when their count drops to zero and their nodes are reused; the built-in 
+
+// words are pinned. It is only used on the dictionary thread. 
+
+// 
+
+// The edges out of a node sit side by side in one block of a shared pool, 
+
+// sorted by label, and a child is found by binary search. Blocks come in 
+
+// powers of two and move to the next size when they fill up. 
+
+// 
+
+// Every node caches its best completions, the highest ranked words below 
+
+// it, in a block of another pool. Most nodes have one word below them, so 
+
+// a list only grows towards SUGGESTION_LIMIT as more words pass through. 
+
+// A lookup only walks the prefix and spells out those words from their 
+
+// nodes via the parent links. 
+
+// 
+
+// A mapped dictionary can sit underneath as a read-only base. Lookups 
+
+// take the best words of both, and a word in both ranks by the sum of 
+
+// its counts, so only what is learned while editing lives on the heap. 
+
+class Trie { 
+
+    private static final int ROOT = 0; 
+
+    private static final int NONE = 0; 
+
+    static final int SUGGESTION_LIMIT = 10; 
+
+    static final int[] BEST_SIZES = {0, 1, 2, 4, SUGGESTION_LIMIT}; 
+
+     
+
+    char[] labels; 
+
+    int[] parent; // Chains the free nodes once a node is freed 
+
+    int[] edgeStart; 
+
+    int[] edgeCount; 
+
+    boolean[] endOfWord; 
+
+    int[] counts; 
+
+    private boolean[] pinned; 
+
+    int[] bestStart; // Word nodes, best first 
+
+    byte[] bestSize; // Index into BEST_SIZES 
+
+    int nodeCount; 
+
+    private int freeNodes; 
+
+    final BlockPool edges = new BlockPool(18, true); // Child nodes by label 
+
+    final BlockPool best = new BlockPool(BEST_SIZES.length, false); 
+
+    private MappedDictionary base; 
+
+     
+
+    // Scratch space for fuzzy lookups: one edit distance row per trie 
+
+    // level, and the nodes of each layer found within reach per distance 
+
+    private int[][] rows = new int[16][]; 
+
+    private int[][] matches = new int[0][]; 
+
+    private int[] matchCounts = new int[0]; 
+
+    private int[][] baseMatches = new int[0][]; 
+
+    private int[] baseMatchCounts = new int[0]; 
+
+     
+
+    public Trie() { 
+
+        labels = new char[256]; 
+
+        parent = new int[256]; 
+
+        edgeStart = new int[256]; 
+
+        edgeCount = new int[256]; 
+
+        endOfWord = new boolean[256]; 
+
+        counts = new int[256]; 
+
+        pinned = new boolean[256]; 
+
+        bestStart = new int[256]; 
+
+        bestSize = new byte[256]; 
+
+        nodeCount = 1; // The root 
+
+    } 
+
+     
+
+    public void setBase(MappedDictionary base) { 
+
+        this.base = base; 
+
+    } 
+
+     
+
+    // Adds a built-in word, which stays even when its count is zero 
+
+    public void insert(String word) { 
+
+        addCount(word, 0); 
+
+        if (!word.isEmpty()) { 
+
+            pinned[find(word)] = true; 
+
+        } 
+
+    } 
+
+     
+
+    // Records occurrences of a word being added or removed; the most 
+
+    // frequent words are suggested first 
+
+    public void addCount(String word, int occurrences) { 
+
+        if (word.isEmpty()) { 
+
+            return; 
+
+        } 
+
+        if (occurrences < 0) { 
+
+            removeCount(word, -occurrences); 
+
+            return; 
+
+        } 
+
+        int node = ROOT; 
+
+         
+
+        for (int i = 0; i < word.length(); i++) { 
+
+            node = childOrCreate(node, word.charAt(i)); 
+
+        } 
+
+         
+
+        boolean added = !endOfWord[node]; 
+
+        endOfWord[node] = true; 
+
+        counts[node] = Words.addSaturated(counts[node], occurrences); 
+
+        if (added || occurrences > 0) { 
+
+            promote(node); 
+
+        } 
+
+    } 
+
+     
+
+    private void removeCount(String word, int occurrences) { 
+
+        int node = find(word); 
+
+        if (node == NONE || !endOfWord[node]) { 
+
+            return; 
+
+        } 
+
+        counts[node] = Math.max(0, counts[node] - occurrences); 
+
+        if (counts[node] == 0 && !pinned[node]) { 
+
+            endOfWord[node] = false; 
+
+            demote(node); 
+
+            prune(node); 
+
+        } else { 
+
+            demote(node); 
+
+        } 
+
+    } 
+
+     
+
+    // Whether the word was inserted, learned or is in the base 
+
+    public boolean contains(String word) { 
+
+        int node = find(word); 
+
+        if (node != NONE && endOfWord[node]) { 
+
+            return true; 
+
+        } 
+
+        return base != null && base.count(word) >= 0; 
+
+    } 
+
+     
+
+    // Bytes held by the node arrays and both pools, including the room 
+
+    // they have grown into but not used yet 
+
+    public long memorySize() { 
+
+        long perNode = Character.BYTES + 5L * Integer.BYTES + 2 + 1; 
+
+        return perNode * labels.length + edges.memorySize() + best.memorySize(); 
+
+    } 
+
+     
+
+    private int find(String word) { 
+
+        int node = ROOT; 
+
+        for (int i = 0; i < word.length(); i++) { 
+
+            node = child(node, word.charAt(i)); 
+
+            if (node == NONE) { 
+
+                return NONE; 
+
+            } 
+
+        } 
+
+        return node; 
+
+    } 
+
+     
+
+    public List<String> getSuggestions(String prefix) { 
+
+        List<String> suggestions = new ArrayList<>(); 
+
+        List<Integer> words = new ArrayList<>(); 
+
+        List<Integer> baseWords = new ArrayList<>(); 
+
+        // Navigate to the last node of the prefix; the best completions 
+
+        // are already ranked there 
+
+        int node = find(prefix); 
+
+        if (node != NONE || prefix.isEmpty()) { 
+
+            addBest(words, node); 
+
+        } 
+
+        if (base != null) { 
+
+            int baseNode = base.find(prefix); 
+
+            if (baseNode != NONE || prefix.isEmpty()) { 
+
+                for (int i = 0; base.best(baseNode, i) != NONE; i++) { 
+
+                    baseWords.add(base.best(baseNode, i)); 
+
+                } 
+
+            } 
+
+        } 
+
+         
+
+        addRanked(suggestions, new HashSet<>(), words, baseWords); 
+
+        return suggestions; 
+
+    } 
+
+     
+
+    private void addBest(List<Integer> words, int node) { 
+
+        int start = bestStart[node]; 
+
+        for (int i = start; i < start + BEST_SIZES[bestSize[node]] && best.ints[i] != NONE; i++) { 
+
+            words.add(best.ints[i]); 
+
+        } 
+
+    } 
+
+     
+
+    // Adds the best words of both layers that are not chosen yet, each 
+
+    // list ranked best first. A word in both layers ranks by its combined 
+
+    // count; on a tie the heap's order comes first. 
+
+    private void addRanked(List<String> suggestions, Set<String> chosen, List<Integer> words, List<Integer> baseWords) { 
+
+        List<String> candidates = new ArrayList<>(); 
+
+        for (int i = 0; i < words.size() && candidates.size() < SUGGESTION_LIMIT; i++) { 
+
+            String word = spell(words.get(i)); 
+
+            if (!chosen.contains(word)) { 
+
+                candidates.add(word); 
+
+            } 
+
+        } 
+
+        int fromHeap = candidates.size(); 
+
+        for (int i = 0; i < baseWords.size() && candidates.size() < fromHeap + SUGGESTION_LIMIT; i++) { 
+
+            String word = base.spell(baseWords.get(i)); 
+
+            if (!chosen.contains(word) && !candidates.contains(word)) { 
+
+                candidates.add(word); 
+
+            } 
+
+        } 
+
+         
+
+        if (base != null) { 
+
+            Map<String, Long> totals = new HashMap<>(); 
+
+            for (String word : candidates) { 
+
+                int node = find(word); 
+
+                long count = node != NONE && endOfWord[node] ? counts[node] : 0; 
+
+                totals.put(word, count + Math.max(0, base.count(word))); 
+
+            } 
+
+            candidates.sort((a, b) -> Long.compare(totals.get(b), totals.get(a))); 
+
+        } 
+
+        for (String word : candidates) { 
+
+            if (suggestions.size() == SUGGESTION_LIMIT) { 
+
+                break; 
+
+            } 
+
+            if (chosen.add(word)) { 
+
+                suggestions.add(word); 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    // Words that start with something within maxDistance edits of the 
+
+    // typed text, ignoring case. An edit is an insertion, deletion, 
+
+    // substitution or swap of two neighbouring characters. Each trie level 
+
+    // extends a row of the edit distance table and a branch is dropped as 
+
+    // soon as its whole row is over the limit, so only a thin part of the 
+
+    // trie is visited. Closer matches come first, then more frequent words. 
+
+    public List<String> getFuzzySuggestions(String typed, int maxDistance) { 
+
+        char[] target = startRows(typed); 
+
+        if (matches.length < maxDistance + 1) { 
+
+            matches = new int[maxDistance + 1][16]; 
+
+            matchCounts = new int[maxDistance + 1]; 
+
+            baseMatches = new int[maxDistance + 1][16]; 
+
+            baseMatchCounts = new int[maxDistance + 1]; 
+
+        } 
+
+        Arrays.fill(matchCounts, 0); 
+
+        Arrays.fill(baseMatchCounts, 0); 
+
+         
+
+        // A node within reach covers every word below it at that distance 
+
+        int rootDistance = target.length; 
+
+        int covered = Math.min(rootDistance, maxDistance + 1); 
+
+        if (rootDistance <= maxDistance) { 
+
+            addMatch(matches, matchCounts, ROOT, rootDistance); 
+
+        } 
+
+        for (int e = edgeStart[ROOT]; e < edgeStart[ROOT] + edgeCount[ROOT]; e++) { 
+
+            searchFuzzy(edges.ints[e], 1, '\0', target, maxDistance, covered); 
+
+        } 
+
+        if (base != null) { 
+
+            if (rootDistance <= maxDistance) { 
+
+                addMatch(baseMatches, baseMatchCounts, ROOT, rootDistance); 
+
+            } 
+
+            for (int child = base.firstChild(ROOT); child < base.childEnd(ROOT); child++) { 
+
+                searchFuzzyBase(child, 1, '\0', target, maxDistance, covered); 
+
+            } 
+
+        } 
+
+         
+
+        // Fill the list from the closest matches outwards 
+
+        List<String> suggestions = new ArrayList<>(); 
+
+        Set<String> chosen = new HashSet<>(); 
+
+        List<Integer> words = new ArrayList<>(); 
+
+        List<Integer> baseWords = new ArrayList<>(); 
+
+        for (int d = 0; d <= maxDistance && suggestions.size() < SUGGESTION_LIMIT; d++) { 
+
+            words.clear(); 
+
+            for (int i = 0; i < matchCounts[d]; i++) { 
+
+                addBest(words, matches[d][i]); 
+
+            } 
+
+            words.sort((a, b) -> a.equals(b) ? 0 : ranksAbove(a, b) ? -1 : 1); 
+
+             
+
+            baseWords.clear(); 
+
+            for (int i = 0; i < baseMatchCounts[d]; i++) { 
+
+                for (int k = 0; base.best(baseMatches[d][i], k) != NONE; k++) { 
+
+                    baseWords.add(base.best(baseMatches[d][i], k)); 
+
+                } 
+
+            } 
+
+            baseWords.sort((a, b) -> base.count(a) != base.count(b) 
+
+                ? Integer.compare(base.count(b), base.count(a)) : Integer.compare(a, b)); 
+
+             
+
+            addRanked(suggestions, chosen, words, baseWords); 
+
+        } 
+
+        return suggestions; 
+
+    } 
+
+     
+
+    // Every whole word within maxDistance edits of the typed text, ignoring 
+
+    // case, in no particular order. Unlike the fuzzy suggestions, a word 
+
+    // that only starts with something close does not count, and the list is 
+
+    // not cut off at SUGGESTION_LIMIT. 
+
+    public List<String> getWordsWithin(String typed, int maxDistance) { 
+
+        char[] target = startRows(typed); 
+
+        Set<String> words = new LinkedHashSet<>(); 
+
+        for (int e = edgeStart[ROOT]; e < edgeStart[ROOT] + edgeCount[ROOT]; e++) { 
+
+            collectWithin(edges.ints[e], 1, '\0', target, maxDistance, words); 
+
+        } 
+
+        if (base != null) { 
+
+            for (int child = base.firstChild(ROOT); child < base.childEnd(ROOT); child++) { 
+
+                collectWithinBase(child, 1, '\0', target, maxDistance, words); 
+
+            } 
+
+        } 
+
+        return new ArrayList<>(words); 
+
+    } 
+
+     
+
+    private void collectWithin(int node, int depth, char parentLabel, char[] target, int maxDistance, 
+
+            Set<String> words) { 
+
+        char label = Character.toLowerCase(labels[node]); 
+
+        if (fillRow(depth, label, parentLabel, target) > maxDistance) { 
+
+            return; 
+
+        } 
+
+        if (endOfWord[node] && rows[depth][target.length] <= maxDistance) { 
+
+            words.add(spell(node)); 
+
+        } 
+
+        int end = edgeStart[node] + edgeCount[node]; 
+
+        for (int e = edgeStart[node]; e < end; e++) { 
+
+            collectWithin(edges.ints[e], depth + 1, label, target, maxDistance, words); 
+
+        } 
+
+    } 
+
+     
+
+    private void collectWithinBase(int node, int depth, char parentLabel, char[] target, int maxDistance, 
+
+            Set<String> words) { 
+
+        char label = Character.toLowerCase(base.label(node)); 
+
+        if (fillRow(depth, label, parentLabel, target) > maxDistance) { 
+
+            return; 
+
+        } 
+
+        if (base.count(node) >= 0 && rows[depth][target.length] <= maxDistance) { 
+
+            words.add(base.spell(node)); 
+
+        } 
+
+        int end = base.childEnd(node); 
+
+        for (int child = base.firstChild(node); child < end; child++) { 
+
+            collectWithinBase(child, depth + 1, label, target, maxDistance, words); 
+
+        } 
+
+    } 
+
+     
+
+    // The typed text in lower case, with the edit distance row of the root 
+
+    // filled in for it 
+
+    private char[] startRows(String typed) { 
+
+        char[] target = typed.toLowerCase().toCharArray(); 
+
+        if (rows[0] == null || rows[0].length < target.length + 1) { 
+
+            rows[0] = new int[target.length + 1]; 
+
+        } 
+
+        for (int j = 0; j <= target.length; j++) { 
+
+            rows[0][j] = j; 
+
+        } 
+
+        return target; 
+
+    } 
+
+     
+
+    private void searchFuzzy(int node, int depth, char parentLabel, char[] target, int maxDistance, int covered) { 
+
+        char label = Character.toLowerCase(labels[node]); 
+
+        if (fillRow(depth, label, parentLabel, target) > maxDistance) { 
+
+            return; // No word below can come back within reach 
+
+        } 
+
+         
+
+        // Only record nodes that bring their words closer than an ancestor did 
+
+        int distance = rows[depth][target.length]; 
+
+        if (distance < covered) { 
+
+            addMatch(matches, matchCounts, node, distance); 
+
+            covered = distance; 
+
+        } 
+
+        int end = edgeStart[node] + edgeCount[node]; 
+
+        for (int e = edgeStart[node]; e < end; e++) { 
+
+            searchFuzzy(edges.ints[e], depth + 1, label, target, maxDistance, covered); 
+
+        } 
+
+    } 
+
+     
+
+    // The same search over the mapped dictionary, whose children are 
+
+    // numbered consecutively 
+
+    private void searchFuzzyBase(int node, int depth, char parentLabel, char[] target, int maxDistance, int covered) { 
+
+        char label = Character.toLowerCase(base.label(node)); 
+
+        if (fillRow(depth, label, parentLabel, target) > maxDistance) { 
+
+            return; 
+
+        } 
+
+         
+
+        int distance = rows[depth][target.length]; 
+
+        if (distance < covered) { 
+
+            addMatch(baseMatches, baseMatchCounts, node, distance); 
+
+            covered = distance; 
+
+        } 
+
+        int end = base.childEnd(node); 
+
+        for (int child = base.firstChild(node); child < end; child++) { 
+
+            searchFuzzyBase(child, depth + 1, label, target, maxDistance, covered); 
+
+        } 
+
+    } 
+
+     
+
+    // Fills the edit distance row of a node at the given depth from the 
+
+    // rows above it and returns the smallest distance in it 
+
+    private int fillRow(int depth, char label, char parentLabel, char[] target) { 
+
+        if (rows.length <= depth) { 
+
+            rows = Arrays.copyOf(rows, rows.length * 2); 
+
+        } 
+
+        if (rows[depth] == null || rows[depth].length < target.length + 1) { 
+
+            rows[depth] = new int[target.length + 1]; 
+
+        } 
+
+        int[] row = rows[depth]; 
+
+        int[] previous = rows[depth - 1]; 
+
+        int[] beforePrevious = depth >= 2 ? rows[depth - 2] : null; 
+
+         
+
+        row[0] = depth; 
+
+        int smallest = depth; 
+
+        for (int j = 1; j <= target.length; j++) { 
+
+            int cost = label == target[j - 1] ? 0 : 1; 
+
+            int distance = Math.min(Math.min(previous[j] + 1, row[j - 1] + 1), previous[j - 1] + cost); 
+
+            if (beforePrevious != null && j >= 2 && label == target[j - 2] && parentLabel == target[j - 1]) { 
+
+                distance = Math.min(distance, beforePrevious[j - 2] + 1); // Swapped neighbours 
+
+            } 
+
+            row[j] = distance; 
+
+            smallest = Math.min(smallest, distance); 
+
+        } 
+
+        return smallest; 
+
+    } 
+
+     
+
+    private static void addMatch(int[][] matches, int[] matchCounts, int node, int distance) { 
+
+        if (matchCounts[distance] == matches[distance].length) { 
+
+            matches[distance] = Arrays.copyOf(matches[distance], matchCounts[distance] * 2); 
+
+        } 
+
+        matches[distance][matchCounts[distance]++] = node; 
+
+    } 
+
+     
+
+    private String spell(int node) { 
+
+        int depth = 0; 
+
+        for (int n = node; n != ROOT; n = parent[n]) { 
+
+            depth++; 
+
+        } 
+
+        char[] word = new char[depth]; 
+
+        for (int n = node; n != ROOT; n = parent[n]) { 
+
+            word[--depth] = labels[n]; 
+
+        } 
+
+        return new String(word); 
+
+    } 
+
+     
+
+    // A word moved up: place it in the lists of its node and ancestors. 
+
+    // Once it does not make a list it cannot make any list above it. 
+
+    private void promote(int word) { 
+
+        for (int node = word; ; node = parent[node]) { 
+
+            if (!placeInBest(node, word) || node == ROOT) { 
+
+                return; 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    private boolean placeInBest(int node, int word) { 
+
+        int start = bestStart[node]; 
+
+        int end = start + BEST_SIZES[bestSize[node]]; 
+
+         
+
+        // Take the word out if it is already listed 
+
+        for (int i = start; i < end && best.ints[i] != NONE; i++) { 
+
+            if (best.ints[i] == word) { 
+
+                System.arraycopy(best.ints, i + 1, best.ints, i, end - i - 1); 
+
+                best.ints[end - 1] = NONE; 
+
+                break; 
+
+            } 
+
+        } 
+
+         
+
+        // A full list that is still short of the limit grows instead of 
+
+        // dropping its last word 
+
+        if ((start == end || best.ints[end - 1] != NONE) && bestSize[node] < BEST_SIZES.length - 1) { 
+
+            resizeBest(node, bestSize[node] + 1); 
+
+            start = bestStart[node]; 
+
+            end = start + BEST_SIZES[bestSize[node]]; 
+
+        } 
+
+         
+
+        int position = start; 
+
+        while (position < end && best.ints[position] != NONE && !ranksAbove(word, best.ints[position])) { 
+
+            position++; 
+
+        } 
+
+        if (position == end) { 
+
+            return false; 
+
+        } 
+
+        System.arraycopy(best.ints, position, best.ints, position + 1, end - position - 1); 
+
+        best.ints[position] = word; 
+
+        return true; 
+
+    } 
+
+     
+
+    // Moves the list of a node into a block of another size, keeping as 
+
+    // many of its words as fit 
+
+    private void resizeBest(int node, int size) { 
+
+        int oldStart = bestStart[node]; 
+
+        int oldLength = BEST_SIZES[bestSize[node]]; 
+
+        int start = size == 0 ? 0 : best.allocate(size, BEST_SIZES[size]); 
+
+        int length = BEST_SIZES[size]; 
+
+        if (length > 0) { 
+
+            int kept = Math.min(oldLength, length); 
+
+            System.arraycopy(best.ints, oldStart, best.ints, start, kept); 
+
+            Arrays.fill(best.ints, start + kept, start + length, NONE); 
+
+        } 
+
+        if (oldLength > 0) { 
+
+            best.release(bestSize[node], oldStart); 
+
+        } 
+
+        bestStart[node] = start; 
+
+        bestSize[node] = (byte) size; 
+
+    } 
+
+     
+
+    // A word moved down or went away: rebuild the lists that held it from 
+
+    // the lists of the children, from its node up to the first list it was 
+
+    // not in 
+
+    private void demote(int word) { 
+
+        for (int node = word; ; node = parent[node]) { 
+
+            if (!isInBest(node, word)) { 
+
+                return; 
+
+            } 
+
+            rebuildBest(node); 
+
+            if (node == ROOT) { 
+
+                return; 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    private boolean isInBest(int node, int word) { 
+
+        int start = bestStart[node]; 
+
+        for (int i = start; i < start + BEST_SIZES[bestSize[node]] && best.ints[i] != NONE; i++) { 
+
+            if (best.ints[i] == word) { 
+
+                return true; 
+
+            } 
+
+        } 
+
+        return false; 
+
+    } 
+
+     
+
+    private void rebuildBest(int node) { 
+
+        int start = bestStart[node]; 
+
+        Arrays.fill(best.ints, start, start + BEST_SIZES[bestSize[node]], NONE); 
+
+        if (endOfWord[node]) { 
+
+            placeInBest(node, node); 
+
+        } 
+
+        int end = edgeStart[node] + edgeCount[node]; 
+
+        for (int e = edgeStart[node]; e < end; e++) { 
+
+            // Each child's list is ranked, so stop at its first word that does not fit 
+
+            int child = edges.ints[e]; 
+
+            int childStart = bestStart[child]; 
+
+            int childEnd = childStart + BEST_SIZES[bestSize[child]]; 
+
+            for (int i = childStart; i < childEnd && best.ints[i] != NONE; i++) { 
+
+                if (!placeInBest(node, best.ints[i])) { 
+
+                    break; 
+
+                } 
+
+            } 
+
+        } 
+
+         
+
+        // Give back the room the list no longer needs 
+
+        int listed = 0; 
+
+        while (listed < BEST_SIZES[bestSize[node]] && best.ints[bestStart[node] + listed] != NONE) { 
+
+            listed++; 
+
+        } 
+
+        int size = bestSize[node]; 
+
+        while (size > 0 && BEST_SIZES[size - 1] >= listed) { 
+
+            size--; 
+
+        } 
+
+        if (size != bestSize[node]) { 
+
+            resizeBest(node, size); 
+
+        } 
+
+    } 
+
+     
+
+    // Frees the nodes of an evicted word that no other word passes through 
+
+    private void prune(int node) { 
+
+        while (node != ROOT && !endOfWord[node] && edgeCount[node] == 0) { 
+
+            int up = parent[node]; 
+
+            removeEdge(up, labels[node]); 
+
+            if (bestSize[node] != 0) { 
+
+                resizeBest(node, 0); 
+
+            } 
+
+            parent[node] = freeNodes; 
+
+            freeNodes = node; 
+
+            node = up; 
+
+        } 
+
+    } 
+
+     
+
+    // More frequent words first; ties keep the order words were added in 
+
+    private boolean ranksAbove(int word, int other) { 
+
+        return counts[word] > counts[other] || (counts[word] == counts[other] && word < other); 
+
+    } 
+
+     
+
+    private int child(int node, char label) { 
+
+        int edge = findEdge(node, label); 
+
+        return edge >= 0 ? edges.ints[edgeStart[node] + edge] : NONE; 
+
+    } 
+
+     
+
+    // The position of the edge with this label among the node's edges, 
+
+    // or -(insertion point) - 1 when there is none 
+
+    private int findEdge(int node, char label) { 
+
+        int start = edgeStart[node]; 
+
+        int found = Arrays.binarySearch(edges.chars, start, start + edgeCount[node], label); 
+
+        return found >= 0 ? found - start : found + start; 
+
+    } 
+
+     
+
+    private int childOrCreate(int node, char label) { 
+
+        int edge = findEdge(node, label); 
+
+        if (edge >= 0) { 
+
+            return edges.ints[edgeStart[node] + edge]; 
+
+        } 
+
+         
+
+        int created; 
+
+        if (freeNodes != NONE) { 
+
+            created = freeNodes; 
+
+            freeNodes = parent[created]; 
+
+            edgeStart[created] = 0; 
+
+            edgeCount[created] = 0; 
+
+            endOfWord[created] = false; 
+
+            counts[created] = 0; 
+
+            pinned[created] = false; 
+
+        } else { 
+
+            if (nodeCount == labels.length) { 
+
+                int capacity = nodeCount * 2; 
+
+                labels = Arrays.copyOf(labels, capacity); 
+
+                parent = Arrays.copyOf(parent, capacity); 
+
+                edgeStart = Arrays.copyOf(edgeStart, capacity); 
+
+                edgeCount = Arrays.copyOf(edgeCount, capacity); 
+
+                endOfWord = Arrays.copyOf(endOfWord, capacity); 
+
+                counts = Arrays.copyOf(counts, capacity); 
+
+                pinned = Arrays.copyOf(pinned, capacity); 
+
+                bestStart = Arrays.copyOf(bestStart, capacity); 
+
+                bestSize = Arrays.copyOf(bestSize, capacity); 
+
+            } 
+
+            created = nodeCount++; 
+
+        } 
+
+        labels[created] = label; 
+
+        parent[created] = node; 
+
+        insertEdge(node, -edge - 1, label, created); 
+
+        return created; 
+
+    } 
+
+     
+
+    // Edge blocks hold a power of two edges, just enough for the count 
+
+    private static int edgeBlockSize(int count) { 
+
+        return count <= 1 ? count : Integer.highestOneBit(count - 1) << 1; 
+
+    } 
+
+     
+
+    private void insertEdge(int node, int position, char label, int child) { 
+
+        int start = edgeStart[node]; 
+
+        int count = edgeCount[node]; 
+
+        if (count == edgeBlockSize(count)) { 
+
+            // Full: move to a block twice the size 
+
+            int size = edgeBlockSize(count + 1); 
+
+            int moved = edges.allocate(Integer.numberOfTrailingZeros(size), size); 
+
+            System.arraycopy(edges.chars, start, edges.chars, moved, position); 
+
+            System.arraycopy(edges.ints, start, edges.ints, moved, position); 
+
+            System.arraycopy(edges.chars, start + position, edges.chars, moved + position + 1, count - position); 
+
+            System.arraycopy(edges.ints, start + position, edges.ints, moved + position + 1, count - position); 
+
+            if (count > 0) { 
+
+                edges.release(Integer.numberOfTrailingZeros(count), start); 
+
+            } 
+
+            start = moved; 
+
+            edgeStart[node] = moved; 
+
+        } else { 
+
+            System.arraycopy(edges.chars, start + position, edges.chars, start + position + 1, count - position); 
+
+            System.arraycopy(edges.ints, start + position, edges.ints, start + position + 1, count - position); 
+
+        } 
+
+        edges.chars[start + position] = label; 
+
+        edges.ints[start + position] = child; 
+
+        edgeCount[node] = count + 1; 
+
+    } 
+
+     
+
+    private void removeEdge(int node, char label) { 
+
+        int start = edgeStart[node]; 
+
+        int count = edgeCount[node]; 
+
+        int position = findEdge(node, label); 
+
+        int size = edgeBlockSize(count - 1); 
+
+        if (size < edgeBlockSize(count)) { 
+
+            // Down to half the block: move to the smaller one 
+
+            int moved = size == 0 ? 0 : edges.allocate(Integer.numberOfTrailingZeros(size), size); 
+
+            System.arraycopy(edges.chars, start, edges.chars, moved, position); 
+
+            System.arraycopy(edges.ints, start, edges.ints, moved, position); 
+
+            System.arraycopy(edges.chars, start + position + 1, edges.chars, moved + position, count - position - 1); 
+
+            System.arraycopy(edges.ints, start + position + 1, edges.ints, moved + position, count - position - 1); 
+
+            edges.release(Integer.numberOfTrailingZeros(edgeBlockSize(count)), start); 
+
+            edgeStart[node] = moved; 
+
+        } else { 
+
+            System.arraycopy(edges.chars, start + position + 1, edges.chars, start + position, count - position - 1); 
+
+            System.arraycopy(edges.ints, start + position + 1, edges.ints, start + position, count - position - 1); 
+
+        } 
+
+        edgeCount[node] = count - 1; 
+
+    } 
+
+     
+
+    // Hands out blocks of a few fixed sizes from shared arrays. A freed 
+
+    // block goes on the free list of its size class, chained through its 
+
+    // first int, and is reused before the arrays grow. Offset 0 is never 
+
+    // handed out, so it marks a node that has no block. 
+
+    static final class BlockPool { 
+
+        int[] ints = new int[256]; 
+
+        char[] chars; // Only for edge labels 
+
+        private int used = 1; 
+
+        private final int[] free; 
+
+         
+
+        BlockPool(int sizeClasses, boolean withChars) { 
+
+            free = new int[sizeClasses]; 
+
+            chars = withChars ? new char[ints.length] : null; 
+
+        } 
+
+         
+
+        int allocate(int sizeClass, int length) { 
+
+            int start = free[sizeClass]; 
+
+            if (start != 0) { 
+
+                free[sizeClass] = ints[start]; 
+
+                return start; 
+
+            } 
+
+            if (used + length > ints.length) { 
+
+                int capacity = Math.max(ints.length * 2, used + length); 
+
+                ints = Arrays.copyOf(ints, capacity); 
+
+                if (chars != null) { 
+
+                    chars = Arrays.copyOf(chars, capacity); 
+
+                } 
+
+            } 
+
+            start = used; 
+
+            used += length; 
+
+            return start; 
+
+        } 
+
+         
+
+        void release(int sizeClass, int start) { 
+
+            ints[start] = free[sizeClass]; 
+
+            free[sizeClass] = start; 
+
+        } 
+
+         
+
+        long memorySize() { 
+
+            return (long) ints.length * Integer.BYTES + (chars != null ? (long) chars.length * Character.BYTES : 0); 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,1397 @@
+package smarteditor; 
+
+ 
+
+import java.io.*; 
+
+import java.nio.BufferUnderflowException; 
+
+import java.nio.ByteBuffer; 
+
+import java.nio.MappedByteBuffer; 
+
+import java.nio.channels.FileChannel; 
+
+import java.nio.charset.StandardCharsets; 
+
+import java.nio.file.Files; 
+
+import java.nio.file.Path; 
+
+import java.nio.file.StandardCopyOption; 
+
+import java.nio.file.StandardOpenOption; 
+
+import java.util.*; 
+
+import java.util.concurrent.ExecutorService; 
+
+import java.util.concurrent.Executors; 
+
+import java.util.function.Consumer; 
+
+import java.util.stream.Stream; 
+
+import java.util.zip.CRC32; 
+
+ 
+
+// The on-disk journal of a file's undo tree. Each change to the tree is 
+
+// appended as a record with a CRC32 checksum to a memory-mapped file under 
+
+// ~/.smarteditor/journal, so the history outlives the editor: whatever 
+
+// reached the mapping survives a crash, and a record cut short fails its 
+
+// checksum and ends the journal there. 
+
+// 
+
+// Records name states by sequence number: a new state with its parent and 
+
+// edit, a keystroke merged into a state, a move to a state, a state 
+
+// pruned past the memory budget, and the state last saved with the 
+
+// file's size and time. Once the records outnumber the states, the tree 
+
+// is written as one record per state to a new file in the background, 
+
+// the records made meanwhile are copied after it, and the new file is 
+
+// renamed over the old one. Reopening a file reads that image plus the 
+
+// records since, not every keystroke of the past. The background thread 
+
+// rebuilds the tree from the records itself, so the editor only notes 
+
+// where they end. 
+
+// 
+
+// The journal of a document that was never saved lives in the recovery 
+
+// folder instead, with the empty text it started from as its saved 
+
+// state, and is deleted when it is closed. So is a file's journal that 
+
+// holds no history, and journals of files not opened for a month, or 
+
+// the oldest past a total size, are deleted when an editor starts. 
+
+// 
+
+// Layout, big-endian: magic and version, then records of length, 
+
+// checksum, type and fields. Text is stored as UTF-16 so any edit 
+
+// round-trips exactly. 
+
+class UndoJournal { 
+
+    private static final Path DIRECTORY = Path.of(System.getProperty("user.home"), ".smarteditor", "journal"); 
+
+    private static final int MAGIC = 0x53454A4C; // "SEJL" 
+
+    private static final int VERSION = 1; 
+
+    private static final int HEADER_SIZE = 8; 
+
+    private static final int RECORD_HEADER = 8; // Length and checksum 
+
+    private static final int MIN_CAPACITY = 64 * 1024; 
+
+    private static final int COMPACT_RECORDS = 4096; 
+
+    private static final long MAX_AGE = 30L * 24 * 60 * 60 * 1000; 
+
+    private static final long MAX_TOTAL_SIZE = 256L * 1024 * 1024; 
+
+    private static final byte[] ZEROS = new byte[8192]; 
+
+     
+
+    private static final byte ROOT = 1; 
+
+    private static final byte STATE = 2; 
+
+    private static final byte MERGE = 3; 
+
+    private static final byte MOVE = 4; 
+
+    private static final byte BRANCH = 5; 
+
+    private static final byte CURRENT = 6; 
+
+    private static final byte SAVED = 7; 
+
+    private static final byte PRUNE = 8; 
+
+     
+
+    private static final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> { 
+
+        Thread thread = new Thread(runnable, "undo journal"); 
+
+        thread.setDaemon(true); 
+
+        return thread; 
+
+    }); 
+
+     
+
+    // How many journals this editor has open at each path, so closing one 
+
+    // never deletes a file that another still writes to 
+
+    private static final Map<Path, Integer> openPaths = new HashMap<>(); 
+
+     
+
+    private final Path path; 
+
+    private final CRC32 checksum = new CRC32(); 
+
+    private FileChannel channel; 
+
+    private MappedByteBuffer buffer; 
+
+    private int end; // Where the next record goes 
+
+    private int dirtyEnd; // Nothing past it was ever written 
+
+    private UndoTree tree; 
+
+    private SavedState saved; 
+
+    private int records; // Since the last compaction 
+
+    private int compactedStates; 
+
+    private List<byte[]> carried; // Records made while compacting, or null 
+
+    private long lastState = -1; // Where the tree was when the journal was last written 
+
+    private boolean temporary; 
+
+    private boolean unflushed; 
+
+    private boolean closed; 
+
+    private boolean discarded; // Deleted on close 
+
+    private boolean counted; // In openPaths 
+
+     
+
+    private UndoJournal(Path path) throws IOException { 
+
+        this.path = path; 
+
+        Files.createDirectories(path.getParent()); 
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE); 
+
+        try { 
+
+            if (channel.size() > Integer.MAX_VALUE) { 
+
+                throw new IOException("Undo journal is too large"); 
+
+            } 
+
+            dirtyEnd = (int) channel.size(); 
+
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), MIN_CAPACITY)); 
+
+        } catch (IOException e) { 
+
+            channel.close(); 
+
+            throw e; 
+
+        } 
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) { 
+
+            buffer.putInt(0, MAGIC).putInt(4, VERSION); 
+
+            clearFrom(HEADER_SIZE); 
+
+        } 
+
+        end = HEADER_SIZE; 
+
+    } 
+
+     
+
+    // Opens the journal of a file that was just read and rebuilds its 
+
+    // history into the empty tree, at the state the file was saved in. A 
+
+    // journal that is damaged, or was last saved with a different file, 
+
+    // is started over with the file as it is now. 
+
+    public static UndoJournal open(File file, UndoTree tree, long fileSize, long fileModified, int length) 
+
+            throws IOException { 
+
+        return open(pathFor(file), tree, new SavedState(-1, fileSize, fileModified, length)); 
+
+    } 
+
+     
+
+    // Opens the journal of an unsaved document, whose text was empty 
+
+    public static UndoJournal openUntitled(Path path, UndoTree tree) throws IOException { 
+
+        UndoJournal journal = open(path, tree, new SavedState(-1, 0, 0, 0)); 
+
+        journal.temporary = true; 
+
+        return journal; 
+
+    } 
+
+     
+
+    private static UndoJournal open(Path path, UndoTree tree, SavedState file) throws IOException { 
+
+        UndoJournal journal = new UndoJournal(path); 
+
+        journal.count(); 
+
+        boolean restored; 
+
+        try { 
+
+            restored = journal.restore(tree, file); 
+
+            if (restored) { 
+
+                journal.clearFrom(journal.end); 
+
+                journal.writeMove(MOVE, tree.getCurrentSequence()); 
+
+            } else { 
+
+                tree.clear(); 
+
+                journal.end = HEADER_SIZE; 
+
+                journal.clearFrom(HEADER_SIZE); 
+
+                journal.writeMove(ROOT, tree.getCurrentSequence()); 
+
+                journal.writeSaved(new SavedState(tree.getCurrentSequence(), file.fileSize, 
+
+                    file.fileModified, file.length)); 
+
+            } 
+
+        } catch (IOException e) { 
+
+            journal.close(); 
+
+            throw e; 
+
+        } 
+
+        journal.attach(tree); 
+
+        if (restored) { 
+
+            tree.finishRestore(); // Journals what it prunes 
+
+        } 
+
+        return journal; 
+
+    } 
+
+     
+
+    // Starts the journal of a file saved under a new name with the tree 
+
+    // as it is; the tree is written out in the background 
+
+    public static UndoJournal create(File file, UndoTree tree) throws IOException { 
+
+        return create(pathFor(file), tree); 
+
+    } 
+
+     
+
+    // Starts the journal of an unsaved document; its text was empty in 
+
+    // the given state. Once older states are pruned past that one, the 
+
+    // journal can no longer be opened. 
+
+    public static UndoJournal createUntitled(Path path, UndoTree tree, long emptyState) throws IOException { 
+
+        UndoJournal journal = create(path, tree); 
+
+        journal.temporary = true; 
+
+        journal.saved(emptyState, 0, 0, 0); 
+
+        return journal; 
+
+    } 
+
+     
+
+    // The one image taken from the tree itself; the journal has no 
+
+    // records of it to rebuild it from 
+
+    private static UndoJournal create(Path path, UndoTree tree) throws IOException { 
+
+        UndoJournal journal = new UndoJournal(path); 
+
+        journal.count(); 
+
+        journal.clearFrom(HEADER_SIZE); 
+
+        journal.tree = tree; 
+
+        tree.setJournal(journal); 
+
+        TreeImage image = new TreeImage(tree, null); 
+
+        journal.carried = new ArrayList<>(); 
+
+        compactor.execute(() -> journal.writeCompacted(image, null, 0)); 
+
+        return journal; 
+
+    } 
+
+     
+
+    // Deletes the journals of files not opened for MAX_AGE, then the 
+
+    // oldest ones until the rest fit in MAX_TOTAL_SIZE. A journal in use 
+
+    // is written to all the time, so it is never among the oldest. 
+
+    public static void pruneOld() { 
+
+        if (!Files.isDirectory(DIRECTORY)) { 
+
+            return; 
+
+        } 
+
+        List<File> journals = new ArrayList<>(); 
+
+        try (Stream<Path> files = Files.list(DIRECTORY)) { 
+
+            files.map(Path::toFile).filter(File::isFile).forEach(journals::add); 
+
+        } catch (IOException e) { 
+
+            System.err.println("Error pruning undo journals: " + e.getMessage()); 
+
+            return; 
+
+        } 
+
+         
+
+        journals.sort(Comparator.comparingLong(File::lastModified).reversed()); 
+
+        long now = System.currentTimeMillis(); 
+
+        long total = 0; 
+
+        for (File journal : journals) { 
+
+            total += journal.length(); 
+
+            if (now - journal.lastModified() > MAX_AGE || total > MAX_TOTAL_SIZE) { 
+
+                Path file = journal.toPath(); 
+
+                try { 
+
+                    Files.deleteIfExists(file); 
+
+                } catch (IOException e) { 
+
+                    System.err.println("Error deleting " + file + ": " + e.getMessage()); 
+
+                } 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    private static Path pathFor(File file) { 
+
+        byte[] name = file.getAbsolutePath().getBytes(StandardCharsets.UTF_8); 
+
+        return DIRECTORY.resolve(UUID.nameUUIDFromBytes(name) + ".journal"); 
+
+    } 
+
+     
+
+    public boolean isFor(File file) { 
+
+        return path.equals(pathFor(file)); 
+
+    } 
+
+     
+
+    public Path getPath() { 
+
+        return path; 
+
+    } 
+
+     
+
+    // The state the tree was in when the journal was last written, or -1 
+
+    // if it was started over; after a crash, that is the unsaved work 
+
+    public long getLastState() { 
+
+        return lastState; 
+
+    } 
+
+     
+
+    // Replays the records up to the first one that is cut short or fails 
+
+    // its checksum. Returns true if they end up saved with the given file, 
+
+    // in which case the tree is moved to that state. 
+
+    private boolean restore(UndoTree tree, SavedState file) { 
+
+        Replay replay = new Replay(tree); 
+
+        if (!replay.run(buffer, buffer.capacity())) { 
+
+            return false; 
+
+        } 
+
+         
+
+        long reached = tree.getCurrentSequence(); 
+
+        SavedState last = replay.saved; 
+
+        if (last == null || !last.sameFile(file) || !tree.restoreMove(last.sequence)) { 
+
+            return false; 
+
+        } 
+
+        lastState = reached; 
+
+        saved = last; 
+
+        end = replay.position; 
+
+        records = replay.records; 
+
+        compactedStates = tree.size(); 
+
+        return true; 
+
+    } 
+
+     
+
+    private void attach(UndoTree tree) { 
+
+        this.tree = tree; 
+
+        tree.setJournal(this); 
+
+        if (records > Math.max(COMPACT_RECORDS, 2 * compactedStates)) { 
+
+            compact(); 
+
+        } 
+
+    } 
+
+     
+
+    public void added(long sequence, long parent, TextEdit edit) { 
+
+        append(STATE, 16 + editSize(edit), out -> putEdit(out.putLong(sequence).putLong(parent), edit)); 
+
+    } 
+
+     
+
+    public void merged(long sequence, TextEdit edit) { 
+
+        append(MERGE, 8 + editSize(edit), out -> putEdit(out.putLong(sequence), edit)); 
+
+    } 
+
+     
+
+    public void moved(long sequence) { 
+
+        append(MOVE, 8, out -> out.putLong(sequence)); 
+
+    } 
+
+     
+
+    public void pruned(long sequence) { 
+
+        append(PRUNE, 8, out -> out.putLong(sequence)); 
+
+    } 
+
+     
+
+    // Marks the state the file on disk now holds 
+
+    public synchronized void saved(long sequence, long fileSize, long fileModified, int length) { 
+
+        saved = new SavedState(sequence, fileSize, fileModified, length); 
+
+        append(SAVED, 28, saved::put); 
+
+    } 
+
+     
+
+    // Forces the records written since the last flush to disk. Until 
+
+    // then they are safe from the editor crashing but not the system. 
+
+    public void flush() { 
+
+        MappedByteBuffer written; 
+
+        synchronized (this) { 
+
+            if (closed || !unflushed) { 
+
+                return; 
+
+            } 
+
+            unflushed = false; 
+
+            written = buffer; 
+
+        } 
+
+        written.force(); 
+
+    } 
+
+     
+
+    private void writeMove(byte type, long sequence) throws IOException { 
+
+        write(type, 8, out -> out.putLong(sequence)); 
+
+    } 
+
+     
+
+    private void writeSaved(SavedState state) throws IOException { 
+
+        write(SAVED, 28, state::put); 
+
+    } 
+
+     
+
+    // Writing stops at the first failure; editing goes on without it 
+
+    private synchronized void append(byte type, int size, Consumer<ByteBuffer> fields) { 
+
+        if (closed) { 
+
+            return; 
+
+        } 
+
+        try { 
+
+            write(type, size, fields); 
+
+        } catch (IOException e) { 
+
+            System.err.println("Error writing undo journal: " + e.getMessage()); 
+
+            close(); 
+
+        } 
+
+    } 
+
+     
+
+    private void write(byte type, int size, Consumer<ByteBuffer> fields) throws IOException { 
+
+        long needed = (long) end + RECORD_HEADER + 1 + size; 
+
+        if (needed > buffer.capacity()) { 
+
+            if (needed > Integer.MAX_VALUE) { 
+
+                throw new IOException("Undo journal is full"); 
+
+            } 
+
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, 
+
+                Math.min(Integer.MAX_VALUE, Math.max(needed, 2L * buffer.capacity()))); 
+
+        } 
+
+        int start = end + RECORD_HEADER; 
+
+        buffer.position(start); 
+
+        buffer.put(type); 
+
+        fields.accept(buffer); 
+
+        int length = buffer.position() - start; 
+
+         
+
+        checksum.reset(); 
+
+        checksum.update(buffer.slice(start, length)); 
+
+        buffer.putInt(end + 4, (int) checksum.getValue()); 
+
+        buffer.putInt(end, length); // Last, so the record is whole once it has a length 
+
+        if (carried != null) { 
+
+            byte[] record = new byte[RECORD_HEADER + length]; 
+
+            buffer.get(end, record); 
+
+            carried.add(record); 
+
+        } 
+
+        end = start + length; 
+
+        dirtyEnd = Math.max(dirtyEnd, end); 
+
+        records++; 
+
+        unflushed = true; 
+
+        if (carried == null && tree != null && records > Math.max(COMPACT_RECORDS, 2 * compactedStates)) { 
+
+            compact(); 
+
+        } 
+
+    } 
+
+     
+
+    // Copies a record made while compacting into the new file 
+
+    private void writeCopy(byte[] record) throws IOException { 
+
+        write(record[RECORD_HEADER], record.length - RECORD_HEADER - 1, 
+
+            out -> out.put(record, RECORD_HEADER + 1, record.length - RECORD_HEADER - 1)); 
+
+    } 
+
+     
+
+    // Notes where the records end and writes the tree they make out on 
+
+    // the journal thread 
+
+    private void compact() { 
+
+        ByteBuffer source = buffer.duplicate(); 
+
+        int upTo = end; 
+
+        carried = new ArrayList<>(); 
+
+        compactor.execute(() -> writeCompacted(null, source, upTo)); 
+
+    } 
+
+     
+
+    // Builds the new file without holding the journal's lock, which 
+
+    // append needs on the editor's thread: the image, the records carried 
+
+    // so far and forcing it to disk. The rename over the old file, the 
+
+    // last few carried records and the switch to the new file happen under 
+
+    // the lock, so once close returns nothing here touches the path again. 
+
+    private void writeCompacted(TreeImage image, ByteBuffer source, int upTo) { 
+
+        Path temp = path.resolveSibling(path.getFileName() + ".compacting"); 
+
+        UndoJournal compacted = null; 
+
+        boolean moved = false; 
+
+        try { 
+
+            if (image == null) { 
+
+                image = replayImage(source, upTo); 
+
+            } 
+
+            Files.deleteIfExists(temp); 
+
+            compacted = new UndoJournal(temp); 
+
+            compacted.write(image); 
+
+            int copied = copyCarried(compacted, 0); 
+
+            compacted.buffer.force(); 
+
+            synchronized (this) { 
+
+                if (closed) { 
+
+                    carried = null; 
+
+                    return; // Close has dealt with the old file 
+
+                } 
+
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE); 
+
+                moved = true; 
+
+                for (int i = copied; i < carried.size(); i++) { 
+
+                    compacted.writeCopy(carried.get(i)); 
+
+                } 
+
+                records = carried.size(); 
+
+                carried = null; 
+
+                channel.close(); 
+
+                channel = compacted.channel; 
+
+                buffer = compacted.buffer; 
+
+                end = compacted.end; 
+
+                dirtyEnd = compacted.dirtyEnd; 
+
+                compactedStates = image.sequences.length + 1; 
+
+                unflushed = true; 
+
+                compacted = null; 
+
+            } 
+
+        } catch (IOException e) { 
+
+            System.err.println("Error compacting undo journal: " + e.getMessage()); 
+
+            synchronized (this) { 
+
+                carried = null; 
+
+                records = 0; // Try again after as many records 
+
+                if (moved) { 
+
+                    close(); // Records since the rename went to the old file 
+
+                } 
+
+            } 
+
+        } finally { 
+
+            if (compacted != null) { 
+
+                compacted.close(); 
+
+                try { 
+
+                    Files.deleteIfExists(temp); 
+
+                } catch (IOException e) { 
+
+                    System.err.println("Error compacting undo journal: " + e.getMessage()); 
+
+                } 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    // Copies the records carried from the given one on, taking each batch 
+
+    // under the lock, and returns how many have been copied 
+
+    private int copyCarried(UndoJournal compacted, int copied) throws IOException { 
+
+        while (true) { 
+
+            List<byte[]> batch; 
+
+            synchronized (this) { 
+
+                if (closed || copied == carried.size()) { 
+
+                    return copied; 
+
+                } 
+
+                batch = new ArrayList<>(carried.subList(copied, carried.size())); 
+
+            } 
+
+            for (byte[] record : batch) { 
+
+                compacted.writeCopy(record); 
+
+            } 
+
+            copied += batch.size(); 
+
+        } 
+
+    } 
+
+     
+
+    // The tree made by the records before the given position, rebuilt on 
+
+    // the journal thread. Restoring never prunes by itself; the states 
+
+    // pruned while editing have records of their own. 
+
+    private static TreeImage replayImage(ByteBuffer source, int upTo) throws IOException { 
+
+        UndoTree tree = new UndoTree(); 
+
+        Replay replay = new Replay(tree); 
+
+        if (!replay.run(source, upTo) || replay.position != upTo) { 
+
+            throw new IOException("Records do not rebuild the history"); 
+
+        } 
+
+        return new TreeImage(tree, replay.saved); 
+
+    } 
+
+     
+
+    private void write(TreeImage image) throws IOException { 
+
+        writeMove(ROOT, image.root); 
+
+        for (int i = 0; i < image.sequences.length; i++) { 
+
+            long sequence = image.sequences[i]; 
+
+            long parent = image.parents[i]; 
+
+            TextEdit edit = image.edits[i]; 
+
+            write(STATE, 16 + editSize(edit), out -> putEdit(out.putLong(sequence).putLong(parent), edit)); 
+
+        } 
+
+        for (int i = 0; i < image.branchParents.length; i++) { 
+
+            long parent = image.branchParents[i]; 
+
+            long child = image.branchChildren[i]; 
+
+            write(BRANCH, 16, out -> out.putLong(parent).putLong(child)); 
+
+        } 
+
+        writeMove(CURRENT, image.current); 
+
+        if (image.saved != null) { 
+
+            writeSaved(image.saved); 
+
+        } 
+
+    } 
+
+     
+
+    // Zeroes whatever follows the last record, so nothing left from an 
+
+    // earlier journal or a torn write is read as if it came after it. 
+
+    // Past what the file held when it was opened it is zero already, and 
+
+    // left alone so the file stays sparse. 
+
+    private void clearFrom(int position) { 
+
+        for (int at = position; at < dirtyEnd; at += ZEROS.length) { 
+
+            buffer.put(at, ZEROS, 0, Math.min(ZEROS.length, dirtyEnd - at)); 
+
+        } 
+
+        dirtyEnd = Math.min(dirtyEnd, position); 
+
+    } 
+
+     
+
+    private void count() { 
+
+        synchronized (openPaths) { 
+
+            openPaths.merge(path, 1, Integer::sum); 
+
+        } 
+
+        counted = true; 
+
+    } 
+
+     
+
+    // Whether another journal still has the path open once this one is not 
+
+    private boolean uncount() { 
+
+        synchronized (openPaths) { 
+
+            return openPaths.computeIfPresent(path, (p, count) -> count == 1 ? null : count - 1) != null; 
+
+        } 
+
+    } 
+
+     
+
+    public synchronized void close() { 
+
+        if (closed) { 
+
+            return; 
+
+        } 
+
+        closed = true; 
+
+        // With nothing to undo or redo it would only restore the file as it is 
+
+        boolean shared = counted && uncount(); 
+
+        discarded = !shared && (temporary || (tree != null && tree.size() == 1)); 
+
+        if (tree != null) { 
+
+            tree.setJournal(null); 
+
+            tree = null; 
+
+        } 
+
+        try { 
+
+            buffer.force(); 
+
+            channel.close(); 
+
+            if (discarded) { 
+
+                Files.deleteIfExists(path); 
+
+            } 
+
+        } catch (IOException e) { 
+
+            System.err.println("Error closing undo journal: " + e.getMessage()); 
+
+        } 
+
+    } 
+
+     
+
+    private static int editSize(TextEdit edit) { 
+
+        return 12 + 2 * (edit.removed.length() + edit.inserted.length()); 
+
+    } 
+
+     
+
+    private static ByteBuffer putEdit(ByteBuffer out, TextEdit edit) { 
+
+        out.putInt(edit.offset); 
+
+        putString(out, edit.removed); 
+
+        putString(out, edit.inserted); 
+
+        return out; 
+
+    } 
+
+     
+
+    private static void putString(ByteBuffer out, String text) { 
+
+        out.putInt(text.length()); 
+
+        out.asCharBuffer().put(text); 
+
+        out.position(out.position() + 2 * text.length()); 
+
+    } 
+
+     
+
+    private static TextEdit getEdit(ByteBuffer in) { 
+
+        int offset = in.getInt(); 
+
+        String removed = getString(in); 
+
+        return new TextEdit(offset, removed, getString(in)); 
+
+    } 
+
+     
+
+    private static String getString(ByteBuffer in) { 
+
+        int length = in.getInt(); 
+
+        if (length < 0 || length > in.remaining() / 2) { 
+
+            throw new BufferUnderflowException(); 
+
+        } 
+
+        char[] text = new char[length]; 
+
+        in.asCharBuffer().get(text); 
+
+        in.position(in.position() + 2 * length); 
+
+        return new String(text); 
+
+    } 
+
+     
+
+    // Reads records from the start of a journal into an empty tree 
+
+    private static final class Replay { 
+
+        final UndoTree tree; 
+
+        final CRC32 checksum = new CRC32(); 
+
+        SavedState saved; // The last save recorded 
+
+        int position = HEADER_SIZE; // After the last whole record 
+
+        int records; 
+
+         
+
+        Replay(UndoTree tree) { 
+
+            this.tree = tree; 
+
+        } 
+
+         
+
+        // Replays the records before the limit, stopping at the first one 
+
+        // that is cut short or fails its checksum. Returns false for a 
+
+        // record that does not fit the tree. 
+
+        boolean run(ByteBuffer buffer, int limit) { 
+
+            boolean rooted = false; 
+
+            try { 
+
+                while (limit - position >= RECORD_HEADER) { 
+
+                    int length = buffer.getInt(position); 
+
+                    if (length <= 0 || length > limit - position - RECORD_HEADER) { 
+
+                        break; 
+
+                    } 
+
+                    ByteBuffer record = buffer.slice(position + RECORD_HEADER, length); 
+
+                    checksum.reset(); 
+
+                    checksum.update(record.duplicate()); 
+
+                    if ((int) checksum.getValue() != buffer.getInt(position + 4)) { 
+
+                        break; 
+
+                    } 
+
+                     
+
+                    byte type = record.get(); 
+
+                    boolean fits; 
+
+                    if (type == ROOT) { 
+
+                        tree.restoreRoot(record.getLong()); 
+
+                        rooted = true; 
+
+                        fits = true; 
+
+                    } else if (!rooted) { 
+
+                        fits = false; 
+
+                    } else if (type == STATE) { 
+
+                        fits = tree.restoreState(record.getLong(), record.getLong(), getEdit(record)); 
+
+                    } else if (type == MERGE) { 
+
+                        fits = tree.restoreMerge(record.getLong(), getEdit(record)); 
+
+                    } else if (type == MOVE) { 
+
+                        fits = tree.restoreMove(record.getLong()); 
+
+                    } else if (type == BRANCH) { 
+
+                        fits = tree.restoreBranch(record.getLong(), record.getLong()); 
+
+                    } else if (type == CURRENT) { 
+
+                        fits = tree.restoreCurrent(record.getLong()); 
+
+                    } else if (type == PRUNE) { 
+
+                        fits = tree.restorePrune(record.getLong()); 
+
+                    } else if (type == SAVED) { 
+
+                        saved = new SavedState(record.getLong(), record.getLong(), record.getLong(), record.getInt()); 
+
+                        fits = true; 
+
+                    } else { 
+
+                        fits = false; 
+
+                    } 
+
+                    if (!fits) { 
+
+                        return false; 
+
+                    } 
+
+                    position += RECORD_HEADER + length; 
+
+                    records++; 
+
+                } 
+
+            } catch (BufferUnderflowException e) { 
+
+                return false; // A record shorter than its fields 
+
+            } 
+
+            return true; 
+
+        } 
+
+    } 
+
+     
+
+    // The state a save wrote, and the file as the save left it 
+
+    private static final class SavedState { 
+
+        final long sequence; 
+
+        final long fileSize; 
+
+        final long fileModified; 
+
+        final int length; // Of the text, in characters 
+
+         
+
+        SavedState(long sequence, long fileSize, long fileModified, int length) { 
+
+            this.sequence = sequence; 
+
+            this.fileSize = fileSize; 
+
+            this.fileModified = fileModified; 
+
+            this.length = length; 
+
+        } 
+
+         
+
+        boolean sameFile(SavedState other) { 
+
+            return fileSize == other.fileSize && fileModified == other.fileModified && length == other.length; 
+
+        } 
+
+         
+
+        void put(ByteBuffer out) { 
+
+            out.putLong(sequence).putLong(fileSize).putLong(fileModified).putInt(length); 
+
+        } 
+
+    } 
+
+     
+
+    // The states of a tree when compaction started, parents first. Edits 
+
+    // never change once made, so they are shared rather than copied. 
+
+    private static final class TreeImage { 
+
+        final long root; 
+
+        final long[] sequences; 
+
+        final long[] parents; 
+
+        final TextEdit[] edits; 
+
+        final long[] branchParents; // Where redo goes from each state that has children 
+
+        final long[] branchChildren; 
+
+        final long current; 
+
+        final SavedState saved; 
+
+         
+
+        TreeImage(UndoTree tree, SavedState saved) { 
+
+            int states = tree.nodes.size() - 1; 
+
+            root = tree.root.sequence; 
+
+            sequences = new long[states]; 
+
+            parents = new long[states]; 
+
+            edits = new TextEdit[states]; 
+
+            int branches = 0; 
+
+            for (UndoTree.Node node : tree.nodes) { 
+
+                branches += node.lastChild != null ? 1 : 0; 
+
+            } 
+
+            branchParents = new long[branches]; 
+
+            branchChildren = new long[branches]; 
+
+            int i = 0; 
+
+            int b = 0; 
+
+            for (UndoTree.Node node : tree.nodes) { 
+
+                if (node != tree.root) { 
+
+                    sequences[i] = node.sequence; 
+
+                    parents[i] = node.parent.sequence; 
+
+                    edits[i++] = node.edit; 
+
+                } 
+
+                if (node.lastChild != null) { 
+
+                    branchParents[b] = node.sequence; 
+
+                    branchChildren[b++] = node.lastChild.sequence; 
+
+                } 
+
+            } 
+
+            current = tree.current.sequence; 
+
+            this.saved = saved; 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,1197 @@
+package smarteditor; 
+
+ 
+
+import java.util.*; 
+
+ 
+
+// Undo/Redo and edit history: a tree of document states. Every node is a 
+
+// state and holds the edit that leads to it from its parent, so an edit made 
+
+// after undoing starts a new branch instead of discarding what could be 
+
+// redone, and redo follows the branch visited last. Consecutive keystrokes of 
+
+// the same kind are coalesced into one node until the group is closed. Moving 
+
+// between two states undoes up to their common ancestor and redoes down from 
+
+// it, so it costs only the length of that path. 
+
+// 
+
+// Nodes are also listed in the order they were created, which is the 
+
+// order History > Previous/Next Edit walks. Past the memory budget the 
+
+// oldest branches that do not lead to the current state are pruned 
+
+// first, then the oldest states on the way to it. A journal, if one is 
+
+// attached, is told about every new state, merge and move. 
+
+// 
+
+// The states that may be leaves wait in a queue in creation order, so 
+
+// pruning takes the oldest one from its head instead of scanning the 
+
+// whole history on every edit once the budget is reached. 
+
+class UndoTree { 
+
+    private static final long DEFAULT_MEMORY_LIMIT = 32L * 1024 * 1024; 
+
+    private static final int NODE_OVERHEAD = 64; // Node, child list and list slots 
+
+     
+
+    final CreationOrder nodes; 
+
+    private final ArrayDeque<Node> leaves; // Oldest first; may hold states that have children since 
+
+    Node root; 
+
+    Node current; 
+
+    private long nextSequence; 
+
+    private long memoryLimit; 
+
+    private long memoryUsage; 
+
+    private int redoCount; 
+
+    private int branchCount; 
+
+    private boolean groupOpen; 
+
+    private UndoJournal journal; 
+
+     
+
+    public UndoTree() { 
+
+        nodes = new CreationOrder(); 
+
+        leaves = new ArrayDeque<>(); 
+
+        memoryLimit = DEFAULT_MEMORY_LIMIT; 
+
+        clear(); 
+
+    } 
+
+     
+
+    public void record(TextEdit edit) { 
+
+        boolean merged = canMerge(edit); 
+
+        if (merged) { 
+
+            merge(current, edit); 
+
+        } else { 
+
+            addChild(nextSequence++, edit); 
+
+        } 
+
+         
+
+        redoCount = 0; 
+
+        groupOpen = merged || edit.canStartGroup(); 
+
+        if (journal != null) { 
+
+            if (merged) { 
+
+                journal.merged(current.sequence, edit); 
+
+            } else { 
+
+                journal.added(current.sequence, current.parent.sequence, edit); 
+
+            } 
+
+        } 
+
+        trimToLimit(); // After the journal has the state, so its prunes replay in order 
+
+    } 
+
+     
+
+    private void merge(Node node, TextEdit edit) { 
+
+        memoryUsage -= node.edit.memorySize(); 
+
+        node.edit = node.edit.merge(edit); 
+
+        memoryUsage += node.edit.memorySize(); 
+
+    } 
+
+     
+
+    // Adds a state after the current one and moves to it 
+
+    private void addChild(long sequence, TextEdit edit) { 
+
+        Node node = new Node(sequence, current, edit); 
+
+        if (!current.children.isEmpty()) { 
+
+            branchCount++; 
+
+        } 
+
+        current.children.add(node); 
+
+        current.lastChild = node; 
+
+        nodes.add(node); 
+
+        leaves.addLast(node); 
+
+        memoryUsage += NODE_OVERHEAD + edit.memorySize(); 
+
+        current = node; 
+
+    } 
+
+     
+
+    public boolean canMerge(TextEdit edit) { 
+
+        return groupOpen && current != root && current.children.isEmpty() && current.edit.continuedBy(edit); 
+
+    } 
+
+     
+
+    public boolean isGroupOpen() { 
+
+        return groupOpen; 
+
+    } 
+
+     
+
+    public void closeGroup() { 
+
+        groupOpen = false; 
+
+    } 
+
+     
+
+    // Caret offset expected right after the last keystroke of the open group 
+
+    public int getGroupEnd() { 
+
+        return current == root ? -1 : current.edit.offset + current.edit.inserted.length(); 
+
+    } 
+
+     
+
+    // The edit to revert, or null at the oldest state 
+
+    public TextEdit undo() { 
+
+        groupOpen = false; 
+
+        if (current == root) { 
+
+            return null; 
+
+        } 
+
+        TextEdit edit = current.edit; 
+
+        current.parent.lastChild = current; 
+
+        current = current.parent; 
+
+        redoCount++; 
+
+        if (journal != null) { 
+
+            journal.moved(current.sequence); 
+
+        } 
+
+        return edit; 
+
+    } 
+
+     
+
+    // The edit to apply along the branch visited last, or null 
+
+    public TextEdit redo() { 
+
+        if (current.lastChild == null) { 
+
+            return null; 
+
+        } 
+
+        current = current.lastChild; 
+
+        redoCount--; 
+
+        if (journal != null) { 
+
+            journal.moved(current.sequence); 
+
+        } 
+
+        return current.edit; 
+
+    } 
+
+     
+
+    public List<TextEdit> previousState() { 
+
+        return stateAt(getCurrentPosition() - 1); 
+
+    } 
+
+     
+
+    public List<TextEdit> moveTo(long sequence) { 
+
+        Node node = find(sequence); 
+
+        return node == null ? Collections.emptyList() : moveTo(node); 
+
+    } 
+
+     
+
+    public List<TextEdit> nextState() { 
+
+        return stateAt(getCurrentPosition() + 1); 
+
+    } 
+
+     
+
+    private List<TextEdit> stateAt(int position) { 
+
+        if (position < 0 || position >= nodes.size()) { 
+
+            return Collections.emptyList(); 
+
+        } 
+
+        return moveTo(nodes.get(position)); 
+
+    } 
+
+     
+
+    // Moves to the latest state of the next or previous branch at the 
+
+    // closest fork: the current state itself when redo could take more 
+
+    // than one way, otherwise the nearest ancestor that has 
+
+    public List<TextEdit> switchBranch(int direction) { 
+
+        Node fork; 
+
+        Node branch; 
+
+        if (current.children.size() > 1) { 
+
+            fork = current; 
+
+            branch = current.lastChild; 
+
+        } else { 
+
+            branch = current; 
+
+            while (branch.parent != null && branch.parent.children.size() < 2) { 
+
+                branch = branch.parent; 
+
+            } 
+
+            fork = branch.parent; 
+
+        } 
+
+        if (fork == null) { 
+
+            return Collections.emptyList(); 
+
+        } 
+
+         
+
+        List<Node> branches = fork.children; 
+
+        Node target = branches.get(Math.floorMod(branches.indexOf(branch) + direction, branches.size())); 
+
+        while (target.lastChild != null) { 
+
+            target = target.lastChild; 
+
+        } 
+
+        return moveTo(target); 
+
+    } 
+
+     
+
+    // Makes the target the current state and returns the edits that lead 
+
+    // there: the inverse of each edit up to the common ancestor, then each 
+
+    // edit down from it. Redo afterwards follows the path taken, and as 
+
+    // after undo, leads back down the way the move came up. 
+
+    private List<TextEdit> moveTo(Node target) { 
+
+        List<TextEdit> up = new ArrayList<>(); 
+
+        List<TextEdit> down = new ArrayList<>(); 
+
+        Node from = current; 
+
+        Node to = target; 
+
+        while (from.depth > to.depth) { 
+
+            from.parent.lastChild = from; 
+
+            up.add(from.edit.inverse()); 
+
+            from = from.parent; 
+
+        } 
+
+        while (to.depth > from.depth) { 
+
+            to.parent.lastChild = to; 
+
+            down.add(to.edit); 
+
+            to = to.parent; 
+
+        } 
+
+        while (from != to) { 
+
+            from.parent.lastChild = from; 
+
+            up.add(from.edit.inverse()); 
+
+            from = from.parent; 
+
+            to.parent.lastChild = to; 
+
+            down.add(to.edit); 
+
+            to = to.parent; 
+
+        } 
+
+        Collections.reverse(down); 
+
+        up.addAll(down); 
+
+         
+
+        current = target; 
+
+        groupOpen = false; 
+
+        countRedo(); 
+
+        if (journal != null) { 
+
+            journal.moved(current.sequence); 
+
+        } 
+
+        return up; 
+
+    } 
+
+     
+
+    public int size() { 
+
+        return nodes.size(); 
+
+    } 
+
+     
+
+    // Position of the current state in creation order 
+
+    public int getCurrentPosition() { 
+
+        return nodes.position(current); 
+
+    } 
+
+     
+
+    public long getCurrentSequence() { 
+
+        return current.sequence; 
+
+    } 
+
+     
+
+    private Node find(long sequence) { 
+
+        return nodes.find(sequence); 
+
+    } 
+
+     
+
+    public int undoCount() { 
+
+        return current.depth - root.depth; 
+
+    } 
+
+     
+
+    public int redoCount() { 
+
+        return redoCount; 
+
+    } 
+
+     
+
+    public int branchCount() { 
+
+        return branchCount; 
+
+    } 
+
+     
+
+    public long getMemoryUsage() { 
+
+        return memoryUsage; 
+
+    } 
+
+     
+
+    public long getMemoryLimit() { 
+
+        return memoryLimit; 
+
+    } 
+
+     
+
+    public void setMemoryLimit(long memoryLimit) { 
+
+        this.memoryLimit = memoryLimit; 
+
+        trimToLimit(); 
+
+    } 
+
+     
+
+    public void clear() { 
+
+        restoreRoot(nextSequence); 
+
+    } 
+
+     
+
+    public void setJournal(UndoJournal journal) { 
+
+        this.journal = journal; 
+
+    } 
+
+     
+
+    // Rebuilding from a journal, which names states by sequence number. 
+
+    // The methods return false for a record that does not fit the tree. 
+
+    public void restoreRoot(long sequence) { 
+
+        nodes.clear(); 
+
+        leaves.clear(); 
+
+        root = new Node(sequence, null, null); 
+
+        nodes.add(root); 
+
+        nextSequence = sequence + 1; 
+
+        current = root; 
+
+        memoryUsage = NODE_OVERHEAD; 
+
+        redoCount = 0; 
+
+        branchCount = 1; 
+
+        groupOpen = false; 
+
+    } 
+
+     
+
+    public boolean restoreState(long sequence, long parentSequence, TextEdit edit) { 
+
+        Node parent = find(parentSequence); 
+
+        if (parent == null || sequence < nextSequence) { 
+
+            return false; 
+
+        } 
+
+        current = parent; 
+
+        addChild(sequence, edit); 
+
+        nextSequence = sequence + 1; 
+
+        return true; 
+
+    } 
+
+     
+
+    public boolean restoreMerge(long sequence, TextEdit edit) { 
+
+        Node node = current.sequence == sequence ? current : find(sequence); 
+
+        if (node == null || node == root) { 
+
+            return false; 
+
+        } 
+
+        merge(node, edit); 
+
+        return true; 
+
+    } 
+
+     
+
+    public boolean restoreMove(long sequence) { 
+
+        Node node = find(sequence); 
+
+        if (node == null) { 
+
+            return false; 
+
+        } 
+
+        moveTo(node); 
+
+        return true; 
+
+    } 
+
+     
+
+    public boolean restoreBranch(long parentSequence, long childSequence) { 
+
+        Node child = find(childSequence); 
+
+        if (child == null || child.parent == null || child.parent.sequence != parentSequence) { 
+
+            return false; 
+
+        } 
+
+        child.parent.lastChild = child; 
+
+        return true; 
+
+    } 
+
+     
+
+    // A state pruned past the memory budget: a leaf other than the 
+
+    // current state, or the root when it leads only to one state 
+
+    public boolean restorePrune(long sequence) { 
+
+        Node node = find(sequence); 
+
+        if (node == null || node == current) { 
+
+            return false; 
+
+        } 
+
+        if (node == root) { 
+
+            if (root.children.size() != 1) { 
+
+                return false; 
+
+            } 
+
+            advanceRoot(); 
+
+        } else { 
+
+            if (!node.children.isEmpty()) { 
+
+                return false; 
+
+            } 
+
+            unlink(node); 
+
+        } 
+
+        return true; 
+
+    } 
+
+     
+
+    public boolean restoreCurrent(long sequence) { 
+
+        Node node = find(sequence); 
+
+        if (node == null) { 
+
+            return false; 
+
+        } 
+
+        current = node; 
+
+        return true; 
+
+    } 
+
+     
+
+    public void finishRestore() { 
+
+        groupOpen = false; 
+
+        countRedo(); 
+
+        trimToLimit(); 
+
+    } 
+
+     
+
+    private void trimToLimit() { 
+
+        if (memoryUsage <= memoryLimit) { 
+
+            return; 
+
+        } 
+
+         
+
+        // Oldest first, prune states nothing else builds on, except the 
+
+        // current one; a branch goes state by state from its tip. A state 
+
+        // that has children when it comes up is dropped from the queue: 
+
+        // it only becomes a leaf again when the walk up from its last 
+
+        // child reaches it. 
+
+        boolean pruned = false; 
+
+        Node kept = null; // The current state, if it is a leaf 
+
+        while (memoryUsage > memoryLimit && !leaves.isEmpty()) { 
+
+            Node node = leaves.pollFirst(); 
+
+            if (node.removed || node == root || !node.children.isEmpty()) { 
+
+                continue; 
+
+            } 
+
+            if (node == current) { 
+
+                kept = node; 
+
+                continue; 
+
+            } 
+
+            while (node != root && node != current && node.children.isEmpty()) { 
+
+                Node parent = node.parent; 
+
+                unlink(node); 
+
+                if (journal != null) { 
+
+                    journal.pruned(node.sequence); 
+
+                } 
+
+                pruned = true; 
+
+                node = parent; 
+
+            } 
+
+            if (node == current && node.children.isEmpty()) { 
+
+                kept = node; 
+
+            } 
+
+        } 
+
+        if (kept != null) { 
+
+            // Older than everything left in the queue 
+
+            leaves.addFirst(kept); 
+
+        } 
+
+         
+
+        // Then the oldest states, which now lead only to the current one; 
+
+        // the edit that made the current state is always kept 
+
+        while (memoryUsage > memoryLimit && root != current && root.children.size() == 1) { 
+
+            if (journal != null) { 
+
+                journal.pruned(root.sequence); 
+
+            } 
+
+            advanceRoot(); 
+
+            pruned = true; 
+
+        } 
+
+         
+
+        if (pruned) { 
+
+            countRedo(); 
+
+        } 
+
+    } 
+
+     
+
+    // Takes a leaf out of the tree 
+
+    private void unlink(Node node) { 
+
+        Node parent = node.parent; 
+
+        parent.children.remove(node); 
+
+        if (parent.lastChild == node) { 
+
+            parent.lastChild = parent.children.isEmpty() ? null : parent.children.get(parent.children.size() - 1); 
+
+        } 
+
+        if (!parent.children.isEmpty()) { 
+
+            branchCount--; 
+
+        } 
+
+        nodes.remove(node); 
+
+        memoryUsage -= NODE_OVERHEAD + node.edit.memorySize(); 
+
+    } 
+
+     
+
+    // Drops the oldest state, which leads only to its one child 
+
+    private void advanceRoot() { 
+
+        nodes.remove(root); 
+
+        memoryUsage -= NODE_OVERHEAD; 
+
+        root = root.children.get(0); 
+
+        memoryUsage -= root.edit.memorySize(); 
+
+        root.parent = null; 
+
+        root.edit = null; 
+
+    } 
+
+     
+
+    private void countRedo() { 
+
+        redoCount = 0; 
+
+        for (Node node = current.lastChild; node != null; node = node.lastChild) { 
+
+            redoCount++; 
+
+        } 
+
+    } 
+
+     
+
+    static final class Node { 
+
+        final long sequence; 
+
+        final int depth; 
+
+        Node parent; 
+
+        TextEdit edit; // From the parent's state; null at the root 
+
+        final List<Node> children = new ArrayList<>(1); 
+
+        Node lastChild; // The child redo goes to 
+
+        boolean removed; 
+
+        int slot; // In the creation order 
+
+         
+
+        Node(long sequence, Node parent, TextEdit edit) { 
+
+            this.sequence = sequence; 
+
+            this.depth = parent == null ? 0 : parent.depth + 1; 
+
+            this.parent = parent; 
+
+            this.edit = edit; 
+
+        } 
+
+    } 
+
+     
+
+    // The states in creation order and the position of each among those 
+
+    // not pruned. A pruned state stays behind as a gap until gaps are the 
+
+    // majority, and a Fenwick tree over the slots counts the states up to 
+
+    // any slot, so pruning, positions and lookups cost O(log n). 
+
+    static final class CreationOrder implements Iterable<Node> { 
+
+        private Node[] slots = new Node[16]; 
+
+        private int[] tree = new int[17]; // 1-based, live states per range of slots 
+
+        private int used; 
+
+        private int size; 
+
+         
+
+        void clear() { 
+
+            Arrays.fill(slots, 0, used, null); 
+
+            used = 0; 
+
+            size = 0; 
+
+        } 
+
+         
+
+        void add(Node node) { 
+
+            if (used == slots.length) { 
+
+                slots = Arrays.copyOf(slots, used * 2); 
+
+                tree = Arrays.copyOf(tree, used * 2 + 1); 
+
+            } 
+
+            node.slot = used; 
+
+            slots[used++] = node; 
+
+            // The new last entry sums its range, which ends with it 
+
+            tree[used] = 1 + count(used - 1) - count(used - (used & -used)); 
+
+            size++; 
+
+        } 
+
+         
+
+        void remove(Node node) { 
+
+            node.removed = true; 
+
+            for (int i = node.slot + 1; i <= used; i += i & -i) { 
+
+                tree[i]--; 
+
+            } 
+
+            size--; 
+
+            if (used - size > size) { 
+
+                compact(); 
+
+            } 
+
+        } 
+
+         
+
+        int size() { 
+
+            return size; 
+
+        } 
+
+         
+
+        int position(Node node) { 
+
+            return count(node.slot + 1) - 1; 
+
+        } 
+
+         
+
+        // The state at a position, descending the tree for the slot where 
+
+        // the count of states reaches position + 1 
+
+        Node get(int position) { 
+
+            int slot = 0; 
+
+            int remaining = position + 1; 
+
+            for (int step = Integer.highestOneBit(used); step > 0; step >>= 1) { 
+
+                if (slot + step <= used && tree[slot + step] < remaining) { 
+
+                    slot += step; 
+
+                    remaining -= tree[slot]; 
+
+                } 
+
+            } 
+
+            return slots[slot]; 
+
+        } 
+
+         
+
+        // Sequence numbers grow with the slots, gaps included 
+
+        Node find(long sequence) { 
+
+            int low = 0; 
+
+            int high = used - 1; 
+
+            while (low <= high) { 
+
+                int middle = (low + high) >>> 1; 
+
+                long found = slots[middle].sequence; 
+
+                if (found < sequence) { 
+
+                    low = middle + 1; 
+
+                } else if (found > sequence) { 
+
+                    high = middle - 1; 
+
+                } else { 
+
+                    return slots[middle].removed ? null : slots[middle]; 
+
+                } 
+
+            } 
+
+            return null; 
+
+        } 
+
+         
+
+        // Oldest first, skipping the gaps 
+
+        @Override 
+
+        public Iterator<Node> iterator() { 
+
+            return new Iterator<>() { 
+
+                private int next = skipGaps(0); 
+
+                 
+
+                @Override 
+
+                public boolean hasNext() { 
+
+                    return next < used; 
+
+                } 
+
+                 
+
+                @Override 
+
+                public Node next() { 
+
+                    if (next >= used) { 
+
+                        throw new NoSuchElementException(); 
+
+                    } 
+
+                    Node node = slots[next]; 
+
+                    next = skipGaps(next + 1); 
+
+                    return node; 
+
+                } 
+
+            }; 
+
+        } 
+
+         
+
+        private int skipGaps(int slot) { 
+
+            while (slot < used && slots[slot].removed) { 
+
+                slot++; 
+
+            } 
+
+            return slot; 
+
+        } 
+
+         
+
+        // States in the first slots 
+
+        private int count(int slots) { 
+
+            int count = 0; 
+
+            for (int i = slots; i > 0; i -= i & -i) { 
+
+                count += tree[i]; 
+
+            } 
+
+            return count; 
+
+        } 
+
+         
+
+        private void compact() { 
+
+            int live = 0; 
+
+            for (int i = 0; i < used; i++) { 
+
+                if (!slots[i].removed) { 
+
+                    slots[live] = slots[i]; 
+
+                    slots[live].slot = live; 
+
+                    live++; 
+
+                } 
+
+            } 
+
+            Arrays.fill(slots, live, used, null); 
+
+            used = live; 
+
+            Arrays.fill(tree, 1, used + 1, 0); 
+
+            for (int i = 1; i <= used; i++) { 
+
+                tree[i]++; 
+
+                int up = i + (i & -i); 
+
+                if (up <= used) { 
+
+                    tree[up] += tree[i]; 
+
+                } 
+
+            } 
+
+        } 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,405 @@
+package smarteditor; 
+
+ 
+
+import java.io.*; 
+
+import java.nio.charset.StandardCharsets; 
+
+import java.nio.file.Files; 
+
+import java.nio.file.Path; 
+
+import java.util.*; 
+
+import java.util.concurrent.Executor; 
+
+import java.util.concurrent.ExecutorService; 
+
+import java.util.concurrent.Executors; 
+
+import java.util.concurrent.Semaphore; 
+
+import java.util.concurrent.atomic.AtomicLong; 
+
+import java.util.concurrent.atomic.AtomicReference; 
+
+import java.util.function.Consumer; 
+
+import java.util.stream.Stream; 
+
+ 
+
+// Streams words from word lists and source trees into a trie. The calling 
+
+// thread walks the sources and hands files to a pool of tokenizers, which 
+
+// read them through a small buffer and pass their word counts in batches to 
+
+// the trie's own thread. Permits bound the files and batches in flight, so 
+
+// whichever stage gets ahead waits instead of filling memory, however many 
+
+// files there are. 
+
+class WordIngester { 
+
+    private static final int BATCH_WORDS = 16 * 1024; // Distinct words 
+
+    private static final int READ_BUFFER = 64 * 1024; 
+
+     
+
+    private final Trie dictionary; 
+
+    private final Executor dictionaryThread; 
+
+    private final int threads = Runtime.getRuntime().availableProcessors(); 
+
+    private final Semaphore batchSlots = new Semaphore(2 * threads); 
+
+    private final AtomicLong words = new AtomicLong(); 
+
+    private final AtomicLong files = new AtomicLong(); 
+
+    private final AtomicReference<IOException> failure = new AtomicReference<>(); 
+
+    private long started; 
+
+     
+
+    WordIngester(Trie dictionary, Executor dictionaryThread) { 
+
+        this.dictionary = dictionary; 
+
+        this.dictionaryThread = dictionaryThread; 
+
+    } 
+
+     
+
+    // Reads each word list, and every .java file under each folder, and 
+
+    // returns how many words were read once all of them are in the trie. 
+
+    // The progress callback runs on the calling thread after every file. 
+
+    public long ingest(List<Path> sources, Runnable progress) throws IOException, InterruptedException { 
+
+        started = System.nanoTime(); 
+
+        ExecutorService tokenizers = Executors.newFixedThreadPool(threads, runnable -> { 
+
+            Thread thread = new Thread(runnable, "tokenizer"); 
+
+            thread.setDaemon(true); 
+
+            return thread; 
+
+        }); 
+
+        Semaphore fileSlots = new Semaphore(2 * threads); 
+
+        try { 
+
+            for (Path source : sources) { 
+
+                boolean folder = Files.isDirectory(source); 
+
+                try (Stream<Path> paths = Files.walk(source)) { 
+
+                    Iterator<Path> found = paths 
+
+                        .filter(path -> !folder || path.getFileName().toString().endsWith(".java")) 
+
+                        .filter(Files::isRegularFile) 
+
+                        .iterator(); 
+
+                    while (found.hasNext()) { 
+
+                        Path file = found.next(); 
+
+                        fileSlots.acquire(); 
+
+                        if (failure.get() != null) { 
+
+                            throw failure.get(); 
+
+                        } 
+
+                        tokenizers.execute(() -> { 
+
+                            try { 
+
+                                ingestFile(file); 
+
+                            } catch (IOException e) { 
+
+                                failure.compareAndSet(null, new IOException(file + ": " + e.getMessage(), e)); 
+
+                            } catch (InterruptedException e) { 
+
+                                // Stopped 
+
+                            } finally { 
+
+                                fileSlots.release(); 
+
+                            } 
+
+                        }); 
+
+                        progress.run(); 
+
+                    } 
+
+                } catch (UncheckedIOException e) { 
+
+                    throw e.getCause(); 
+
+                } 
+
+            } 
+
+             
+
+            // Wait for the last files, then for their batches 
+
+            fileSlots.acquire(2 * threads); 
+
+            batchSlots.acquire(2 * threads); 
+
+            batchSlots.release(2 * threads); 
+
+            if (failure.get() != null) { 
+
+                throw failure.get(); 
+
+            } 
+
+            return words.get(); 
+
+        } finally { 
+
+            tokenizers.shutdownNow(); 
+
+        } 
+
+    } 
+
+     
+
+    public String report() { 
+
+        double seconds = Math.max(1, System.nanoTime() - started) / 1e9; 
+
+        return String.format("%,d words from %,d files (%,.0f words/s)", 
+
+            words.get(), files.get(), words.get() / seconds); 
+
+    } 
+
+     
+
+    private void ingestFile(Path file) throws IOException, InterruptedException { 
+
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) { 
+
+            if (file.getFileName().toString().endsWith(".java")) { 
+
+                readSource(reader); 
+
+            } else { 
+
+                readWordList(file, new BufferedReader(reader, READ_BUFFER)); 
+
+            } 
+
+        } 
+
+        files.incrementAndGet(); 
+
+    } 
+
+     
+
+    // Counts the identifiers of a source file a buffer at a time. A word 
+
+    // that runs to the end of the buffer is kept for the next read. 
+
+    private void readSource(Reader reader) throws IOException, InterruptedException { 
+
+        Map<String, Integer> counts = new HashMap<>(); 
+
+        long[] read = new long[1]; 
+
+        Consumer<String> counter = word -> { 
+
+            counts.merge(word, 1, Words::addSaturated); 
+
+            read[0]++; 
+
+        }; 
+
+        char[] buffer = new char[READ_BUFFER]; 
+
+        int kept = 0; 
+
+        int count; 
+
+        while ((count = reader.read(buffer, kept, buffer.length - kept)) != -1) { 
+
+            int length = kept + count; 
+
+            int end = length; 
+
+            while (end > 0 && Words.isWordChar(buffer[end - 1])) { 
+
+                end--; 
+
+            } 
+
+            if (end == 0) { 
+
+                end = length; // A run this long is no word anyway 
+
+            } 
+
+            Words.forEachWord(buffer, end, counter); 
+
+            kept = length - end; 
+
+            System.arraycopy(buffer, end, buffer, 0, kept); 
+
+             
+
+            if (counts.size() >= BATCH_WORDS) { 
+
+                merge(counts, read[0]); 
+
+                counts.clear(); 
+
+                read[0] = 0; 
+
+            } 
+
+        } 
+
+        Words.forEachWord(buffer, kept, counter); 
+
+        merge(counts, read[0]); 
+
+    } 
+
+     
+
+    // Reads one word per line, optionally followed by how often it occurs 
+
+    private void readWordList(Path file, BufferedReader reader) throws IOException, InterruptedException { 
+
+        Map<String, Integer> counts = new HashMap<>(); 
+
+        long read = 0; 
+
+        String line; 
+
+        int lineNumber = 0; 
+
+        while ((line = reader.readLine()) != null) { 
+
+            lineNumber++; 
+
+            String[] fields = line.trim().split("\\s+"); 
+
+            if (fields[0].isEmpty() || fields[0].startsWith("#")) { 
+
+                continue; 
+
+            } 
+
+            int occurrences; 
+
+            try { 
+
+                occurrences = fields.length > 1 ? Integer.parseInt(fields[1]) : 1; 
+
+            } catch (NumberFormatException e) { 
+
+                occurrences = -1; 
+
+            } 
+
+            if (occurrences < 0) { 
+
+                throw new IOException("Line " + lineNumber + ": Invalid count: " + fields[1]); 
+
+            } 
+
+            counts.merge(fields[0], occurrences, Words::addSaturated); 
+
+            read++; 
+
+             
+
+            if (counts.size() >= BATCH_WORDS) { 
+
+                merge(counts, read); 
+
+                counts.clear(); 
+
+                read = 0; 
+
+            } 
+
+        } 
+
+        merge(counts, read); 
+
+    } 
+
+     
+
+    // Hands a copy of the counts to the trie's thread, waiting while 
+
+    // too many batches are already queued there. The words are counted 
+
+    // rather than inserted, so like learned words they are evicted again 
+
+    // once documents take their counts back down to zero. 
+
+    private void merge(Map<String, Integer> counts, long read) throws InterruptedException { 
+
+        if (counts.isEmpty()) { 
+
+            return; 
+
+        } 
+
+        Map<String, Integer> batch = new HashMap<>(counts); 
+
+        batchSlots.acquire(); 
+
+        dictionaryThread.execute(() -> { 
+
+            try { 
+
+                for (Map.Entry<String, Integer> entry : batch.entrySet()) { 
+
+                    dictionary.addCount(entry.getKey(), entry.getValue()); 
+
+                } 
+
+            } finally { 
+
+                batchSlots.release(); 
+
+            } 
+
+        }); 
+
+        words.addAndGet(read); 
+
+    } 
+
+} 
\ No newline at end of file
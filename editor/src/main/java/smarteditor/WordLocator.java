@@ -0,0 +1,73 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.text.*; 
+
+ 
+
+// Finds where the word before an offset starts. It reads the document 
+
+// backwards in small chunks through one reused partial-return segment, so 
+
+// nothing is copied and the cost follows the word length. 
+
+class WordLocator { 
+
+    private static final int CHUNK_SIZE = 64; 
+
+     
+
+    private final Segment segment = new Segment(); 
+
+     
+
+    WordLocator() { 
+
+        segment.setPartialReturn(true); 
+
+    } 
+
+     
+
+    public int wordStart(Document document, int offset) throws BadLocationException { 
+
+        int end = offset; 
+
+        while (end > 0) { 
+
+            int from = Math.max(0, end - CHUNK_SIZE); 
+
+            int start = -1; 
+
+            for (int position = from; position < end; position += segment.count) { 
+
+                document.getText(position, end - position, segment); 
+
+                for (int i = 0; i < segment.count; i++) { 
+
+                    if (!Words.isWordChar(segment.array[segment.offset + i])) { 
+
+                        start = position + i + 1; 
+
+                    } 
+
+                } 
+
+            } 
+
+            if (start >= 0) { 
+
+                return start; 
+
+            } 
+
+            end = from; // The whole chunk is inside the word 
+
+        } 
+
+        return 0; 
+
+    } 
+
+} 
\ No newline at end of file
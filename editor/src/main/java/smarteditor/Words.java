@@ -0,0 +1,149 @@
+package smarteditor; 
+
+ 
+
+import javax.swing.text.*; 
+
+import java.util.*; 
+
+import java.util.function.Consumer; 
+
+ 
+
+// What counts as a word: the words the dictionary learns from documents 
+
+// and word lists, and how their counts add up 
+
+final class Words { 
+
+    // Words learned from files are suggested when they are this long 
+
+    static final int MIN_LEARNED_WORD = 3; 
+
+    static final int MAX_LEARNED_WORD = 64; 
+
+     
+
+    private Words() { 
+
+    } 
+
+     
+
+    // The word characters right before the offset. Longer runs than a learned 
+
+    // word are cut, which keeps them too long to learn on both sides of an edit. 
+
+    static String wordCharsBefore(Document document, int offset) throws BadLocationException { 
+
+        int start = Math.max(0, offset - MAX_LEARNED_WORD - 1); 
+
+        Segment text = new Segment(); 
+
+        document.getText(start, offset - start, text); 
+
+        int i = text.count; 
+
+        while (i > 0 && isWordChar(text.array[text.offset + i - 1])) { 
+
+            i--; 
+
+        } 
+
+        return new String(text.array, text.offset + i, text.count - i); 
+
+    } 
+
+     
+
+    static String wordCharsAfter(Document document, int offset) throws BadLocationException { 
+
+        int end = Math.min(document.getLength(), offset + MAX_LEARNED_WORD + 1); 
+
+        Segment text = new Segment(); 
+
+        document.getText(offset, end - offset, text); 
+
+        int i = 0; 
+
+        while (i < text.count && isWordChar(text.array[text.offset + i])) { 
+
+            i++; 
+
+        } 
+
+        return new String(text.array, text.offset, i); 
+
+    } 
+
+     
+
+    // Occurrences of every word in the text that is long enough to be worth 
+
+    // suggesting: letters, digits and underscores, not starting with a digit 
+
+    static Map<String, Integer> countWords(char[] text, int length) { 
+
+        Map<String, Integer> counts = new HashMap<>(); 
+
+        forEachWord(text, length, word -> counts.merge(word, 1, Integer::sum)); 
+
+        return counts; 
+
+    } 
+
+     
+
+    static void forEachWord(char[] text, int length, Consumer<String> action) { 
+
+        int i = 0; 
+
+        while (i < length) { 
+
+            if (!isWordChar(text[i])) { 
+
+                i++; 
+
+                continue; 
+
+            } 
+
+            int start = i; 
+
+            while (i < length && isWordChar(text[i])) { 
+
+                i++; 
+
+            } 
+
+            int wordLength = i - start; 
+
+            if (wordLength >= MIN_LEARNED_WORD && wordLength <= MAX_LEARNED_WORD && !Character.isDigit(text[start])) { 
+
+                action.accept(new String(text, start, wordLength)); 
+
+            } 
+
+        } 
+
+    } 
+
+     
+
+    // Adds two counts, stopping at the largest int instead of overflowing 
+
+    static int addSaturated(int count, int added) { 
+
+        return (int) Math.min(Integer.MAX_VALUE, (long) count + added); 
+
+    } 
+
+     
+
+    static boolean isWordChar(char c) { 
+
+        return Character.isLetterOrDigit(c) || c == '_'; 
+
+    } 
+
+} 
\ No newline at end of file
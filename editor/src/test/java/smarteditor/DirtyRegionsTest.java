@@ -0,0 +1,177 @@
+package smarteditor; 
+
+ 
+
+import org.junit.jupiter.api.Test; 
+
+ 
+
+import static org.junit.jupiter.api.Assertions.*; 
+
+ 
+
+class DirtyRegionsTest { 
+
+    private static PieceTable.Snapshot savedText(String text) { 
+
+        PieceTable table = new PieceTable(); 
+
+        table.loadOriginal(text.toCharArray(), text.length()); 
+
+        return table.snapshot(); 
+
+    } 
+
+     
+
+    @Test 
+
+    void separateReplacementsKeepTheirOwnRanges() { 
+
+        DirtyRegions regions = new DirtyRegions(); 
+
+        regions.record(2, 3, 3); 
+
+        regions.record(20, 1, 1); 
+
+         
+
+        assertTrue(regions.keepsOffsets()); 
+
+        assertArrayEquals(new int[] {2, 5, 20, 21}, regions.ranges(savedText("x".repeat(40)))); 
+
+    } 
+
+     
+
+    @Test 
+
+    void overlappingAndTouchingReplacementsMerge() { 
+
+        DirtyRegions regions = new DirtyRegions(); 
+
+        regions.record(10, 4, 4); 
+
+        regions.record(12, 4, 4); // Overlaps 
+
+        regions.record(16, 2, 2); // Touches the end 
+
+        regions.record(8, 2, 2); // Touches the start 
+
+         
+
+        assertTrue(regions.keepsOffsets()); 
+
+        assertArrayEquals(new int[] {8, 18}, regions.ranges(savedText("x".repeat(40)))); 
+
+    } 
+
+     
+
+    @Test 
+
+    void editsThatCancelOutKeepOffsets() { 
+
+        DirtyRegions regions = new DirtyRegions(); 
+
+        regions.record(10, 0, 3); 
+
+        assertFalse(regions.keepsOffsets()); 
+
+         
+
+        regions.record(13, 3, 0); // Merges with the insertion, so nothing after it moved 
+
+        assertTrue(regions.keepsOffsets()); 
+
+        assertArrayEquals(new int[] {10, 13}, regions.ranges(savedText("x".repeat(40)))); 
+
+    } 
+
+     
+
+    @Test 
+
+    void regionsAfterAnEditShiftWithIt() { 
+
+        DirtyRegions regions = new DirtyRegions(); 
+
+        regions.record(20, 2, 2); 
+
+        regions.record(5, 0, 4); 
+
+        regions.record(10, 4, 0); 
+
+         
+
+        // The insertion and deletion are separate regions that each move the text 
+
+        assertFalse(regions.keepsOffsets()); 
+
+         
+
+        // Taking the insertion back and putting four chars in place of the 
+
+        // deleted ones leaves the last region where it started 
+
+        regions.record(5, 4, 0); 
+
+        regions.record(6, 0, 4); 
+
+        assertTrue(regions.keepsOffsets()); 
+
+        assertArrayEquals(new int[] {6, 10, 20, 22}, regions.ranges(savedText("x".repeat(40)))); 
+
+    } 
+
+     
+
+    @Test 
+
+    void rangesDoNotSplitSurrogatePairs() { 
+
+        PieceTable.Snapshot text = savedText("ab\uD83D\uDE00cd"); 
+
+        DirtyRegions low = new DirtyRegions(); 
+
+        low.record(3, 1, 1); 
+
+        assertArrayEquals(new int[] {2, 4}, low.ranges(text)); 
+
+         
+
+        DirtyRegions high = new DirtyRegions(); 
+
+        high.record(2, 1, 1); 
+
+        assertArrayEquals(new int[] {2, 4}, high.ranges(text)); 
+
+    } 
+
+     
+
+    @Test 
+
+    void tooManyRegionsOverflow() { 
+
+        DirtyRegions regions = new DirtyRegions(); 
+
+        for (int i = 0; i <= 4096; i++) { 
+
+            regions.record(2 * i, 1, 1); 
+
+        } 
+
+        assertFalse(regions.keepsOffsets()); 
+
+         
+
+        // Once overflowed, later edits do not bring the tracking back 
+
+        regions.record(0, 1, 1); 
+
+        assertFalse(regions.keepsOffsets()); 
+
+    } 
+
+} 
\ No newline at end of file
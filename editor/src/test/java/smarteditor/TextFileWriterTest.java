@@ -0,0 +1,275 @@
+package smarteditor; 
+
+ 
+
+import java.io.IOException; 
+
+import java.nio.ByteBuffer; 
+
+import java.nio.charset.StandardCharsets; 
+
+import java.nio.file.Files; 
+
+import java.nio.file.FileSystems; 
+
+import java.nio.file.Path; 
+
+import java.nio.file.attribute.PosixFilePermissions; 
+
+import java.util.Arrays; 
+
+ 
+
+import javax.swing.text.BadLocationException; 
+
+ 
+
+import org.junit.jupiter.api.Test; 
+
+import org.junit.jupiter.api.io.TempDir; 
+
+ 
+
+import static org.junit.jupiter.api.Assertions.*; 
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue; 
+
+ 
+
+class TextFileWriterTest { 
+
+    @TempDir 
+
+    Path folder; 
+
+     
+
+    private Path write(String text) throws IOException { 
+
+        Path file = folder.resolve("document.txt"); 
+
+        Files.writeString(file, text); 
+
+        return file; 
+
+    } 
+
+     
+
+    private static String read(Path file) throws IOException { 
+
+        PieceTableDocument document = new TextFileReader(file.toFile(), false).read(percent -> { }, () -> false); 
+
+        try { 
+
+            return document.getText(0, document.getLength()); 
+
+        } catch (BadLocationException e) { 
+
+            throw new AssertionError(e); 
+
+        } 
+
+    } 
+
+     
+
+    private static void save(Path file, String text) throws IOException { 
+
+        PieceTableDocument document = new PieceTableDocument(); 
+
+        document.load(text.toCharArray(), text.length()); 
+
+        new TextFileWriter(file.toFile(), document.getPieceTable().snapshot()).write(); 
+
+    } 
+
+     
+
+    // What an in-place save leaves behind when it stops after writing its 
+
+    // rollback file and part of the new bytes 
+
+    private static void interruptAfterRollback(Path file, int start, String old, String partly) 
+
+            throws IOException { 
+
+        byte[] bytes = old.getBytes(StandardCharsets.UTF_8); 
+
+        TextFileWriter.writeRollback(TextFileWriter.rollbackPath(file), Files.size(file), 
+
+            new long[] {start}, new ByteBuffer[] {ByteBuffer.wrap(bytes)}); 
+
+        byte[] content = Files.readAllBytes(file); 
+
+        byte[] written = partly.getBytes(StandardCharsets.UTF_8); 
+
+        System.arraycopy(written, 0, content, start, written.length); 
+
+        Files.write(file, content); 
+
+    } 
+
+     
+
+    @Test 
+
+    void sameLengthEditIsSavedInPlace() throws Exception { 
+
+        Path file = write("hello world\n"); 
+
+        EditorCore core = new EditorCore(false); 
+
+        core.open(file.toFile()); 
+
+        core.getDocument().replace(6, 5, "WORLD", null); 
+
+         
+
+        assertEquals(5, core.save(file.toFile())); 
+
+        assertEquals("hello WORLD\n", Files.readString(file)); 
+
+        assertFalse(Files.exists(TextFileWriter.rollbackPath(file))); 
+
+        core.shutdown(); 
+
+    } 
+
+     
+
+    @Test 
+
+    void interruptedSaveIsRolledBackWhenTheFileIsRead() throws IOException { 
+
+        Path file = write("hello world\n"); 
+
+        interruptAfterRollback(file, 6, "world", "WOR"); 
+
+         
+
+        assertEquals("hello world\n", read(file)); 
+
+        assertFalse(Files.exists(TextFileWriter.rollbackPath(file))); 
+
+    } 
+
+     
+
+    @Test 
+
+    void interruptedSaveIsClearedBeforeTheNextSave() throws IOException { 
+
+        Path file = write("hello world\n"); 
+
+        interruptAfterRollback(file, 0, "hello", "HEL"); 
+
+         
+
+        // A full save of other text; the rollback must not be applied over it 
+
+        save(file, "another text"); 
+
+         
+
+        assertEquals("another text", Files.readString(file)); 
+
+        assertFalse(Files.exists(TextFileWriter.rollbackPath(file))); 
+
+    } 
+
+     
+
+    @Test 
+
+    void rollbackFileCutShortIsOnlyDeleted() throws IOException { 
+
+        Path file = write("hello world\n"); 
+
+        interruptAfterRollback(file, 6, "world", ""); 
+
+        Path rollback = TextFileWriter.rollbackPath(file); 
+
+        byte[] bytes = Files.readAllBytes(rollback); 
+
+        Files.write(rollback, Arrays.copyOf(bytes, bytes.length - 3)); 
+
+         
+
+        assertEquals("hello world\n", read(file)); 
+
+        assertFalse(Files.exists(rollback)); 
+
+    } 
+
+     
+
+    @Test 
+
+    void rollbackOfAFileReplacedSinceIsDropped() throws IOException { 
+
+        Path file = write("hello world\n"); 
+
+        interruptAfterRollback(file, 6, "world", "WORLD"); 
+
+        Files.writeString(file, "something else entirely\n"); 
+
+         
+
+        assertEquals("something else entirely\n", read(file)); 
+
+        assertFalse(Files.exists(TextFileWriter.rollbackPath(file))); 
+
+    } 
+
+     
+
+    @Test 
+
+    void saveKeepsTheFileMode() throws IOException { 
+
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix")); 
+
+        Path file = write("#!/bin/sh\n"); 
+
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rwx------")); 
+
+         
+
+        save(file, "#!/bin/sh\necho saved\n"); 
+
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file))); 
+
+    } 
+
+     
+
+    @Test 
+
+    void saveThroughASymbolicLinkReplacesWhatItPointsTo() throws IOException { 
+
+        Path file = write("old\n"); 
+
+        Path link = folder.resolve("link.txt"); 
+
+        try { 
+
+            Files.createSymbolicLink(link, file.getFileName()); 
+
+        } catch (UnsupportedOperationException | IOException e) { 
+
+            assumeTrue(false, "No symbolic links here"); 
+
+        } 
+
+         
+
+        save(link, "new\n"); 
+
+        assertTrue(Files.isSymbolicLink(link)); 
+
+        assertEquals("new\n", Files.readString(file)); 
+
+    } 
+
+} 
\ No newline at end of file
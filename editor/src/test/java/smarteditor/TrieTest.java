@@ -0,0 +1,209 @@
+package smarteditor; 
+
+ 
+
+import java.util.List; 
+
+ 
+
+import org.junit.jupiter.api.Test; 
+
+ 
+
+import static org.junit.jupiter.api.Assertions.*; 
+
+ 
+
+class TrieTest { 
+
+    @Test 
+
+    void learnedWordIsEvictedWhenItsCountDropsToZero() { 
+
+        Trie trie = new Trie(); 
+
+        trie.addCount("apple", 2); 
+
+        trie.addCount("apple", -1); 
+
+        assertTrue(trie.contains("apple")); 
+
+         
+
+        trie.addCount("apple", -1); 
+
+        assertFalse(trie.contains("apple")); 
+
+        assertEquals(List.of(), trie.getSuggestions("a")); 
+
+    } 
+
+     
+
+    @Test 
+
+    void builtInWordStaysAtZero() { 
+
+        Trie trie = new Trie(); 
+
+        trie.insert("apple"); 
+
+        trie.addCount("apple", 3); 
+
+        trie.addCount("apple", -5); 
+
+         
+
+        assertTrue(trie.contains("apple")); 
+
+        assertEquals(List.of("apple"), trie.getSuggestions("ap")); 
+
+    } 
+
+     
+
+    @Test 
+
+    void evictingAWordKeepsTheWordsAlongItsPath() { 
+
+        Trie trie = new Trie(); 
+
+        trie.addCount("car", 1); 
+
+        trie.addCount("cart", 1); 
+
+        trie.addCount("carton", 1); 
+
+         
+
+        trie.addCount("cart", -1); 
+
+        assertFalse(trie.contains("cart")); 
+
+        assertTrue(trie.contains("car")); 
+
+        assertTrue(trie.contains("carton")); 
+
+        assertEquals(List.of("car", "carton"), trie.getSuggestions("car")); 
+
+         
+
+        trie.addCount("carton", -1); 
+
+        assertEquals(List.of("car"), trie.getSuggestions("c")); 
+
+    } 
+
+     
+
+    @Test 
+
+    void evictedNodesAreReused() { 
+
+        Trie trie = new Trie(); 
+
+        trie.addCount("zebra", 1); 
+
+        int nodes = trie.nodeCount; 
+
+         
+
+        trie.addCount("zebra", -1); 
+
+        trie.addCount("quick", 1); 
+
+        assertEquals(nodes, trie.nodeCount); 
+
+        assertEquals(List.of("quick"), trie.getSuggestions("")); 
+
+    } 
+
+     
+
+    @Test 
+
+    void demotedWordMovesDownTheSuggestions() { 
+
+        Trie trie = new Trie(); 
+
+        trie.addCount("alpha", 5); 
+
+        trie.addCount("amber", 3); 
+
+        trie.addCount("apex", 1); 
+
+        assertEquals(List.of("alpha", "amber", "apex"), trie.getSuggestions("a")); 
+
+         
+
+        trie.addCount("alpha", -4); 
+
+        assertEquals(List.of("amber", "alpha", "apex"), trie.getSuggestions("a")); 
+
+    } 
+
+     
+
+    @Test 
+
+    void demotionBringsBackAWordPastTheLimit() { 
+
+        Trie trie = new Trie(); 
+
+        for (int i = 0; i <= Trie.SUGGESTION_LIMIT; i++) { 
+
+            trie.addCount("word" + (char) ('a' + i), 100 - i); 
+
+        } 
+
+        String last = "word" + (char) ('a' + Trie.SUGGESTION_LIMIT); 
+
+        assertFalse(trie.getSuggestions("w").contains(last)); 
+
+         
+
+        // Evicting the best word makes room for the one that did not fit 
+
+        trie.addCount("worda", -100); 
+
+        List<String> suggestions = trie.getSuggestions("w"); 
+
+        assertEquals(Trie.SUGGESTION_LIMIT, suggestions.size()); 
+
+        assertFalse(suggestions.contains("worda")); 
+
+        assertEquals(last, suggestions.get(suggestions.size() - 1)); 
+
+    } 
+
+     
+
+    @Test 
+
+    void wordsWithinADistanceAreNotCutOffByLongerWords() { 
+
+        Trie trie = new Trie(); 
+
+        trie.addCount("reader", 1); 
+
+        for (char c = 'A'; c <= 'K'; c++) { 
+
+            trie.addCount("reader" + c, 100); 
+
+        } 
+
+        trie.addCount("ready", 1); 
+
+        trie.addCount("bread", 1); 
+
+         
+
+        List<String> words = trie.getWordsWithin("reade", 1); 
+
+        assertEquals(2, words.size()); 
+
+        assertTrue(words.containsAll(List.of("reader", "ready"))); 
+
+    } 
+
+} 
\ No newline at end of file
@@ -0,0 +1,329 @@
+package smarteditor; 
+
+ 
+
+import java.io.File; 
+
+import java.io.IOException; 
+
+import java.nio.ByteBuffer; 
+
+import java.nio.file.Files; 
+
+import java.nio.file.Path; 
+
+import java.util.Arrays; 
+
+ 
+
+import org.junit.jupiter.api.AfterEach; 
+
+import org.junit.jupiter.api.BeforeEach; 
+
+import org.junit.jupiter.api.Test; 
+
+import org.junit.jupiter.api.io.TempDir; 
+
+ 
+
+import static org.junit.jupiter.api.Assertions.*; 
+
+ 
+
+// The journals go to the user.home the build sets for tests 
+
+class UndoJournalTest { 
+
+    private static final long FILE_SIZE = 10; 
+
+    private static final long FILE_MODIFIED = 20; 
+
+    private static final int LENGTH = 10; 
+
+    private static final int HEADER_SIZE = 8; // Magic and version 
+
+    private static final int RECORD_HEADER = 8; // Length and checksum 
+
+     
+
+    @TempDir 
+
+    Path folder; 
+
+     
+
+    private File file; 
+
+    private Path journalPath; 
+
+    private long savedState; 
+
+     
+
+    @BeforeEach 
+
+    void setUp() { 
+
+        file = new File(folder.toFile(), "document.txt"); 
+
+    } 
+
+     
+
+    @AfterEach 
+
+    void tearDown() throws IOException { 
+
+        if (journalPath != null) { 
+
+            Files.deleteIfExists(journalPath); 
+
+        } 
+
+    } 
+
+     
+
+    private UndoJournal open(UndoTree tree) throws IOException { 
+
+        UndoJournal journal = UndoJournal.open(file, tree, FILE_SIZE, FILE_MODIFIED, LENGTH); 
+
+        journalPath = journal.getPath(); 
+
+        return journal; 
+
+    } 
+
+     
+
+    // Types "a", saves, then types "b", each as a state of its own; the 
+
+    // last record is the one for "b" 
+
+    private void writeHistory() throws IOException { 
+
+        UndoTree tree = new UndoTree(); 
+
+        UndoJournal journal = open(tree); 
+
+        tree.record(new TextEdit(0, "", "a")); 
+
+        tree.closeGroup(); 
+
+        savedState = tree.getCurrentSequence(); 
+
+        journal.saved(savedState, FILE_SIZE, FILE_MODIFIED, LENGTH); 
+
+        tree.record(new TextEdit(1, "", "b")); 
+
+        tree.closeGroup(); 
+
+        journal.close(); 
+
+    } 
+
+     
+
+    // Where each record starts, up to the zeros after the last one 
+
+    private int[] recordStarts(ByteBuffer journal) { 
+
+        int[] starts = new int[0]; 
+
+        int position = HEADER_SIZE; 
+
+        while (position + RECORD_HEADER <= journal.limit() && journal.getInt(position) > 0) { 
+
+            starts = Arrays.copyOf(starts, starts.length + 1); 
+
+            starts[starts.length - 1] = position; 
+
+            position += RECORD_HEADER + journal.getInt(position); 
+
+        } 
+
+        return starts; 
+
+    } 
+
+     
+
+    @Test 
+
+    void historyIsRestoredWhenTheFileIsReopened() throws IOException { 
+
+        writeHistory(); 
+
+         
+
+        UndoTree tree = new UndoTree(); 
+
+        UndoJournal journal = open(tree); 
+
+        assertEquals(3, tree.size()); 
+
+        assertEquals(savedState, tree.getCurrentSequence()); 
+
+        assertEquals("b", tree.redo().inserted); 
+
+        assertEquals("b", tree.undo().inserted); 
+
+        assertEquals("a", tree.undo().inserted); 
+
+        assertNull(tree.undo()); 
+
+        journal.close(); 
+
+    } 
+
+     
+
+    @Test 
+
+    void recordCutShortEndsTheJournal() throws IOException { 
+
+        writeHistory(); 
+
+        byte[] bytes = Files.readAllBytes(journalPath); 
+
+        int[] starts = recordStarts(ByteBuffer.wrap(bytes)); 
+
+        int last = starts[starts.length - 1]; 
+
+        Files.write(journalPath, Arrays.copyOf(bytes, last + RECORD_HEADER + 3)); 
+
+         
+
+        UndoTree tree = new UndoTree(); 
+
+        UndoJournal journal = open(tree); 
+
+        assertEquals(2, tree.size()); 
+
+        assertEquals(savedState, tree.getCurrentSequence()); 
+
+        assertNull(tree.redo()); 
+
+        journal.close(); 
+
+    } 
+
+     
+
+    @Test 
+
+    void recordFailingItsChecksumEndsTheJournal() throws IOException { 
+
+        writeHistory(); 
+
+        byte[] bytes = Files.readAllBytes(journalPath); 
+
+        int[] starts = recordStarts(ByteBuffer.wrap(bytes)); 
+
+        bytes[starts[starts.length - 1] + RECORD_HEADER + 1] ^= 1; 
+
+        Files.write(journalPath, bytes); 
+
+         
+
+        UndoTree tree = new UndoTree(); 
+
+        UndoJournal journal = open(tree); 
+
+        assertEquals(2, tree.size()); 
+
+        assertEquals(savedState, tree.getCurrentSequence()); 
+
+        journal.close(); 
+
+    } 
+
+     
+
+    @Test 
+
+    void journalDamagedBeforeTheSaveIsStartedOver() throws IOException { 
+
+        writeHistory(); 
+
+        byte[] bytes = Files.readAllBytes(journalPath); 
+
+        int[] starts = recordStarts(ByteBuffer.wrap(bytes)); 
+
+        bytes[starts[0] + 4] ^= 1; // The checksum of the first record 
+
+        Files.write(journalPath, bytes); 
+
+         
+
+        UndoTree tree = new UndoTree(); 
+
+        UndoJournal journal = open(tree); 
+
+        assertEquals(1, tree.size()); 
+
+        journal.close(); 
+
+    } 
+
+     
+
+    @Test 
+
+    void journalOfAChangedFileIsStartedOver() throws IOException { 
+
+        writeHistory(); 
+
+         
+
+        UndoTree tree = new UndoTree(); 
+
+        UndoJournal journal = UndoJournal.open(file, tree, FILE_SIZE + 1, FILE_MODIFIED, LENGTH + 1); 
+
+        assertEquals(1, tree.size()); 
+
+        journal.close(); 
+
+    } 
+
+     
+
+    @Test 
+
+    void journalWithoutHistoryIsDeletedOnClose() throws IOException { 
+
+        UndoJournal journal = open(new UndoTree()); 
+
+        assertTrue(Files.exists(journalPath)); 
+
+         
+
+        journal.close(); 
+
+        assertFalse(Files.exists(journalPath)); 
+
+    } 
+
+     
+
+    @Test 
+
+    void journalStillOpenElsewhereIsKeptOnClose() throws IOException { 
+
+        UndoJournal first = open(new UndoTree()); 
+
+        UndoJournal second = open(new UndoTree()); 
+
+         
+
+        first.close(); 
+
+        assertTrue(Files.exists(journalPath)); 
+
+        second.close(); 
+
+        assertFalse(Files.exists(journalPath)); 
+
+    } 
+
+} 
\ No newline at end of file